@@ -0,0 +1,92 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.benchmark;
+
+import com.reandroid.apk.ApkModule;
+import com.reandroid.apk.ApkModuleXmlDecoder;
+import com.reandroid.apk.ApkModuleXmlEncoder;
+import com.reandroid.utils.io.FileUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Covers ApkModule decode/encode to and from xml directory and ApkFileWriter
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ApkModuleBenchmark {
+
+    @Param({"500", "5000"})
+    public int size;
+
+    private File workDir;
+    private File apkFile;
+    private File decodedDir;
+    private File outputFile;
+
+    @Setup
+    public void setup() throws IOException {
+        workDir = SyntheticInputs.createTempDir("apk-benchmark");
+        apkFile = new File(workDir, "input.apk");
+        ApkModule apkModule = SyntheticInputs.createApk(size);
+        apkModule.writeApk(apkFile);
+        apkModule.close();
+
+        decodedDir = new File(workDir, "decoded");
+        decode(decodedDir);
+        outputFile = new File(workDir, "output.apk");
+    }
+    @TearDown
+    public void tearDown() {
+        FileUtil.deleteDirectory(workDir);
+    }
+
+    @Benchmark
+    public File decode() throws IOException {
+        return decode(new File(workDir, "decode-out"));
+    }
+    @Benchmark
+    public ApkModule encode() throws IOException {
+        ApkModuleXmlEncoder encoder = new ApkModuleXmlEncoder();
+        encoder.scanDirectory(decodedDir);
+        ApkModule apkModule = encoder.getApkModule();
+        apkModule.close();
+        return apkModule;
+    }
+    @Benchmark
+    public long writeApk() throws IOException {
+        ApkModule apkModule = ApkModule.loadApkFile(apkFile);
+        apkModule.writeApk(outputFile);
+        apkModule.close();
+        return outputFile.length();
+    }
+
+    private File decode(File dir) throws IOException {
+        ApkModule apkModule = ApkModule.loadApkFile(apkFile);
+        apkModule.setLoadDefaultFramework(false);
+        ApkModuleXmlDecoder decoder = new ApkModuleXmlDecoder(apkModule);
+        decoder.decode(dir);
+        apkModule.close();
+        return dir;
+    }
+}
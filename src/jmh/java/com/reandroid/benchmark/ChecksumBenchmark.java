@@ -0,0 +1,112 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.benchmark;
+
+import com.reandroid.utils.ALDER32;
+import com.reandroid.utils.ChecksumProvider;
+import com.reandroid.utils.Crc32;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares checksum providers against the former byte-at-a-time implementation ("legacy")
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChecksumBenchmark {
+
+    @Param({"legacy", "java", "jdk"})
+    public String provider;
+
+    @Param({"4096", "1048576"})
+    public int size;
+
+    private byte[] data;
+    private ChecksumProvider checksumProvider;
+
+    @Setup
+    public void setup() {
+        data = new byte[size];
+        new Random(size).nextBytes(data);
+        checksumProvider = ChecksumProvider.forName(provider);
+    }
+
+    @Benchmark
+    public long crc32() {
+        byte[] data = this.data;
+        ChecksumProvider checksumProvider = this.checksumProvider;
+        if(checksumProvider == null) {
+            return legacyCrc32(data);
+        }
+        Crc32 crc32 = new Crc32(checksumProvider);
+        crc32.update(data, 0, data.length);
+        return crc32.getValue();
+    }
+    @Benchmark
+    public long adler32() {
+        byte[] data = this.data;
+        ChecksumProvider checksumProvider = this.checksumProvider;
+        if(checksumProvider == null) {
+            return legacyAdler32(data);
+        }
+        ALDER32 alder32 = new ALDER32(checksumProvider);
+        alder32.update(data, 0, data.length);
+        return alder32.getValue();
+    }
+
+    private static long legacyCrc32(byte[] data) {
+        long[] table = LEGACY_CRC_TABLE;
+        long c = 0xffffffffL;
+        for (byte value : data) {
+            int b = value & 0xff;
+            c = table[(int) ((c ^ b) & 0xff)] ^ (c >> 8);
+        }
+        return c ^ 0xffffffffL;
+    }
+    private static long legacyAdler32(byte[] data) {
+        int a = 1;
+        int b = 0;
+        for (byte value : data) {
+            a = (a + (value & 0xff)) % 0xfff1;
+            b = (b + a) % 0xfff1;
+        }
+        return ((long) ((b << 16) | a)) & 0xffffffffL;
+    }
+
+    private static final long[] LEGACY_CRC_TABLE;
+
+    static {
+        long[] table = new long[256];
+        for (int i = 0; i < 256; i++) {
+            long c = i;
+            for (int j = 0; j < 8; j++) {
+                if ((c & 1) == 1) {
+                    c = 0xedb88320L ^ (c >> 1);
+                } else {
+                    c = c >> 1;
+                }
+            }
+            table[i] = c;
+        }
+        LEGACY_CRC_TABLE = table;
+    }
+}
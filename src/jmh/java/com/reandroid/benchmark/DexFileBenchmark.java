@@ -0,0 +1,61 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.benchmark;
+
+import com.reandroid.dex.model.DexFile;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DexFileBenchmark {
+
+    @Param({"100", "5000"})
+    public int size;
+
+    private byte[] dexBytes;
+    private DexFile dexFile;
+    private NullOutputStream outputStream;
+
+    @Setup
+    public void setup() throws IOException {
+        dexFile = SyntheticInputs.createDex(size);
+        dexBytes = dexFile.getBytes();
+        outputStream = new NullOutputStream();
+    }
+    @TearDown
+    public void tearDown() throws IOException {
+        dexFile.close();
+    }
+
+    @Benchmark
+    public DexFile read() throws IOException {
+        return DexFile.read(dexBytes);
+    }
+    @Benchmark
+    public long write() throws IOException {
+        NullOutputStream outputStream = this.outputStream;
+        outputStream.reset();
+        dexFile.write(outputStream);
+        return outputStream.getCount();
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.benchmark;
+
+import com.reandroid.utils.ByteDigest;
+import com.reandroid.utils.DigestProvider;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DigestBenchmark {
+
+    @Param({"java", "jdk"})
+    public String provider;
+
+    @Param({"4096", "1048576"})
+    public int size;
+
+    private byte[] data;
+    private DigestProvider digestProvider;
+
+    @Setup
+    public void setup() {
+        data = new byte[size];
+        new Random(size).nextBytes(data);
+        digestProvider = DigestProvider.forName(provider);
+    }
+
+    @Benchmark
+    public byte[] sha1() {
+        ByteDigest digest = digestProvider.newSha1();
+        digest.update(data);
+        return digest.digest();
+    }
+    @Benchmark
+    public byte[] sha256() {
+        ByteDigest digest = digestProvider.newSha256();
+        digest.update(data);
+        return digest.digest();
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.benchmark;
+
+import java.io.OutputStream;
+
+public class NullOutputStream extends OutputStream {
+
+    private long count;
+
+    public NullOutputStream() {
+    }
+
+    public long getCount() {
+        return count;
+    }
+    public void reset() {
+        count = 0;
+    }
+    @Override
+    public void write(int b) {
+        count ++;
+    }
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+        count += length;
+    }
+}
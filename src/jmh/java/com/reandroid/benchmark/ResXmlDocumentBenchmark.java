@@ -0,0 +1,61 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.benchmark;
+
+import com.reandroid.arsc.chunk.xml.ResXmlDocument;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResXmlDocumentBenchmark {
+
+    @Param({"100", "5000"})
+    public int size;
+
+    private byte[] xmlBytes;
+    private ResXmlDocument document;
+    private NullOutputStream outputStream;
+
+    @Setup
+    public void setup() {
+        document = SyntheticInputs.createXml(size);
+        xmlBytes = document.getBytes();
+        outputStream = new NullOutputStream();
+    }
+
+    @Benchmark
+    public ResXmlDocument parse() throws IOException {
+        ResXmlDocument document = new ResXmlDocument();
+        document.readBytes(new ByteArrayInputStream(xmlBytes));
+        return document;
+    }
+    @Benchmark
+    public long serialize() throws IOException {
+        NullOutputStream outputStream = this.outputStream;
+        outputStream.reset();
+        document.refresh();
+        document.writeBytes(outputStream);
+        return outputStream.getCount();
+    }
+}
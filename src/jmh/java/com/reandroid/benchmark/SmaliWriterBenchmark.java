@@ -0,0 +1,94 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.benchmark;
+
+import com.reandroid.dex.model.DexClass;
+import com.reandroid.dex.model.DexFile;
+import com.reandroid.dex.smali.SmaliWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SmaliWriterBenchmark {
+
+    @Param({"100", "5000"})
+    public int size;
+
+    private DexFile dexFile;
+
+    @Setup
+    public void setup() throws IOException {
+        dexFile = DexFile.read(SyntheticInputs.createDex(size).getBytes());
+    }
+    @TearDown
+    public void tearDown() throws IOException {
+        dexFile.close();
+    }
+
+    @Benchmark
+    public long writeSmali() throws IOException {
+        CountingWriter writer = new CountingWriter();
+        SmaliWriter smaliWriter = new SmaliWriter(writer);
+        Iterator<DexClass> iterator = dexFile.getDexClasses();
+        while (iterator.hasNext()) {
+            iterator.next().append(smaliWriter);
+        }
+        smaliWriter.close();
+        return writer.count;
+    }
+    @Benchmark
+    public long writeSmaliUtf8() throws IOException {
+        NullOutputStream outputStream = new NullOutputStream();
+        SmaliWriter smaliWriter = new SmaliWriter(outputStream);
+        Iterator<DexClass> iterator = dexFile.getDexClasses();
+        while (iterator.hasNext()) {
+            iterator.next().append(smaliWriter);
+        }
+        smaliWriter.close();
+        return outputStream.getCount();
+    }
+
+    static class CountingWriter extends Writer {
+        long count;
+        @Override
+        public void write(int c) {
+            count ++;
+        }
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            count += length;
+        }
+        @Override
+        public void write(String str, int offset, int length) {
+            count += length;
+        }
+        @Override
+        public void flush() {
+        }
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.benchmark;
+
+import com.reandroid.apk.ApkModule;
+import com.reandroid.archive.ByteInputSource;
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.chunk.xml.AndroidManifestBlock;
+import com.reandroid.arsc.chunk.xml.ResXmlAttribute;
+import com.reandroid.arsc.chunk.xml.ResXmlDocument;
+import com.reandroid.arsc.chunk.xml.ResXmlElement;
+import com.reandroid.arsc.value.Entry;
+import com.reandroid.arsc.value.ValueType;
+import com.reandroid.dex.common.AccessFlag;
+import com.reandroid.dex.key.MethodKey;
+import com.reandroid.dex.key.TypeKey;
+import com.reandroid.dex.model.DexClass;
+import com.reandroid.dex.model.DexFile;
+import com.reandroid.dex.model.DexLayout;
+import com.reandroid.dex.model.DexMethod;
+
+import java.io.File;
+import java.io.IOException;
+
+public class SyntheticInputs {
+
+    public static TableBlock createTable(int size) {
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, PACKAGE_NAME);
+        addEntries(packageBlock, size);
+        tableBlock.refreshFull();
+        return tableBlock;
+    }
+    private static void addEntries(PackageBlock packageBlock, int size) {
+        for(int i = 0; i < size; i++) {
+            String name = "name_" + i;
+            Entry entry = packageBlock.getOrCreate(QUALIFIERS[i % QUALIFIERS.length], "string", name);
+            entry.setValueAsString("Value of " + name + " " + (i * 31));
+            entry = packageBlock.getOrCreate("", "integer", name);
+            entry.setValueAsRaw(ValueType.DEC, i);
+        }
+    }
+    public static ResXmlDocument createXml(int size) {
+        ResXmlDocument document = new ResXmlDocument();
+        ResXmlElement root = document.getDocumentElement();
+        root.setName("LinearLayout");
+        root.getOrCreateAndroidAttribute("orientation", 0x010100c4)
+                .setTypeAndData(ValueType.DEC, 1);
+        for(int i = 0; i < size; i++) {
+            ResXmlElement element = root.newElement("TextView");
+            element.getOrCreateAndroidAttribute("layout_width", 0x010100f4)
+                    .setTypeAndData(ValueType.DEC, -1);
+            element.getOrCreateAndroidAttribute("layout_height", 0x010100f5)
+                    .setTypeAndData(ValueType.DEC, -2);
+            ResXmlAttribute attribute = element.getOrCreateAndroidAttribute("text", 0x0101014f);
+            attribute.setValueAsString("Text " + i);
+        }
+        document.refreshFull();
+        return document;
+    }
+    public static DexFile createDex(int size) throws IOException {
+        DexFile dexFile = DexFile.createDefault();
+        DexLayout dexLayout = dexFile.getOrCreateFirst();
+        TypeKey objectKey = TypeKey.create("Ljava/lang/Object;");
+        for(int i = 0; i < size; i++) {
+            TypeKey typeKey = TypeKey.create("Lcom/reandroid/benchmark/Class" + i + ";");
+            DexClass dexClass = dexLayout.getOrCreateClass(typeKey);
+            dexClass.addAccessFlag(AccessFlag.PUBLIC);
+            dexClass.setSuperClass(objectKey);
+
+            DexMethod constructor = dexClass.getOrCreateDirectMethod(
+                    MethodKey.CONSTRUCTOR.changeDeclaring(typeKey));
+            constructor.addAccessFlag(AccessFlag.PUBLIC);
+            constructor.addAccessFlag(AccessFlag.CONSTRUCTOR);
+            constructor.setParameterRegistersCount(1);
+            constructor.parseInstruction("invoke-direct {p0}, Ljava/lang/Object;-><init>()V")
+                    .createNext("return-void");
+
+            DexMethod method = dexClass.getOrCreateVirtualMethod(MethodKey.parse(
+                    typeKey.getTypeName() + "->value()Ljava/lang/String;"));
+            method.addAccessFlag(AccessFlag.PUBLIC);
+            method.setParameterRegistersCount(1);
+            method.setLocalRegistersCount(1);
+            method.parseInstruction("const-string v0, \"value " + i + "\"")
+                    .createNext("return-object v0");
+        }
+        dexFile.clearUnused();
+        dexFile.clearEmptySections();
+        dexFile.refreshFull();
+        return dexFile;
+    }
+    public static ApkModule createApk(int size) throws IOException {
+        ApkModule apkModule = new ApkModule();
+        AndroidManifestBlock manifestBlock = new AndroidManifestBlock();
+        manifestBlock.setPackageName(PACKAGE_NAME);
+        manifestBlock.setVersionCode(1);
+        manifestBlock.setMinSdkVersion(21);
+        manifestBlock.refresh();
+        apkModule.setManifest(manifestBlock);
+
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, PACKAGE_NAME);
+        addEntries(packageBlock, size);
+        int layouts = Math.max(1, size / 10);
+        for(int i = 0; i < layouts; i++) {
+            String path = "res/layout/layout_" + i + ".xml";
+            apkModule.add(new ByteInputSource(createXml(10).getBytes(), path));
+            packageBlock.getOrCreate("", "layout", "layout_" + i).setValueAsString(path);
+        }
+        tableBlock.refreshFull();
+        apkModule.setTableBlock(tableBlock);
+
+        apkModule.add(new ByteInputSource(createDex(layouts).getBytes(), "classes.dex"));
+        return apkModule;
+    }
+    public static File createTempDir(String prefix) throws IOException {
+        File file = File.createTempFile(prefix, "");
+        if(!file.delete() || !file.mkdirs()) {
+            throw new IOException("Failed to create temp directory: " + file);
+        }
+        return file;
+    }
+
+    private static final String PACKAGE_NAME = "com.reandroid.benchmark";
+    private static final String[] QUALIFIERS = new String[]{"", "-en", "-de-rDE", "-fr", "-ru-rRU"};
+}
@@ -0,0 +1,59 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.benchmark;
+
+import com.reandroid.arsc.chunk.TableBlock;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TableBlockBenchmark {
+
+    @Param({"1000", "20000"})
+    public int size;
+
+    private byte[] tableBytes;
+    private TableBlock tableBlock;
+    private NullOutputStream outputStream;
+
+    @Setup
+    public void setup() {
+        tableBlock = SyntheticInputs.createTable(size);
+        tableBytes = tableBlock.getBytes();
+        outputStream = new NullOutputStream();
+    }
+
+    @Benchmark
+    public TableBlock load() throws IOException {
+        return TableBlock.load(new ByteArrayInputStream(tableBytes));
+    }
+    @Benchmark
+    public long writeBytes() throws IOException {
+        NullOutputStream outputStream = this.outputStream;
+        outputStream.reset();
+        tableBlock.refresh();
+        tableBlock.writeBytes(outputStream);
+        return outputStream.getCount();
+    }
+}
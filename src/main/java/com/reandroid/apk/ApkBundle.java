@@ -25,6 +25,7 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.*;
 
 public class ApkBundle implements Closeable {
     private final Map<String, ApkModule> mModulesMap;
@@ -37,10 +38,20 @@ public class ApkBundle implements Closeable {
         return mergeModules(false);
     }
     public ApkModule mergeModules(boolean force) throws IOException {
+        return mergeModules(force, 1);
+    }
+    /**
+     * Merges all modules, when threads > 1 resources.arsc and AndroidManifest.xml of
+     * every module are decoded concurrently before being merged in to the result.
+     * */
+    public ApkModule mergeModules(boolean force, int threads) throws IOException {
         List<ApkModule> moduleList=getApkModuleList();
         if(moduleList.size()==0){
             throw new FileNotFoundException("Nothing to merge, empty modules");
         }
+        if(threads > 1){
+            preloadModules(moduleList, threads);
+        }
         ApkModule result = new ApkModule(generateMergedModuleName(), new ZipEntryMap());
         result.setAPKLogger(apkLogger);
         result.setLoadDefaultFramework(false);
@@ -117,6 +128,9 @@ public class ApkBundle implements Closeable {
         loadApkDirectory(dir, false);
     }
     public void loadApkDirectory(File dir, boolean recursive) throws IOException {
+        loadApkDirectory(dir, recursive, 1);
+    }
+    public void loadApkDirectory(File dir, boolean recursive, int threads) throws IOException {
         if(!dir.isDirectory()){
             throw new FileNotFoundException("No such directory: "+dir);
         }
@@ -130,12 +144,61 @@ public class ApkBundle implements Closeable {
             throw new FileNotFoundException("No '*.apk' files in directory: "+dir);
         }
         logMessage("Found apk files: "+apkList.size());
+        if(threads > 1 && apkList.size() > 1){
+            List<Callable<ApkModule>> taskList = new ArrayCollection<>(apkList.size());
+            for(File file : apkList){
+                taskList.add(() -> loadApkFile(file));
+            }
+            for(ApkModule module : invokeAll(taskList, threads)){
+                addModule(module);
+            }
+            return;
+        }
         for(File file:apkList){
-            logVerbose("Loading: "+file.getName());
-            String name = ApkUtil.toModuleName(file);
-            ApkModule module = ApkModule.loadApkFile(file, name);
-            module.setAPKLogger(apkLogger);
-            addModule(module);
+            addModule(loadApkFile(file));
+        }
+    }
+    private ApkModule loadApkFile(File file) throws IOException {
+        logVerbose("Loading: "+file.getName());
+        String name = ApkUtil.toModuleName(file);
+        ApkModule module = ApkModule.loadApkFile(file, name);
+        module.setAPKLogger(apkLogger);
+        return module;
+    }
+    private void preloadModules(List<ApkModule> moduleList, int threads) throws IOException {
+        List<Callable<ApkModule>> taskList = new ArrayCollection<>(moduleList.size());
+        for(ApkModule module : moduleList){
+            taskList.add(() -> {
+                module.setLoadDefaultFramework(false);
+                module.getTableBlock(false);
+                module.getAndroidManifest();
+                return module;
+            });
+        }
+        logMessage("Decoding modules: " + moduleList.size() + ", threads = " + threads);
+        invokeAll(taskList, threads);
+    }
+    private static<T> List<T> invokeAll(List<Callable<T>> taskList, int threads) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(threads, taskList.size()));
+        try {
+            List<Future<T>> futureList = executor.invokeAll(taskList);
+            List<T> results = new ArrayCollection<>(futureList.size());
+            for(Future<T> future : futureList){
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if(cause instanceof IOException){
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            executor.shutdownNow();
         }
     }
     public void addModule(ApkModule apkModule){
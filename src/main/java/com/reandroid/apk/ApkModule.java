@@ -62,6 +62,7 @@ public class ApkModule implements ApkFile, Closeable {
     private final List<TableBlock> mExternalFrameworks;
 
     private final Map<Object, Object> mTagMaps;
+    private final ResFileMap mResFileMap;
 
     public ApkModule(String moduleName, ZipEntryMap zipEntryMap){
         this.moduleName = moduleName;
@@ -71,6 +72,7 @@ public class ApkModule implements ApkFile, Closeable {
         this.mExternalFrameworks = new ArrayCollection<>();
         this.zipEntryMap.setModuleName(moduleName);
         this.mTagMaps = new HashMap<>();
+        this.mResFileMap = new ResFileMap(this);
     }
     public ApkModule(ZipEntryMap zipEntryMap){
         this("base", zipEntryMap);
@@ -485,12 +487,36 @@ public class ApkModule implements ApkFile, Closeable {
     public void writeApk(OutputStream outputStream) throws IOException {
         createApkStreamWriter(outputStream).write();
     }
+    /**
+     * Writes in a single pass without buffering entries, see {@link ApkStreamWriter#setStreaming(boolean)}
+     * */
+    public void writeApkStreaming(OutputStream outputStream) throws IOException {
+        ApkStreamWriter writer = createApkStreamWriter(outputStream);
+        writer.setStreaming(true);
+        writer.write();
+    }
     public ApkFileWriter createApkFileWriter(File file) throws IOException {
         updateUncompressedFiles();
         ApkFileWriter writer = new ApkFileWriter(file, getZipEntryMap().toArray(true));
         applyDefaultApkWriterSetting(writer);
         return writer;
     }
+    /**
+     * Same as writeApk, but when the file is the one this module is loaded from, the
+     * unchanged entries are kept in place and only the rest is rewritten.
+     * The module should be reloaded after writing to its own file.
+     * */
+    public ApkIncrementalWriter writeApkIncremental(File file) throws IOException {
+        ApkIncrementalWriter writer = createApkIncrementalWriter(file);
+        writer.write();
+        return writer;
+    }
+    public ApkIncrementalWriter createApkIncrementalWriter(File file) throws IOException {
+        updateUncompressedFiles();
+        ApkIncrementalWriter writer = new ApkIncrementalWriter(file, getZipEntryMap().toArray(true));
+        applyDefaultApkWriterSetting(writer);
+        return writer;
+    }
     public ApkByteWriter createApkByteWriter() {
         updateUncompressedFiles();
         ApkByteWriter writer = new ApkByteWriter(getZipEntryMap().toArray(true));
@@ -580,25 +606,7 @@ public class ApkModule implements ApkFile, Closeable {
         return listResFiles(0, null);
     }
     public List<ResFile> listResFiles(int resourceId, ResConfig resConfig) {
-        List<ResFile> results = new ArrayCollection<>();
-        TableBlock tableBlock = getTableBlock();
-        if (tableBlock == null){
-            return results;
-        }
-        TableStringPool stringPool= tableBlock.getStringPool();
-        for(InputSource inputSource : getInputSources()){
-            String name = inputSource.getAlias();
-            Iterator<TableString> iterator = stringPool.getAll(name);
-            while (iterator.hasNext()){
-                TableString tableString = iterator.next();
-                List<Entry> entryList = filterResFileEntries(tableString, resourceId, resConfig);
-                if(!entryList.isEmpty()) {
-                    ResFile resFile = new ResFile(inputSource, entryList);
-                    results.add(resFile);
-                }
-            }
-        }
-        return results;
+        return mResFileMap.list(resourceId, resConfig);
     }
     public boolean removeResFile(String path) {
         return removeResFile(path, true);
@@ -614,6 +622,7 @@ public class ApkModule implements ApkFile, Closeable {
         }
         resFile.delete(keepResourceId);
         removeInputSource(path);
+        mResFileMap.onRemoved(path);
         return true;
     }
     public ResFile getResFile(String path) {
@@ -621,11 +630,7 @@ public class ApkModule implements ApkFile, Closeable {
         if(inputSource == null) {
             return null;
         }
-        List<Entry> entryList = listReferencedEntries(path);
-        if(entryList.isEmpty()) {
-            return null;
-        }
-        return new ResFile(inputSource, entryList);
+        return mResFileMap.get(path);
     }
 
     public List<Entry> listReferencedEntries(String path) {
@@ -642,19 +647,6 @@ public class ApkModule implements ApkFile, Closeable {
         }
         return results;
     }
-    private List<Entry> filterResFileEntries(TableString tableString, int resourceId, ResConfig resConfig){
-        Iterator<Entry> itr = tableString.getEntries(item -> {
-            if(!item.isScalar() ||
-                    !TypeBlock.canHaveResourceFile(item.getTypeName())){
-                return false;
-            }
-            if(resourceId != 0 && resourceId != item.getResourceId()){
-                return false;
-            }
-            return resConfig == null || resConfig.equals(item.getResConfig());
-        });
-        return CollectionUtil.toList(itr);
-    }
     public int getVersionCode() {
         AndroidManifestBlock manifestBlock = getAndroidManifest();
         if(manifestBlock != null) {
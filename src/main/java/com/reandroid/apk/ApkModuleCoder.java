@@ -15,13 +15,33 @@
  */
 package com.reandroid.apk;
 
+import com.reandroid.utils.collection.ArrayCollection;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.*;
+
 public abstract class ApkModuleCoder {
     private APKLogger apkLogger;
+    private int threads = 1;
     public ApkModuleCoder(){
 
     }
 
     public abstract ApkModule getApkModule();
+
+    public int getThreads() {
+        return threads;
+    }
+    /**
+     * Number of threads to extract or collect raw files, default 1
+     * */
+    public void setThreads(int threads) {
+        if(threads < 1) {
+            threads = 1;
+        }
+        this.threads = threads;
+    }
     public void setApkLogger(APKLogger apkLogger) {
         this.apkLogger = apkLogger;
     }
@@ -48,6 +68,33 @@ public abstract class ApkModuleCoder {
         }
     }
 
+    static<T> List<T> invokeAll(List<Callable<T>> taskList, int threads) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(threads, taskList.size()));
+        try {
+            List<Future<T>> futureList = executor.invokeAll(taskList);
+            List<T> results = new ArrayCollection<>(futureList.size());
+            for(Future<T> future : futureList){
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if(cause instanceof IOException){
+                throw (IOException) cause;
+            }
+            if(cause instanceof RuntimeException){
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     public static final String ROOT_DIRECTORY_NAME = "root";
     public static final String SIGNATURE_DIRECTORY_NAME = "signatures";
 
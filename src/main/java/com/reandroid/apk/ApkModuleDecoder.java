@@ -30,10 +30,12 @@ import com.reandroid.json.JSONObject;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
 
 public abstract class ApkModuleDecoder extends ApkModuleCoder{
     private final ApkModule apkModule;
@@ -66,6 +68,11 @@ public abstract class ApkModuleDecoder extends ApkModuleCoder{
     public void extractRootFiles(File mainDirectory) throws IOException {
         logMessage("Extracting root files ...");
         File rootDir = new File(mainDirectory, ApkUtil.ROOT_NAME);
+        int threads = getThreads();
+        if(threads > 1){
+            extractRootFiles(rootDir, threads);
+            return;
+        }
         for(InputSource inputSource:apkModule.getInputSources()){
             if(containsDecodedPath(inputSource.getAlias())){
                 continue;
@@ -74,6 +81,28 @@ public abstract class ApkModuleDecoder extends ApkModuleCoder{
             addDecodedPath(inputSource.getAlias());
         }
     }
+    /**
+     * Archive entry sources read by absolute positions, thus entries are written concurrently
+     * */
+    private void extractRootFiles(File rootDir, int threads) throws IOException {
+        List<Callable<String>> taskList = new ArrayList<>();
+        for(InputSource inputSource:apkModule.getInputSources()){
+            if(containsDecodedPath(inputSource.getAlias())){
+                continue;
+            }
+            taskList.add(() -> {
+                extractRootFile(rootDir, inputSource);
+                return inputSource.getAlias();
+            });
+        }
+        if(taskList.isEmpty()){
+            return;
+        }
+        logVerbose("Extracting: " + taskList.size() + ", threads = " + threads);
+        for(String path : invokeAll(taskList, threads)){
+            addDecodedPath(path);
+        }
+    }
     public void decodeDexInfo(File mainDirectory)
             throws IOException {
         File file = new File(mainDirectory, "dex-info.json");
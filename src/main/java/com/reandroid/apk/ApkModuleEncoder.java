@@ -28,7 +28,9 @@ import com.reandroid.json.JSONArray;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 public abstract class ApkModuleEncoder extends ApkModuleCoder{
     private DexEncoder mDexEncoder;
@@ -130,17 +132,37 @@ public abstract class ApkModuleEncoder extends ApkModuleCoder{
         pathMap.fromJson(jsonArray);
         pathMap.restore(getApkModule());
     }
-    private void scanRootDir(File mainDirectory){
+    private void scanRootDir(File mainDirectory) throws IOException {
         logMessage("Scanning root directory ...");
         File root = new File(mainDirectory, ROOT_DIRECTORY_NAME);
         ZipEntryMap archive = getApkModule().getZipEntryMap();
-        List<File> rootFileList = ApkUtil.recursiveFiles(root);
+        List<File> rootFileList = listRootFiles(root);
         for(File file:rootFileList){
             String path = ApkUtil.toArchivePath(root, file);
             FileInputSource inputSource = new FileInputSource(file, path);
             archive.add(inputSource);
         }
     }
+    /**
+     * When threads > 1, sub directories are listed concurrently and joined in the same order
+     * as sequential listing
+     * */
+    private List<File> listRootFiles(File root) throws IOException {
+        int threads = getThreads();
+        File[] files = root.listFiles();
+        if(threads <= 1 || files == null){
+            return ApkUtil.recursiveFiles(root);
+        }
+        List<Callable<List<File>>> taskList = new ArrayList<>(files.length);
+        for(File file : files){
+            taskList.add(() -> ApkUtil.recursiveFiles(file));
+        }
+        List<File> results = new ArrayList<>();
+        for(List<File> fileList : invokeAll(taskList, threads)){
+            results.addAll(fileList);
+        }
+        return results;
+    }
     public void encodeDexFiles(File mainDirectory) throws IOException {
         logMessage("Building dex ...");
         List<InputSource> dexList = getRawDexEncoder()
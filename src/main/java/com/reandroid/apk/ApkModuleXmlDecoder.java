@@ -22,8 +22,11 @@ import com.reandroid.arsc.chunk.PackageBlock;
 import com.reandroid.arsc.chunk.TableBlock;
 import com.reandroid.arsc.chunk.xml.AndroidManifestBlock;
 import com.reandroid.arsc.chunk.xml.ResXmlDocument;
+import com.reandroid.arsc.chunk.xml.ResXmlTranscoder;
 import com.reandroid.arsc.coder.xml.XmlCoder;
+import com.reandroid.arsc.io.BlockReader;
 import com.reandroid.arsc.list.OverlayableList;
+import com.reandroid.utils.collection.IntMap;
 import com.reandroid.utils.io.IOUtil;
 import com.reandroid.arsc.value.*;
 import com.reandroid.json.JSONObject;
@@ -37,12 +40,12 @@ import java.util.*;
 import java.util.function.Predicate;
 
 public class ApkModuleXmlDecoder extends ApkModuleDecoder implements Predicate<Entry> {
-    private final Map<Integer, Set<ResConfig>> decodedEntries;
+    private final IntMap<Set<ResConfig>> decodedEntries;
     private boolean keepResPath;
 
     public ApkModuleXmlDecoder(ApkModule apkModule){
         super(apkModule);
-        this.decodedEntries = new HashMap<>();
+        this.decodedEntries = new IntMap<>();
     }
     public void setKeepResPath(boolean keepResPath){
         this.keepResPath = keepResPath;
@@ -256,8 +259,25 @@ public class ApkModuleXmlDecoder extends ApkModuleDecoder implements Predicate<E
     }
     private void serializeXml(PackageBlock packageBlock, InputSource inputSource, File outFile)
             throws IOException {
-        ResXmlDocument document = new ResXmlDocument();
-        document.readBytes(inputSource.openStream());
+        BlockReader reader = new BlockReader(inputSource.openStream());
+        ResXmlDocument document;
+        try {
+            ResXmlTranscoder transcoder = ResXmlTranscoder.read(packageBlock, reader);
+            if(transcoder != null){
+                XmlSerializer serializer = XMLFactory.newSerializer(outFile);
+                try {
+                    transcoder.serialize(serializer);
+                } finally {
+                    IOUtil.close(serializer);
+                }
+                return;
+            }
+            reader.seek(0);
+            document = new ResXmlDocument();
+            document.readBytes(reader);
+        } finally {
+            reader.close();
+        }
         document.setPackageBlock(packageBlock);
         serializeXml(packageBlock, document, outFile);
     }
@@ -0,0 +1,167 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.apk;
+
+import com.reandroid.archive.InputSource;
+import com.reandroid.archive.ZipEntryMap;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.chunk.TypeBlock;
+import com.reandroid.arsc.item.TableString;
+import com.reandroid.arsc.pool.TableStringPool;
+import com.reandroid.arsc.value.Entry;
+import com.reandroid.arsc.value.ResConfig;
+import com.reandroid.utils.collection.ArrayCollection;
+import com.reandroid.utils.collection.CollectionUtil;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Path to {@link ResFile} lookup of an {@link ApkModule}. Only the path to entries index is
+ * cached, it is built on first use and rebuilt after entries of {@link ZipEntryMap} or
+ * strings / string references of {@link TableStringPool} are modified. Each call returns
+ * new {@link ResFile} instances thus their lazily resolved states are never shared.
+ * */
+class ResFileMap {
+
+    private final ApkModule apkModule;
+    private final ArrayCollection<Record> recordList;
+    private final Map<String, Record> pathMap;
+    private TableStringPool stringPool;
+    private int zipModCount;
+    private int poolModCount;
+
+    ResFileMap(ApkModule apkModule) {
+        this.apkModule = apkModule;
+        this.recordList = new ArrayCollection<>();
+        this.pathMap = new HashMap<>();
+    }
+
+    public List<ResFile> list() {
+        ensureUpToDate();
+        List<ResFile> results = new ArrayCollection<>(recordList.size());
+        for(Record record : recordList) {
+            results.add(record.toResFile());
+        }
+        return results;
+    }
+    public List<ResFile> list(int resourceId, ResConfig resConfig) {
+        if(resourceId == 0 && resConfig == null) {
+            return list();
+        }
+        ensureUpToDate();
+        List<ResFile> results = new ArrayCollection<>();
+        for(Record record : recordList) {
+            List<Entry> entryList = new ArrayCollection<>();
+            for(Entry entry : record.entries) {
+                if(resourceId != 0 && resourceId != entry.getResourceId()){
+                    continue;
+                }
+                if(resConfig == null || resConfig.equals(entry.getResConfig())) {
+                    entryList.add(entry);
+                }
+            }
+            if(!entryList.isEmpty()) {
+                results.add(new ResFile(record.inputSource, entryList));
+            }
+        }
+        return results;
+    }
+    public ResFile get(String path) {
+        ensureUpToDate();
+        Record record = pathMap.get(path);
+        if(record != null) {
+            return record.toResFile();
+        }
+        return null;
+    }
+    /**
+     * Drops the given path after its entries are deleted and its input source is removed,
+     * other paths are not affected thus the index remains valid.
+     * */
+    public void onRemoved(String path) {
+        if(stringPool == null || pathMap.remove(path) == null) {
+            return;
+        }
+        recordList.removeIf(record -> path.equals(record.inputSource.getAlias()));
+        zipModCount = apkModule.getZipEntryMap().getModCount();
+        poolModCount = stringPool.getModCount();
+    }
+
+    private void ensureUpToDate() {
+        TableBlock tableBlock = apkModule.getTableBlock();
+        TableStringPool stringPool = tableBlock != null ? tableBlock.getStringPool() : null;
+        ZipEntryMap zipEntryMap = apkModule.getZipEntryMap();
+        if(stringPool == this.stringPool && stringPool != null
+                && zipEntryMap.getModCount() == zipModCount
+                && stringPool.getModCount() == poolModCount) {
+            return;
+        }
+        recordList.clear();
+        pathMap.clear();
+        this.stringPool = stringPool;
+        if(stringPool == null) {
+            return;
+        }
+        build(zipEntryMap, stringPool);
+        this.zipModCount = zipEntryMap.getModCount();
+        this.poolModCount = stringPool.getModCount();
+    }
+    private void build(ZipEntryMap zipEntryMap, TableStringPool stringPool) {
+        for(InputSource inputSource : zipEntryMap.toArray()) {
+            String path = inputSource.getAlias();
+            ArrayCollection<Entry> mergedList = null;
+            Iterator<TableString> iterator = stringPool.getAll(path);
+            while (iterator.hasNext()) {
+                List<Entry> entryList = CollectionUtil.toList(
+                        iterator.next().getEntries(ResFileMap::canHaveResFile));
+                if(entryList.isEmpty()) {
+                    continue;
+                }
+                recordList.add(new Record(inputSource, entryList));
+                if(mergedList == null) {
+                    mergedList = new ArrayCollection<>();
+                }
+                mergedList.addAll(entryList);
+            }
+            if(mergedList != null) {
+                pathMap.put(path, new Record(inputSource, mergedList));
+            }
+        }
+    }
+    private static boolean canHaveResFile(Entry entry) {
+        return entry.isScalar() && TypeBlock.canHaveResourceFile(entry.getTypeName());
+    }
+
+    static class Record {
+        final InputSource inputSource;
+        final Entry[] entries;
+
+        Record(InputSource inputSource, List<Entry> entryList) {
+            this.inputSource = inputSource;
+            this.entries = entryList.toArray(new Entry[0]);
+        }
+        ResFile toResFile() {
+            List<Entry> entryList = new ArrayCollection<>(entries.length);
+            for(Entry entry : entries) {
+                entryList.add(entry);
+            }
+            return new ResFile(inputSource, entryList);
+        }
+    }
+}
@@ -17,7 +17,6 @@ package com.reandroid.apk;
 
 import com.reandroid.archive.BlockInputSource;
 import com.reandroid.arsc.chunk.TableBlock;
-import com.reandroid.utils.Crc32OutputStream;
 
 import java.io.*;
 
@@ -31,12 +30,8 @@ public class SplitJsonTableInputSource extends BlockInputSource<TableBlock> {
     }
 
     @Override
-    public TableBlock getBlock() {
-        try {
-            return getTableBlock();
-        } catch (IOException exception) {
-            throw new RuntimeException(exception);
-        }
+    protected TableBlock loadBlock() throws IOException {
+        return getTableBlock();
     }
 
     @Override
@@ -48,17 +43,6 @@ public class SplitJsonTableInputSource extends BlockInputSource<TableBlock> {
         TableBlock tableBlock = getTableBlock();
         return new ByteArrayInputStream(tableBlock.getBytes());
     }
-    @Override
-    public long getLength() throws IOException{
-        TableBlock tableBlock = getTableBlock();
-        return tableBlock.countBytes();
-    }
-    @Override
-    public long getCrc() throws IOException {
-        Crc32OutputStream outputStream = new Crc32OutputStream();
-        this.write(outputStream);
-        return outputStream.getValue();
-    }
     public TableBlock getTableBlock() throws IOException {
         if(mCache!=null){
             return mCache;
@@ -0,0 +1,434 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.archive;
+
+import com.reandroid.archive.block.*;
+import com.reandroid.archive.io.ZipFileInput;
+import com.reandroid.arsc.io.BlockReader;
+import com.reandroid.utils.ByteDigest;
+import com.reandroid.utils.DigestProvider;
+import com.reandroid.utils.HexUtil;
+import com.reandroid.utils.collection.ArrayCollection;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Computes and verifies APK signature scheme v2 / v3 content digests.
+ * Entries, central directory and end record are split in to 1MB chunks, runs of
+ * chunks are digested in parallel over memory mapped regions of the file.
+ * Only content digests are checked, signatures over the signed data are not.
+ * */
+public class ApkDigestVerifier implements Closeable {
+
+    private final ZipFileInput zipInput;
+    private DigestProvider digestProvider;
+    private int threads;
+
+    private boolean mLayoutLoaded;
+    private long signatureBlockOffset;
+    private long centralDirectoryOffset;
+    private long endRecordOffset;
+    private byte[] endRecordBytes;
+    private ApkSignatureBlock apkSignatureBlock;
+
+    public ApkDigestVerifier(ZipFileInput zipInput) {
+        this.zipInput = zipInput;
+        this.digestProvider = DigestProvider.getDefault();
+        this.threads = Runtime.getRuntime().availableProcessors();
+    }
+    public ApkDigestVerifier(File file) {
+        this(new ZipFileInput(file));
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+    public void setThreads(int threads) {
+        if(threads < 1) {
+            threads = 1;
+        }
+        this.threads = threads;
+    }
+    public DigestProvider getDigestProvider() {
+        return digestProvider;
+    }
+    public void setDigestProvider(DigestProvider digestProvider) {
+        if(digestProvider == null) {
+            digestProvider = DigestProvider.getDefault();
+        }
+        this.digestProvider = digestProvider;
+    }
+    public ApkSignatureBlock getApkSignatureBlock() throws IOException {
+        loadLayout();
+        return apkSignatureBlock;
+    }
+
+    public Result verify() throws IOException {
+        List<DigestCheck> checkList = new ArrayCollection<>();
+        ApkSignatureBlock signatureBlock = getApkSignatureBlock();
+        if(signatureBlock != null) {
+            for(SignatureInfo signatureInfo : signatureBlock) {
+                SignatureId signatureId = signatureInfo.getId();
+                if(!isContentDigestScheme(signatureId)) {
+                    continue;
+                }
+                SignatureScheme scheme = signatureInfo.getSignatureScheme();
+                for(ContentDigest contentDigest : scheme.getContentDigests()) {
+                    checkList.add(new DigestCheck(signatureId, contentDigest));
+                }
+            }
+        }
+        Set<String> algorithms = new LinkedHashSet<>();
+        for(DigestCheck check : checkList) {
+            String algorithm = check.getContentDigest().getChunkDigestAlgorithm();
+            if(algorithm != null) {
+                algorithms.add(algorithm);
+            }
+        }
+        Map<String, byte[]> digestMap = computeDigests(
+                algorithms.toArray(new String[0]));
+        for(DigestCheck check : checkList) {
+            check.computed = digestMap.get(check.getContentDigest().getChunkDigestAlgorithm());
+        }
+        return new Result(checkList);
+    }
+    /**
+     * Computes 1MB chunked content digests for each of the given algorithms
+     * ("SHA-256", "SHA-512") on a single read of the file
+     * */
+    public Map<String, byte[]> computeDigests(String... algorithms) throws IOException {
+        Map<String, byte[]> results = new LinkedHashMap<>();
+        int count = algorithms.length;
+        if(count == 0) {
+            return results;
+        }
+        loadLayout();
+        int[] digestLengths = new int[count];
+        for(int i = 0; i < count; i++) {
+            digestLengths[i] = newDigest(algorithms[i]).getDigestLength();
+        }
+        List<ChunkRun> runList = new ArrayCollection<>();
+        int chunks = 0;
+        chunks = addRuns(runList, chunks, 0, signatureBlockOffset, null);
+        chunks = addRuns(runList, chunks, centralDirectoryOffset,
+                endRecordOffset - centralDirectoryOffset, null);
+        chunks = addRuns(runList, chunks, 0, endRecordBytes.length, endRecordBytes);
+        byte[][] chunkDigests = new byte[count][];
+        for(int i = 0; i < count; i++) {
+            chunkDigests[i] = new byte[chunks * digestLengths[i]];
+        }
+        List<Callable<Void>> taskList = new ArrayCollection<>(runList.size());
+        for(ChunkRun run : runList) {
+            taskList.add(() -> {
+                digestRun(run, algorithms, digestLengths, chunkDigests);
+                return null;
+            });
+        }
+        invokeAll(taskList, getThreads());
+        byte[] prefix = new byte[5];
+        prefix[0] = (byte) 0x5a;
+        putInteger(prefix, 1, chunks);
+        for(int i = 0; i < count; i++) {
+            ByteDigest digest = newDigest(algorithms[i]);
+            digest.update(prefix);
+            digest.update(chunkDigests[i]);
+            results.put(algorithms[i], digest.digest());
+        }
+        return results;
+    }
+    private void digestRun(ChunkRun run, String[] algorithms, int[] digestLengths,
+                           byte[][] chunkDigests) throws IOException {
+        int count = algorithms.length;
+        ByteDigest[] digests = new ByteDigest[count];
+        for(int i = 0; i < count; i++) {
+            digests[i] = newDigest(algorithms[i]);
+        }
+        ByteBuffer buffer;
+        if(run.data != null) {
+            buffer = ByteBuffer.wrap(run.data, (int) run.offset, (int) run.length);
+        }else {
+            buffer = zipInput.getFileChannel().map(
+                    FileChannel.MapMode.READ_ONLY, run.offset, run.length);
+        }
+        byte[] chunk = new byte[(int) Math.min(CHUNK_SIZE, run.length)];
+        byte[] prefix = new byte[5];
+        prefix[0] = (byte) 0xa5;
+        long remaining = run.length;
+        int index = run.firstChunk;
+        while (remaining > 0) {
+            int length = (int) Math.min(CHUNK_SIZE, remaining);
+            buffer.get(chunk, 0, length);
+            putInteger(prefix, 1, length);
+            for(int i = 0; i < count; i++) {
+                ByteDigest digest = digests[i];
+                digest.update(prefix);
+                digest.update(chunk, 0, length);
+                digest.digest(chunkDigests[i], index * digestLengths[i]);
+            }
+            remaining -= length;
+            index ++;
+        }
+    }
+    private ByteDigest newDigest(String algorithm) throws ArchiveException {
+        ByteDigest digest = getDigestProvider().newDigest(algorithm);
+        if(digest == null) {
+            throw new ArchiveException("Unsupported digest algorithm: " + algorithm);
+        }
+        return digest;
+    }
+    private void loadLayout() throws IOException {
+        if(mLayoutLoaded) {
+            return;
+        }
+        EndRecord endRecord = new EndRecord();
+        endRecord.findEndRecord(zipInput);
+        if(endRecord.getZip64Locator() != null) {
+            throw new ArchiveException("ZIP64 archive can not have v2/v3 signature");
+        }
+        long fileLength = zipInput.getLength();
+        long cdOffset = endRecord.getOffsetOfCentralDirectory();
+        long endOffset = cdOffset + endRecord.getLengthOfCentralDirectory();
+        long endLength = fileLength - endOffset;
+        if(endLength < EndRecord.MIN_LENGTH || endLength > EndRecord.MAX_LENGTH) {
+            throw new ArchiveException("Central directory is not followed by end record");
+        }
+        byte[] endBytes = read(endOffset, (int) endLength);
+        if(getInteger(endBytes, 0) != ZipSignature.END_RECORD.getValue()) {
+            throw new ArchiveException("Central directory is not followed by end record");
+        }
+        long signatureOffset = cdOffset;
+        ApkSignatureBlock signatureBlock = null;
+        if(cdOffset >= SignatureFooter.MIN_SIZE) {
+            SignatureFooter footer = new SignatureFooter();
+            footer.readBytes(new ByteArrayInputStream(
+                    read(cdOffset - SignatureFooter.MIN_SIZE, SignatureFooter.MIN_SIZE)));
+            if(footer.isValid()) {
+                long length = footer.getSignatureSize() + 8;
+                signatureOffset = cdOffset - length;
+                if(signatureOffset < 0 || length > Integer.MAX_VALUE) {
+                    throw new ArchiveException("Invalid signature block size: " + length);
+                }
+                signatureBlock = new ApkSignatureBlock(footer);
+                signatureBlock.readBytes(new BlockReader(read(signatureOffset, (int) length)));
+            }
+        }
+        putInteger(endBytes, OFFSET_END_CD_OFFSET, (int) signatureOffset);
+        this.signatureBlockOffset = signatureOffset;
+        this.centralDirectoryOffset = cdOffset;
+        this.endRecordOffset = endOffset;
+        this.endRecordBytes = endBytes;
+        this.apkSignatureBlock = signatureBlock;
+        this.mLayoutLoaded = true;
+    }
+    private byte[] read(long offset, int length) throws IOException {
+        FileChannel fileChannel = zipInput.getFileChannel();
+        byte[] bytes = new byte[length];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            int read = fileChannel.read(buffer, offset + buffer.position());
+            if(read < 0) {
+                throw new ArchiveException("Unexpected end of file at: " + (offset + buffer.position()));
+            }
+        }
+        return bytes;
+    }
+    @Override
+    public void close() throws IOException {
+        zipInput.close();
+    }
+    @Override
+    public String toString() {
+        return "ApkDigestVerifier: " + zipInput;
+    }
+
+    private static int addRuns(List<ChunkRun> runList, int chunks, long offset, long length, byte[] data) {
+        long runSize = (long) CHUNK_SIZE * RUN_CHUNKS;
+        while (length > 0) {
+            long size = Math.min(runSize, length);
+            runList.add(new ChunkRun(offset, size, chunks, data));
+            chunks += (int) ((size + CHUNK_SIZE - 1) / CHUNK_SIZE);
+            offset += size;
+            length -= size;
+        }
+        return chunks;
+    }
+    private static void invokeAll(List<Callable<Void>> taskList, int threads) throws IOException {
+        int size = taskList.size();
+        if(threads <= 1 || size <= 1) {
+            for(Callable<Void> task : taskList) {
+                call(task);
+            }
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, size));
+        try {
+            for(Future<Void> future : executor.invokeAll(taskList)) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if(cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    private static void call(Callable<Void> task) throws IOException {
+        try {
+            task.call();
+        } catch (IOException | RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new IOException(ex);
+        }
+    }
+    private static boolean isContentDigestScheme(SignatureId signatureId) {
+        return SignatureId.V2.equals(signatureId)
+                || SignatureId.V3.equals(signatureId)
+                || SignatureId.V31.equals(signatureId);
+    }
+    private static int getInteger(byte[] bytes, int offset) {
+        return bytes[offset] & 0xff |
+                (bytes[offset + 1] & 0xff) << 8 |
+                (bytes[offset + 2] & 0xff) << 16 |
+                (bytes[offset + 3] & 0xff) << 24;
+    }
+    private static void putInteger(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) value;
+        bytes[offset + 1] = (byte) (value >>> 8);
+        bytes[offset + 2] = (byte) (value >>> 16);
+        bytes[offset + 3] = (byte) (value >>> 24);
+    }
+
+    private static class ChunkRun {
+        final long offset;
+        final long length;
+        final int firstChunk;
+        final byte[] data;
+
+        ChunkRun(long offset, long length, int firstChunk, byte[] data) {
+            this.offset = offset;
+            this.length = length;
+            this.firstChunk = firstChunk;
+            this.data = data;
+        }
+    }
+
+    public static class DigestCheck {
+
+        private final SignatureId signatureId;
+        private final ContentDigest contentDigest;
+        private byte[] computed;
+
+        DigestCheck(SignatureId signatureId, ContentDigest contentDigest) {
+            this.signatureId = signatureId;
+            this.contentDigest = contentDigest;
+        }
+
+        public SignatureId getSignatureId() {
+            return signatureId;
+        }
+        public ContentDigest getContentDigest() {
+            return contentDigest;
+        }
+        /**
+         * Computed digest, or null if the algorithm is not chunked (e.g. verity)
+         * */
+        public byte[] getComputed() {
+            return computed;
+        }
+        public boolean isSupported() {
+            return computed != null;
+        }
+        public boolean isMatched() {
+            return computed != null && Arrays.equals(computed, contentDigest.getDigest());
+        }
+        @Override
+        public String toString() {
+            String status;
+            if(!isSupported()) {
+                status = "SKIPPED";
+            }else if(isMatched()) {
+                status = "OK";
+            }else {
+                status = "MISMATCH computed = " + HexUtil.toHexString(computed);
+            }
+            return signatureId + " " + contentDigest + " " + status;
+        }
+    }
+
+    public static class Result {
+
+        private final List<DigestCheck> checkList;
+
+        Result(List<DigestCheck> checkList) {
+            this.checkList = checkList;
+        }
+
+        public List<DigestCheck> getChecks() {
+            return checkList;
+        }
+        public boolean isSigned() {
+            return !checkList.isEmpty();
+        }
+        /**
+         * True when every v2/v3 scheme has at least one supported digest and
+         * all supported digests match
+         * */
+        public boolean isVerified() {
+            if(checkList.isEmpty()) {
+                return false;
+            }
+            Set<SignatureId> supported = new HashSet<>();
+            Set<SignatureId> schemes = new HashSet<>();
+            for(DigestCheck check : checkList) {
+                schemes.add(check.getSignatureId());
+                if(check.isSupported()) {
+                    if(!check.isMatched()) {
+                        return false;
+                    }
+                    supported.add(check.getSignatureId());
+                }
+            }
+            return supported.size() == schemes.size();
+        }
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            builder.append("verified = ").append(isVerified());
+            for(DigestCheck check : checkList) {
+                builder.append('\n').append(check);
+            }
+            return builder.toString();
+        }
+    }
+
+    private static final int CHUNK_SIZE = 1024 * 1024;
+    private static final int RUN_CHUNKS = 8;
+    private static final int OFFSET_END_CD_OFFSET = 16;
+}
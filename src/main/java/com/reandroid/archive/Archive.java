@@ -30,6 +30,7 @@ import com.reandroid.utils.io.IOUtil;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.Predicate;
 import java.util.zip.Inflater;
 import java.util.zip.InflaterInputStream;
@@ -158,6 +159,62 @@ public abstract class Archive<T extends ZipInput> implements Closeable {
         }
         return result;
     }
+    /**
+     * Extracts entries using the given number of threads, each entry is inflated and written
+     * by its own worker reading the archive by absolute positions. When more than one entry
+     * maps to the same file only the last one is extracted, the same result as sequential
+     * extraction.
+     * */
+    public int extractAll(File dir, Predicate<ArchiveEntry> filter, APKLogger logger, int threads) throws IOException {
+        if(threads <= 1){
+            return extractAll(dir, filter, logger);
+        }
+        Iterator<ArchiveEntry> iterator = iterator(filter);
+        Map<File, ArchiveEntry> fileMap = new LinkedHashMap<>();
+        int result = 0;
+        while (iterator.hasNext()){
+            ArchiveEntry archiveEntry = iterator.next();
+            result ++;
+            if(archiveEntry.isDirectory()){
+                continue;
+            }
+            File file = toFile(dir, archiveEntry);
+            fileMap.remove(file);
+            fileMap.put(file, archiveEntry);
+        }
+        List<Callable<File>> taskList = new ArrayList<>(fileMap.size());
+        for(Map.Entry<File, ArchiveEntry> entry : fileMap.entrySet()){
+            taskList.add(() -> {
+                extract(entry.getKey(), entry.getValue(), logger);
+                return entry.getKey();
+            });
+        }
+        if(taskList.isEmpty()){
+            return result;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(threads, taskList.size()));
+        try {
+            for(Future<File> future : executor.invokeAll(taskList)){
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if(cause instanceof IOException){
+                throw (IOException) cause;
+            }
+            if(cause instanceof RuntimeException){
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+        return result;
+    }
     public void extract(File file, ArchiveEntry archiveEntry) throws IOException{
         extract(file, archiveEntry, null);
     }
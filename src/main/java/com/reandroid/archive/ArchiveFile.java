@@ -21,6 +21,7 @@ import com.reandroid.utils.io.FileUtil;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.channels.FileChannel;
 
 public class ArchiveFile extends Archive<ZipFileInput>{
@@ -36,12 +37,22 @@ public class ArchiveFile extends Archive<ZipFileInput>{
     InputSource createInputSource(ArchiveEntry entry) {
         return new ArchiveFileEntrySource(getZipInput(), entry);
     }
+    /**
+     * Reads by absolute positions, streams of different entries can be consumed concurrently
+     * */
+    @Override
+    public InputStream openRawInputStream(ArchiveEntry archiveEntry) throws IOException {
+        return getZipInput().getPositionalInputStream(archiveEntry.getFileOffset(),
+                archiveEntry.getDataSize());
+    }
     @Override
     void extractStored(File file, ArchiveEntry archiveEntry) throws IOException {
         FileChannel outputChannel = FileUtil.openWriteChannel(file);
-        FileChannel fileChannel = getZipInput().getFileChannel();
-        fileChannel.position(archiveEntry.getFileOffset());
-        outputChannel.transferFrom(fileChannel, 0, archiveEntry.getDataSize());
-        outputChannel.close();
+        try {
+            getZipInput().transferTo(archiveEntry.getFileOffset(),
+                    archiveEntry.getDataSize(), outputChannel);
+        } finally {
+            outputChannel.close();
+        }
     }
 }
@@ -37,12 +37,20 @@ public class BlockInputSource<T extends Block> extends ByteInputSource {
     }
 
     public T getBlock() {
-        T block = this.mBlock;
+        T block;
+        try {
+            block = loadBlock();
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
         if(block instanceof BlockRefresh){
             ((BlockRefresh) block).refresh();
         }
         return block;
     }
+    protected T loadBlock() throws IOException {
+        return this.mBlock;
+    }
     @Override
     public long getLength() throws IOException{
         Block block = getBlock();
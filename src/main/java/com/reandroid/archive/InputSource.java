@@ -19,11 +19,15 @@ import com.reandroid.arsc.chunk.TableBlock;
 import com.reandroid.arsc.chunk.xml.AndroidManifestBlock;
 import com.reandroid.utils.Crc32OutputStream;
 import com.reandroid.utils.CompareUtil;
+import com.reandroid.utils.ObjectsUtil;
 import com.reandroid.utils.StringsUtil;
 import com.reandroid.utils.io.FileUtil;
 
 import java.io.*;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
 
 public abstract class InputSource {
 
@@ -34,6 +38,7 @@ public abstract class InputSource {
     private int method = Archive.DEFLATED;
     private int sort = -1;
     private String[] splitAlias;
+    private List<WeakReference<ZipEntryMap>> zipEntryMaps;
 
     public InputSource(String name){
         this.name = name;
@@ -86,8 +91,78 @@ public abstract class InputSource {
         return getName();
     }
     public void setAlias(String alias) {
+        String oldAlias = getAlias();
+        boolean changed = !ObjectsUtil.equals(alias, this.alias);
         this.alias = alias;
         this.splitAlias = null;
+        if(changed) {
+            for(ZipEntryMap zipEntryMap : getZipEntryMaps()) {
+                zipEntryMap.onAliasChanged(this, oldAlias);
+            }
+        }
+    }
+    /**
+     * Maps containing this source are notified on alias changes, they are weakly
+     * referenced as a source may outlive the maps it is added to
+     * */
+    void addZipEntryMap(ZipEntryMap zipEntryMap) {
+        synchronized (this) {
+            if(indexOfZipEntryMap(zipEntryMap) >= 0) {
+                return;
+            }
+            if(zipEntryMaps == null) {
+                zipEntryMaps = new ArrayList<>(1);
+            }
+            zipEntryMaps.add(new WeakReference<>(zipEntryMap));
+        }
+    }
+    void removeZipEntryMap(ZipEntryMap zipEntryMap) {
+        synchronized (this) {
+            int i = indexOfZipEntryMap(zipEntryMap);
+            if(i >= 0) {
+                zipEntryMaps.remove(i);
+            }
+        }
+    }
+    boolean isInZipEntryMap(ZipEntryMap zipEntryMap) {
+        synchronized (this) {
+            return indexOfZipEntryMap(zipEntryMap) >= 0;
+        }
+    }
+    private ZipEntryMap[] getZipEntryMaps() {
+        synchronized (this) {
+            List<WeakReference<ZipEntryMap>> references = this.zipEntryMaps;
+            if(references == null) {
+                return new ZipEntryMap[0];
+            }
+            List<ZipEntryMap> results = new ArrayList<>(references.size());
+            for(WeakReference<ZipEntryMap> reference : references) {
+                ZipEntryMap zipEntryMap = reference.get();
+                if(zipEntryMap != null) {
+                    results.add(zipEntryMap);
+                }
+            }
+            return results.toArray(new ZipEntryMap[0]);
+        }
+    }
+    private int indexOfZipEntryMap(ZipEntryMap zipEntryMap) {
+        List<WeakReference<ZipEntryMap>> references = this.zipEntryMaps;
+        if(references == null) {
+            return -1;
+        }
+        int i = 0;
+        while (i < references.size()) {
+            ZipEntryMap map = references.get(i).get();
+            if(map == null) {
+                references.remove(i);
+                continue;
+            }
+            if(map == zipEntryMap) {
+                return i;
+            }
+            i ++;
+        }
+        return -1;
     }
     public String getSimpleName() {
         return FileUtil.getFileName(getAlias());
@@ -0,0 +1,187 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.archive;
+
+import com.reandroid.utils.collection.ArraySort;
+
+/**
+ * Alias sorted view of {@link ZipEntryMap} entries, all paths within a directory are
+ * contiguous thus directory queries are binary searches over the sorted paths.
+ * Results are returned in the original (insertion) order of entries.
+ * Instances are immutable, renames produce a new index thus concurrent readers always
+ * search a consistent snapshot.
+ * */
+class PathIndex {
+
+    private final InputSource[] sources;
+    private final String[] paths;
+    private final int[] positions;
+
+    PathIndex(InputSource[] sources) {
+        sources = sources.clone();
+        int length = sources.length;
+        String[] aliases = new String[length];
+        Integer[] order = new Integer[length];
+        for(int i = 0; i < length; i++) {
+            aliases[i] = sources[i].getAlias();
+            order[i] = i;
+        }
+        ArraySort.sort(order, (Integer i1, Integer i2) -> aliases[i1].compareTo(aliases[i2]));
+        String[] paths = new String[length];
+        int[] positions = new int[length];
+        for(int i = 0; i < length; i++) {
+            int position = order[i];
+            paths[i] = aliases[position];
+            positions[i] = position;
+        }
+        this.sources = sources;
+        this.paths = paths;
+        this.positions = positions;
+    }
+    private PathIndex(InputSource[] sources, String[] paths, int[] positions) {
+        this.sources = sources;
+        this.paths = paths;
+        this.positions = positions;
+    }
+
+    /**
+     * Returns a new index with the path of the renamed source moved to its new sorted
+     * position, or null if the source is not found under the old alias
+     * */
+    PathIndex rename(InputSource inputSource, String oldAlias) {
+        int length = this.paths.length;
+        int i = lowerBound(0, length, oldAlias, oldAlias.length());
+        while (i < length && this.paths[i].equals(oldAlias)
+                && sources[this.positions[i]] != inputSource) {
+            i ++;
+        }
+        if(i == length || !this.paths[i].equals(oldAlias)) {
+            return null;
+        }
+        String[] paths = this.paths.clone();
+        int[] positions = this.positions.clone();
+        int position = positions[i];
+        System.arraycopy(paths, i + 1, paths, i, length - i - 1);
+        System.arraycopy(positions, i + 1, positions, i, length - i - 1);
+        String alias = inputSource.getAlias();
+        int start = 0;
+        int end = length - 1;
+        while (start < end) {
+            int mid = (start + end) >>> 1;
+            if(paths[mid].compareTo(alias) <= 0) {
+                start = mid + 1;
+            } else {
+                end = mid;
+            }
+        }
+        System.arraycopy(paths, start, paths, start + 1, length - 1 - start);
+        System.arraycopy(positions, start, positions, start + 1, length - 1 - start);
+        paths[start] = alias;
+        positions[start] = position;
+        return new PathIndex(sources, paths, positions);
+    }
+    boolean containsDirectory(String directory) {
+        int length = directory.length();
+        int start = lowerBound(0, paths.length, directory, length);
+        return start < paths.length && compareToPrefix(paths[start], directory, length) == 0;
+    }
+    InputSource[] list(String directory, boolean includeSubDirectory) {
+        String[] paths = this.paths;
+        int prefixLength = directory.length();
+        int start = lowerBound(0, paths.length, directory, prefixLength);
+        int end = upperBound(start, paths.length, directory, prefixLength);
+        int[] found = new int[end - start];
+        int count = 0;
+        int i = start;
+        while (i < end) {
+            String path = paths[i];
+            if(includeSubDirectory) {
+                found[count ++] = positions[i];
+                i ++;
+                continue;
+            }
+            if(isDirectChild(path, prefixLength)) {
+                found[count ++] = positions[i];
+            }
+            int slash = path.indexOf('/', prefixLength);
+            if(slash > 0) {
+                i = upperBound(i + 1, end, path, slash + 1);
+            } else {
+                i ++;
+            }
+        }
+        ArraySort.sort(found, 0, count);
+        InputSource[] results = new InputSource[count];
+        for(int j = 0; j < count; j++) {
+            results[j] = sources[found[j]];
+        }
+        return results;
+    }
+
+    private int lowerBound(int start, int end, String prefix, int length) {
+        while (start < end) {
+            int mid = (start + end) >>> 1;
+            if(compareToPrefix(paths[mid], prefix, length) < 0) {
+                start = mid + 1;
+            } else {
+                end = mid;
+            }
+        }
+        return start;
+    }
+    private int upperBound(int start, int end, String prefix, int length) {
+        while (start < end) {
+            int mid = (start + end) >>> 1;
+            if(compareToPrefix(paths[mid], prefix, length) <= 0) {
+                start = mid + 1;
+            } else {
+                end = mid;
+            }
+        }
+        return start;
+    }
+    /**
+     * Same as FileUtil.getParent(path).equals(prefix) for paths starting with prefix,
+     * without allocating the parent path.
+     * */
+    private static boolean isDirectChild(String path, int prefixLength) {
+        int i = path.lastIndexOf('/');
+        if(prefixLength == 0) {
+            if(i < 0) {
+                i = path.lastIndexOf('\\');
+            }
+            return i <= 0;
+        }
+        return i > 0 && i == prefixLength - 1;
+    }
+    /**
+     * Compares only the first length chars of path, returns 0 if path starts with prefix.
+     * */
+    private static int compareToPrefix(String path, String prefix, int length) {
+        int pathLength = path.length();
+        int count = Math.min(pathLength, length);
+        for(int i = 0; i < count; i++) {
+            int diff = path.charAt(i) - prefix.charAt(i);
+            if(diff != 0) {
+                return diff;
+            }
+        }
+        if(pathLength < length) {
+            return -1;
+        }
+        return 0;
+    }
+}
@@ -28,11 +28,16 @@ public class ZipEntryMap implements Comparator<InputSource>, Iterable<InputSourc
     private final Object mLock = new Object();
     private final LinkedHashMap<String, InputSource> mSourceMap;
     private InputSource[] sourcesArray;
+    private int modCount;
+    private volatile PathIndex pathIndex;
     private String moduleName;
     private ArchiveInfo archiveInfo;
 
     public ZipEntryMap(LinkedHashMap<String, InputSource> entriesMap){
         this.mSourceMap = entriesMap;
+        for(InputSource inputSource : entriesMap.values()){
+            attach(inputSource);
+        }
         this.moduleName = "";
         this.archiveInfo = ArchiveInfo.build(entriesMap.values().iterator());
     }
@@ -57,15 +62,30 @@ public class ZipEntryMap implements Comparator<InputSource>, Iterable<InputSourc
         return withinDirectory(directory, true);
     }
     public Iterator<InputSource> withinDirectory(String directory, boolean includeSubDirectory) {
+        return ArrayIterator.of(getPathIndex().list(toDirectoryPrefix(directory), includeSubDirectory));
+    }
+    public boolean containsDirectory(String directory) {
+        return getPathIndex().containsDirectory(toDirectoryPrefix(directory));
+    }
+    private PathIndex getPathIndex() {
+        PathIndex pathIndex = this.pathIndex;
+        if(pathIndex != null){
+            return pathIndex;
+        }
+        synchronized (mLock){
+            pathIndex = this.pathIndex;
+            if(pathIndex == null){
+                pathIndex = new PathIndex(toArray());
+                this.pathIndex = pathIndex;
+            }
+            return pathIndex;
+        }
+    }
+    private static String toDirectoryPrefix(String directory) {
         if(directory.length() != 0 && !directory.endsWith("/")) {
             directory = directory + '/';
         }
-        String prefix = directory;
-        if (includeSubDirectory) {
-            return iterator(inputSource -> inputSource.getAlias().startsWith(prefix));
-        } else {
-            return iterator(inputSource -> inputSource.getParentPath().equals(prefix));
-        }
+        return directory;
     }
     @Override
     public Iterator<InputSource> iterator(){
@@ -113,8 +133,36 @@ public class ZipEntryMap implements Comparator<InputSource>, Iterable<InputSourc
     private void onChanged(boolean changed){
         if(changed){
             this.sourcesArray = null;
+            this.pathIndex = null;
+            this.modCount ++;
         }
     }
+    void onAliasChanged(InputSource inputSource, String oldAlias){
+        synchronized (mLock){
+            if(!inputSource.isInZipEntryMap(this)){
+                return;
+            }
+            PathIndex pathIndex = this.pathIndex;
+            if(pathIndex != null){
+                this.pathIndex = pathIndex.rename(inputSource, oldAlias);
+            }
+            this.modCount ++;
+        }
+    }
+    private void attach(InputSource inputSource){
+        inputSource.addZipEntryMap(this);
+    }
+    private void detach(InputSource inputSource){
+        if(inputSource != null){
+            inputSource.removeZipEntryMap(this);
+        }
+    }
+    /**
+     * Incremented on every add or remove of entries and on alias change of own entries
+     * */
+    public int getModCount(){
+        return modCount;
+    }
     public int size(){
         synchronized (mLock){
             return mSourceMap.size();
@@ -129,6 +177,7 @@ public class ZipEntryMap implements Comparator<InputSource>, Iterable<InputSourc
             for(InputSource inputSource:toArray()){
                 if(inputSource.getName().startsWith(dirName)){
                     inputSource = mSourceMap.remove(inputSource.getName());
+                    detach(inputSource);
                     if(!changed){
                         changed = inputSource != null;
                     }
@@ -150,7 +199,9 @@ public class ZipEntryMap implements Comparator<InputSource>, Iterable<InputSourc
             for(InputSource inputSource : toArray()){
                 String name = inputSource.getAlias();
                 if(pattern.matcher(name).matches()){
-                    if(map.remove(name) != null){
+                    InputSource removedSource = map.remove(name);
+                    if(removedSource != null){
+                        detach(removedSource);
                         removed = true;
                     }
                 }
@@ -160,6 +211,9 @@ public class ZipEntryMap implements Comparator<InputSource>, Iterable<InputSourc
     }
     public void clear(){
         synchronized (mLock){
+            for(InputSource inputSource : mSourceMap.values()){
+                detach(inputSource);
+            }
             mSourceMap.clear();
             onChanged(true);
         }
@@ -173,6 +227,7 @@ public class ZipEntryMap implements Comparator<InputSource>, Iterable<InputSourc
             if(source == null){
                 source = mSourceMap.remove(inputSource.getName());
             }
+            detach(source);
             onChanged(source != null);
             return source;
         }
@@ -180,6 +235,7 @@ public class ZipEntryMap implements Comparator<InputSource>, Iterable<InputSourc
     public InputSource remove(String name){
         synchronized (mLock){
             InputSource inputSource = mSourceMap.remove(name);
+            detach(inputSource);
             onChanged(inputSource != null);
             return inputSource;
         }
@@ -198,10 +254,11 @@ public class ZipEntryMap implements Comparator<InputSource>, Iterable<InputSourc
                     continue;
                 }
                 String name = inputSource.getName();
-                map.remove(name);
+                detach(map.remove(name));
                 name = inputSource.getAlias();
-                map.remove(name);
+                detach(map.remove(name));
                 map.put(name, inputSource);
+                attach(inputSource);
                 if(!added){
                     onChanged(true);
                 }
@@ -225,8 +282,9 @@ public class ZipEntryMap implements Comparator<InputSource>, Iterable<InputSourc
         synchronized (mLock){
             String name = inputSource.getAlias();
             LinkedHashMap<String, InputSource> map = this.mSourceMap;
-            map.remove(name);
+            detach(map.remove(name));
             map.put(name, inputSource);
+            attach(inputSource);
 
             onChanged(true);
         }
@@ -0,0 +1,140 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.archive.block;
+
+import com.reandroid.archive.ArchiveException;
+import com.reandroid.utils.HexUtil;
+import com.reandroid.utils.collection.ArrayCollection;
+
+import java.util.List;
+
+/**
+ * Content digest entry of a v2 / v3 signer's signed data,
+ * (uint32 signature algorithm id, length prefixed digest bytes)
+ * */
+public class ContentDigest {
+
+    private final int algorithm;
+    private final byte[] digest;
+
+    public ContentDigest(int algorithm, byte[] digest) {
+        this.algorithm = algorithm;
+        this.digest = digest;
+    }
+
+    public int getAlgorithm() {
+        return algorithm;
+    }
+    public byte[] getDigest() {
+        return digest;
+    }
+    /**
+     * Returns MessageDigest algorithm name of 1MB chunked digest, or null for
+     * verity and unknown signature algorithms
+     * */
+    public String getChunkDigestAlgorithm() {
+        return getChunkDigestAlgorithm(getAlgorithm());
+    }
+    @Override
+    public String toString() {
+        return HexUtil.toHex4((short) algorithm) + ": " + HexUtil.toHexString(digest);
+    }
+
+    public static String getChunkDigestAlgorithm(int algorithm) {
+        switch (algorithm) {
+            case RSA_PSS_SHA256:
+            case RSA_PKCS1_SHA256:
+            case ECDSA_SHA256:
+            case DSA_SHA256:
+                return SHA256;
+            case RSA_PSS_SHA512:
+            case RSA_PKCS1_SHA512:
+            case ECDSA_SHA512:
+                return SHA512;
+            default:
+                return null;
+        }
+    }
+    /**
+     * Reads digests of all signers from raw v2 / v3 scheme value
+     * (length prefixed signers, each starts with length prefixed signed data)
+     * */
+    public static List<ContentDigest> readSigners(byte[] bytes) throws ArchiveException {
+        List<ContentDigest> results = new ArrayCollection<>();
+        int end = checkedEnd(bytes, 0, bytes.length);
+        int offset = 4;
+        while (offset < end) {
+            int signerEnd = checkedEnd(bytes, offset, end);
+            int signedDataEnd = checkedEnd(bytes, offset + 4, signerEnd);
+            int digestsEnd = checkedEnd(bytes, offset + 8, signedDataEnd);
+            readDigests(bytes, offset + 12, digestsEnd, results);
+            offset = signerEnd;
+        }
+        return results;
+    }
+    /**
+     * Reads sequence of length prefixed digest entries
+     * */
+    public static List<ContentDigest> readDigests(byte[] bytes) throws ArchiveException {
+        List<ContentDigest> results = new ArrayCollection<>();
+        readDigests(bytes, 0, bytes.length, results);
+        return results;
+    }
+    private static void readDigests(byte[] bytes, int offset, int end, List<ContentDigest> results)
+            throws ArchiveException {
+        while (offset < end) {
+            int entryEnd = checkedEnd(bytes, offset, end);
+            if(entryEnd - offset < 12) {
+                throw new ArchiveException("Invalid digest entry at: " + offset);
+            }
+            int algorithm = getInteger(bytes, offset + 4);
+            int digestEnd = checkedEnd(bytes, offset + 8, entryEnd);
+            byte[] digest = new byte[digestEnd - offset - 12];
+            System.arraycopy(bytes, offset + 12, digest, 0, digest.length);
+            results.add(new ContentDigest(algorithm, digest));
+            offset = entryEnd;
+        }
+    }
+    private static int checkedEnd(byte[] bytes, int offset, int limit) throws ArchiveException {
+        if(offset + 4 > limit) {
+            throw new ArchiveException("Length prefix out of bounds: offset = "
+                    + offset + ", limit = " + limit);
+        }
+        long end = offset + 4L + (getInteger(bytes, offset) & 0xffffffffL);
+        if(end > limit) {
+            throw new ArchiveException("Length prefixed block out of bounds: offset = "
+                    + offset + ", end = " + end + ", limit = " + limit);
+        }
+        return (int) end;
+    }
+    private static int getInteger(byte[] bytes, int offset) {
+        return bytes[offset] & 0xff |
+                (bytes[offset + 1] & 0xff) << 8 |
+                (bytes[offset + 2] & 0xff) << 16 |
+                (bytes[offset + 3] & 0xff) << 24;
+    }
+
+    public static final int RSA_PSS_SHA256 = 0x0101;
+    public static final int RSA_PSS_SHA512 = 0x0102;
+    public static final int RSA_PKCS1_SHA256 = 0x0103;
+    public static final int RSA_PKCS1_SHA512 = 0x0104;
+    public static final int ECDSA_SHA256 = 0x0201;
+    public static final int ECDSA_SHA512 = 0x0202;
+    public static final int DSA_SHA256 = 0x0301;
+
+    public static final String SHA256 = "SHA-256";
+    public static final String SHA512 = "SHA-512";
+}
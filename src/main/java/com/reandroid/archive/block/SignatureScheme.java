@@ -15,9 +15,11 @@
  */
 package com.reandroid.archive.block;
 
+import com.reandroid.archive.ArchiveException;
 import com.reandroid.arsc.container.ExpandableBlockContainer;
 
 import java.util.Iterator;
+import java.util.List;
 
 public abstract class SignatureScheme extends ExpandableBlockContainer {
 
@@ -33,6 +35,12 @@ public abstract class SignatureScheme extends ExpandableBlockContainer {
         return signatureId;
     }
 
+    /**
+     * Content digests of all signers, applicable only for v2 / v3 schemes
+     * */
+    public List<ContentDigest> getContentDigests() throws ArchiveException {
+        return ContentDigest.readSigners(getBytes());
+    }
     public SignatureInfo getSignatureInfo(){
         return getParent(SignatureInfo.class);
     }
@@ -15,6 +15,7 @@
  */
 package com.reandroid.archive.block.v2;
 
+import com.reandroid.archive.ArchiveException;
 import com.reandroid.archive.block.*;
 import com.reandroid.utils.collection.InstanceIterator;
 
@@ -37,6 +38,9 @@ public class V2Signer extends LengthPrefixedBlock {
     public Iterator<CertificateBlock> getCertificates(){
         return InstanceIterator.of(certificateBlockList.iterator(), CertificateBlock.class);
     }
+    public List<ContentDigest> getContentDigests() throws ArchiveException {
+        return ContentDigest.readDigests(v2Signature.getByteArray().toArray());
+    }
     public void addCertificateBlock(CertificateBlockV2 certificateBlockV2){
         certificateBlockList.add(certificateBlockV2);
     }
@@ -48,6 +48,9 @@ public class ArchiveEntrySource<T extends ZipInput> extends InputSource {
         if(compressed){
             return openInflaterInputStream();
         }
+        return openRawStream();
+    }
+    InputStream openRawStream() throws IOException {
         ArchiveEntry archiveEntry = getArchiveEntry();
         return getZipSource().getInputStream(
                 archiveEntry.getFileOffset(),
@@ -82,9 +85,7 @@ public class ArchiveEntrySource<T extends ZipInput> extends InputSource {
         }
     }
     private InputStream openInflaterInputStream() throws IOException {
-        ArchiveEntry archiveEntry = getArchiveEntry();
-        InputStream inputStream = getZipSource().getInputStream(
-                archiveEntry.getFileOffset(), archiveEntry.getDataSize());
+        InputStream inputStream = openRawStream();
         return new InflaterInputStream(inputStream,
                 new Inflater(true), 512);
     }
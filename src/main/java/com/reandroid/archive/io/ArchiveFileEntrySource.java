@@ -21,6 +21,7 @@ import com.reandroid.utils.io.FileUtil;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 
@@ -31,35 +32,49 @@ public class ArchiveFileEntrySource extends ArchiveEntrySource<ZipFileInput> {
         setSort(archiveEntry.getIndex());
     }
 
+    /**
+     * Reads by absolute positions, the shared channel position is untouched thus entries
+     * can be read or written concurrently.
+     * */
     @Override
     public byte[] getBytes(int length) throws IOException {
-        FileChannel fileChannel = getFileChannel();
-        if(getMethod() != Archive.STORED || fileChannel == null){
+        if(getMethod() != Archive.STORED){
             return super.getBytes(length);
         }
+        FileChannel fileChannel = getZipSource().getFileChannel();
         byte[] bytes = new byte[length];
         ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
-        fileChannel.read(byteBuffer);
+        long position = getArchiveEntry().getFileOffset();
+        while (byteBuffer.hasRemaining()){
+            int read = fileChannel.read(byteBuffer, position);
+            if(read < 0){
+                break;
+            }
+            position += read;
+        }
         return bytes;
     }
-
-    FileChannel getFileChannel() throws IOException {
-        ZipFileInput zipInput = getZipSource();
-        FileChannel fileChannel = zipInput.getFileChannel();
-        fileChannel.position(getArchiveEntry().getFileOffset());
-        return fileChannel;
+    @Override
+    InputStream openRawStream() throws IOException {
+        ArchiveEntry archiveEntry = getArchiveEntry();
+        return getZipSource().getPositionalInputStream(
+                archiveEntry.getFileOffset(),
+                archiveEntry.getDataSize());
     }
 
     @Override
     public void write(File file) throws IOException {
-        FileChannel fileChannel = getFileChannel();
-        if(getMethod() != Archive.STORED || fileChannel == null){
+        if(getMethod() != Archive.STORED){
             super.write(file);
             return;
         }
         FileChannel outputChannel = FileUtil.openWriteChannel(file);
-        outputChannel.transferFrom(fileChannel, 0, getLength());
-        outputChannel.close();
+        try {
+            getZipSource().transferTo(getArchiveEntry().getFileOffset(),
+                    getLength(), outputChannel);
+        } finally {
+            outputChannel.close();
+        }
     }
 
 }
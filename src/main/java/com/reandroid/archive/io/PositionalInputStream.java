@@ -0,0 +1,116 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.archive.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads a slice of file channel using absolute positions through a direct buffer, the
+ * channel position is never changed thus many streams can read the same channel concurrently.
+ * */
+public class PositionalInputStream extends InputStream {
+
+    private final FileChannel fileChannel;
+    private final long endOffset;
+    private long position;
+    private final ByteBuffer buffer;
+
+    public PositionalInputStream(FileChannel fileChannel, long offset, long length, int bufferSize) {
+        this.fileChannel = fileChannel;
+        this.position = offset;
+        this.endOffset = offset + length;
+        if(bufferSize > length) {
+            bufferSize = (int) Math.max(1, length);
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+        ((Buffer) buffer).limit(0);
+        this.buffer = buffer;
+    }
+    public PositionalInputStream(FileChannel fileChannel, long offset, long length) {
+        this(fileChannel, offset, length, DEFAULT_BUFFER_SIZE);
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if(length == 0) {
+            return 0;
+        }
+        ByteBuffer buffer = this.buffer;
+        if(!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        if(length > buffer.remaining()) {
+            length = buffer.remaining();
+        }
+        buffer.get(bytes, offset, length);
+        return length;
+    }
+    @Override
+    public int read() throws IOException {
+        ByteBuffer buffer = this.buffer;
+        if(!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        return buffer.get() & 0xff;
+    }
+    @Override
+    public long skip(long amount) {
+        if(amount <= 0) {
+            return 0;
+        }
+        Buffer buffer = this.buffer;
+        int remaining = buffer.remaining();
+        if(amount <= remaining) {
+            buffer.position(buffer.position() + (int) amount);
+            return amount;
+        }
+        buffer.limit(0);
+        long skip = Math.min(amount - remaining, endOffset - position);
+        position += skip;
+        return remaining + skip;
+    }
+    @Override
+    public int available() {
+        long available = buffer.remaining() + (endOffset - position);
+        return (int) Math.min(available, Integer.MAX_VALUE);
+    }
+    private boolean fill() throws IOException {
+        long available = endOffset - position;
+        if(available <= 0) {
+            return false;
+        }
+        ByteBuffer buffer = this.buffer;
+        Buffer state = buffer;
+        state.clear();
+        if(available < state.capacity()) {
+            state.limit((int) available);
+        }
+        int read = fileChannel.read(buffer, position);
+        state.flip();
+        if(read <= 0) {
+            position = endOffset;
+            return false;
+        }
+        position += read;
+        return true;
+    }
+
+    private static final int DEFAULT_BUFFER_SIZE = 1024 * 256;
+}
@@ -52,6 +52,19 @@ public class ZipByteOutput extends ZipOutput{
     public void write(byte[] bytes) throws IOException {
         bis.write(bytes);
     }
+    /**
+     * Overwrites previously written bytes, used to back-patch headers
+     * */
+    public void write(long position, byte[] bytes) throws IOException {
+        if(position < 0 || position + bytes.length > bis.position()){
+            throw new IOException("Invalid position = " + position
+                    + ", length = " + bytes.length + ", size = " + bis.position());
+        }
+        bis.write((int) position, bytes, 0, bytes.length);
+    }
+    public void writeTo(OutputStream outputStream) throws IOException {
+        bis.writeTo(outputStream);
+    }
     @Override
     public OutputStream getOutputStream() {
         return bis;
@@ -21,6 +21,7 @@ import com.reandroid.utils.io.FileUtil;
 import java.io.*;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 
 public class ZipFileInput extends ZipInput {
     private final File file;
@@ -59,6 +60,24 @@ public class ZipFileInput extends ZipInput {
         return mCurrentInputStream;
     }
 
+    /**
+     * Unlike getInputStream, the returned stream reads by absolute positions and does not
+     * close previously opened stream, thus safe to be used from multiple threads.
+     * */
+    public InputStream getPositionalInputStream(long offset, long length) throws IOException {
+        return new PositionalInputStream(getFileChannel(), offset, length);
+    }
+    public void transferTo(long offset, long length, WritableByteChannel target) throws IOException {
+        FileChannel fileChannel = getFileChannel();
+        while (length > 0){
+            long count = fileChannel.transferTo(offset, length, target);
+            if(count <= 0){
+                throw new EOFException("Finished before reading " + length + " bytes");
+            }
+            offset += count;
+            length -= count;
+        }
+    }
     @Override
     public byte[] getFooter(int minLength) throws IOException {
         long position = getLength();
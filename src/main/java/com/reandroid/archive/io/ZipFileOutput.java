@@ -22,18 +22,46 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 
 public class ZipFileOutput extends ZipOutput{
     private final File file;
     private FileChannel fileChannel;
     private FileChannelOutputStream outputStream;
     public ZipFileOutput(File file) throws IOException {
-        initFile(file);
+        this(file, false);
+    }
+    /**
+     * @param keepExisting if true the file is not recreated, call {@link #keep(long)}
+     *                     before writing to retain its leading bytes
+     * */
+    public ZipFileOutput(File file, boolean keepExisting) throws IOException {
+        if(!keepExisting){
+            initFile(file);
+        }
         this.file = file;
     }
+    /**
+     * Opens the existing file, truncates it to the given length and positions at the end
+     * */
+    public void keep(long length) throws IOException {
+        if(this.fileChannel != null){
+            throw new IOException("Already opened: " + file);
+        }
+        FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE);
+        fileChannel.truncate(length);
+        fileChannel.position(length);
+        this.fileChannel = fileChannel;
+    }
     public File getFile() {
         return file;
     }
+    public void write(ByteBuffer buffer) throws IOException{
+        FileChannel fileChannel = getFileChannel();
+        while (buffer.hasRemaining()){
+            fileChannel.write(buffer);
+        }
+    }
     public void write(FileChannel input, long length) throws IOException{
         FileChannel fileChannel = getFileChannel();
         long pos = fileChannel.position();
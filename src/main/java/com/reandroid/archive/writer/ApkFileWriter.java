@@ -26,8 +26,22 @@ import java.io.IOException;
 
 public class ApkFileWriter extends ApkWriter<ZipFileOutput, FileOutputSource> {
     private BufferFileInput buffer;
+    private long memoryBufferLimit = DEFAULT_MEMORY_BUFFER_LIMIT;
     public ApkFileWriter(File file, InputSource[] sources) throws IOException {
-        super(new ZipFileOutput(file), sources);
+        this(new ZipFileOutput(file), sources);
+    }
+    ApkFileWriter(ZipFileOutput zipFileOutput, InputSource[] sources){
+        super(zipFileOutput, sources);
+    }
+    public long getMemoryBufferLimit() {
+        return memoryBufferLimit;
+    }
+    /**
+     * Changed entries are compressed to off-heap memory up to this limit, the rest spills
+     * to a temporary file next to the output. Zero or negative value buffers only to the file.
+     * */
+    public void setMemoryBufferLimit(long memoryBufferLimit) {
+        this.memoryBufferLimit = memoryBufferLimit;
     }
     @Override
     void closeBuffer() throws IOException{
@@ -64,8 +78,12 @@ public class ApkFileWriter extends ApkWriter<ZipFileOutput, FileOutputSource> {
 
     private BufferFileInput writeBuffer(FileOutputSource[] outputList) throws IOException {
         File bufferFile = getBufferFile();
-        BufferFileOutput output = new BufferFileOutput(bufferFile);
-        BufferFileInput input = new BufferFileInput(bufferFile);
+        MemoryBuffer memoryBuffer = null;
+        if(getMemoryBufferLimit() > 0){
+            memoryBuffer = new MemoryBuffer(getMemoryBufferLimit());
+        }
+        BufferFileOutput output = new BufferFileOutput(bufferFile, memoryBuffer);
+        BufferFileInput input = new BufferFileInput(bufferFile, memoryBuffer);
         FileOutputSource tableSource = null;
         int length = outputList.length;
         for(int i = 0; i < length; i++){
@@ -84,6 +102,9 @@ public class ApkFileWriter extends ApkWriter<ZipFileOutput, FileOutputSource> {
             tableSource.makeBuffer(input, output);
         }
         output.close();
+        if(output.isSpilled()){
+            logMessage("Buffer spilled to file: " + bufferFile.getName());
+        }
         return input;
     }
     private File getBufferFile(){
@@ -100,4 +121,6 @@ public class ApkFileWriter extends ApkWriter<ZipFileOutput, FileOutputSource> {
         bufFile.deleteOnExit();
         return bufFile;
     }
+
+    public static final long DEFAULT_MEMORY_BUFFER_LIMIT = 32L * 1024 * 1024;
 }
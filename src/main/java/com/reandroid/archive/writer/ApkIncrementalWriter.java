@@ -0,0 +1,236 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.archive.writer;
+
+import com.reandroid.archive.InputSource;
+import com.reandroid.archive.block.DataDescriptor;
+import com.reandroid.archive.io.ArchiveFileEntrySource;
+import com.reandroid.archive.io.ZipFileInput;
+import com.reandroid.archive.io.ZipFileOutput;
+import com.reandroid.utils.io.FileUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes to the same file the unchanged entries are loaded from. Every unchanged record
+ * is kept untouched at its original offset, changed entries are written into the gaps
+ * left by removed or changed records when they fit, otherwise appended after the last
+ * kept record, followed by the new central directory. Header interceptors apply only to
+ * the central directory entries of kept records. When the file is not one of the sources
+ * it behaves same as {@link ApkFileWriter}.
+ * <br/>
+ * NOTE: Once written, entries of the source archive other than the kept records are no
+ * longer valid, the archive should be reloaded.
+ * */
+public class ApkIncrementalWriter extends ApkFileWriter {
+
+    private final File canonicalFile;
+    private ZipFileInput lastZipInput;
+    private boolean lastSameFile;
+    private boolean inPlace;
+    private FileOutputSource[] outputs;
+    private final Map<FileOutputSource, Long> plannedOffsets = new HashMap<>();
+    private long appendOffset;
+    private int keptCount;
+    private long keptBytes;
+    private long copiedBytes;
+    private long encodedBytes;
+
+    public ApkIncrementalWriter(File file, InputSource[] sources) throws IOException {
+        super(new ZipFileOutput(file, true), sources);
+        this.canonicalFile = file.getCanonicalFile();
+    }
+
+    @Override
+    public void write() throws IOException {
+        try {
+            super.write();
+        } finally {
+            plannedOffsets.clear();
+        }
+        FileOutputSource[] outputs = this.outputs;
+        this.outputs = null;
+        keptCount = 0;
+        keptBytes = 0;
+        copiedBytes = 0;
+        encodedBytes = 0;
+        for(FileOutputSource out : outputs){
+            if(out instanceof RecordOutputSource && ((RecordOutputSource) out).isKept()){
+                keptCount ++;
+                keptBytes += ((RecordOutputSource) out).getRecordLength();
+            }else if(out.makeFromEntry() != null){
+                copiedBytes += out.getLocalFileHeader().getDataSize();
+            }else {
+                encodedBytes += out.getLocalFileHeader().getDataSize();
+            }
+        }
+        logMessage("Kept: " + keptCount + " [" + FileUtil.toReadableFileSize(keptBytes)
+                + "], copied: " + FileUtil.toReadableFileSize(copiedBytes)
+                + ", encoded: " + FileUtil.toReadableFileSize(encodedBytes));
+    }
+    /**
+     * Number of records left untouched on the last write
+     * */
+    public int getKeptCount() {
+        return keptCount;
+    }
+    /**
+     * Bytes of the records left untouched on the last write
+     * */
+    public long getKeptBytes() {
+        return keptBytes;
+    }
+    /**
+     * Bytes of unchanged entries data copied as is on the last write
+     * */
+    public long getCopiedBytes() {
+        return copiedBytes;
+    }
+    /**
+     * Bytes of entries data compressed/re-encoded on the last write
+     * */
+    public long getEncodedBytes() {
+        return encodedBytes;
+    }
+
+    @Override
+    FileOutputSource[] buildOutputEntries(){
+        this.inPlace = false;
+        FileOutputSource[] outList = super.buildOutputEntries();
+        this.outputs = outList;
+        return outList;
+    }
+    @Override
+    void prepareOutputs(FileOutputSource[] outList) throws IOException {
+        ZipFileOutput zipFileOutput = getZipOutput();
+        if(!inPlace){
+            super.prepareOutputs(outList);
+            return;
+        }
+        ZipAligner zipAligner = getZipAligner();
+        List<long[]> holes = new ArrayList<>();
+        long keptEnd = keepRecords(outList, zipAligner, holes);
+        // moves raw data of the remaining records to the buffer before any overwrite
+        super.prepareOutputs(outList);
+        long append = keptEnd;
+        for(FileOutputSource out : outList){
+            if(out instanceof RecordOutputSource && ((RecordOutputSource) out).isKept()){
+                continue;
+            }
+            long offset = -1;
+            for(long[] hole : holes){
+                long end = hole[0] + countRecordBytes(out, hole[0], zipAligner);
+                if(end <= hole[1]){
+                    offset = hole[0];
+                    hole[0] = end;
+                    break;
+                }
+            }
+            if(offset < 0){
+                offset = append;
+                append += countRecordBytes(out, offset, zipAligner);
+            }
+            plannedOffsets.put(out, offset);
+        }
+        this.appendOffset = append;
+        zipFileOutput.keep(keptEnd);
+    }
+    @Override
+    void writeApk(FileOutputSource outputSource, ZipAligner zipAligner) throws IOException {
+        Long offset = plannedOffsets.get(outputSource);
+        if(offset != null){
+            getZipOutput().position(offset);
+        }
+        super.writeApk(outputSource, zipAligner);
+    }
+    @Override
+    void closeBuffer() throws IOException {
+        if(inPlace){
+            getZipOutput().position(appendOffset);
+        }
+        super.closeBuffer();
+    }
+    @Override
+    FileOutputSource toOutputSource(InputSource inputSource){
+        ArchiveFileEntrySource entrySource = RecordOutputSource.getArchiveSource(inputSource);
+        if(entrySource != null && isSameFile(entrySource.getZipSource())){
+            this.inPlace = true;
+            return new RecordOutputSource(inputSource);
+        }
+        return super.toOutputSource(inputSource);
+    }
+    private boolean isSameFile(ZipFileInput zipFileInput){
+        if(zipFileInput == lastZipInput){
+            return lastSameFile;
+        }
+        File file = zipFileInput.getFile();
+        boolean result;
+        try {
+            result = canonicalFile.equals(file.getCanonicalFile());
+        } catch (IOException ignored) {
+            result = canonicalFile.equals(file.getAbsoluteFile());
+        }
+        lastZipInput = zipFileInput;
+        lastSameFile = result;
+        return result;
+    }
+    /**
+     * Marks every record that can stay at its original offset, collects the gaps between
+     * them and returns end of the last kept record
+     * */
+    private long keepRecords(FileOutputSource[] outList, ZipAligner zipAligner,
+                             List<long[]> holes) throws IOException {
+        List<RecordOutputSource> records = new ArrayList<>();
+        for(FileOutputSource out : outList){
+            if(out instanceof RecordOutputSource){
+                records.add((RecordOutputSource) out);
+            }
+        }
+        records.sort(Comparator.comparingLong(RecordOutputSource::getRecordOffset));
+        long fileLength = getZipOutput().getFile().length();
+        long end = 0;
+        int count = 0;
+        for(RecordOutputSource record : records){
+            long offset = record.getRecordOffset();
+            if(offset < end || !record.canKeep(zipAligner, fileLength)){
+                continue;
+            }
+            if(offset > end){
+                holes.add(new long[]{end, offset});
+            }
+            record.keep();
+            end = record.getRecordEnd();
+            count ++;
+        }
+        logMessage("Keeping records: " + count + "/" + outList.length);
+        return end;
+    }
+    private static long countRecordBytes(FileOutputSource out, long offset, ZipAligner zipAligner){
+        long length = out.prepareLFH(offset, zipAligner).countBytes();
+        length += out.getEntryBuffer().getLength();
+        DataDescriptor dataDescriptor = out.prepareDD();
+        if(dataDescriptor != null){
+            length += dataDescriptor.countBytes();
+        }
+        return length;
+    }
+}
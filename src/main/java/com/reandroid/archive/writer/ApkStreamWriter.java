@@ -22,12 +22,26 @@ import java.io.IOException;
 import java.io.OutputStream;
 
 public class ApkStreamWriter extends ApkWriter<ZipStreamOutput, StreamOutputSource>{
+    private boolean streaming;
     public ApkStreamWriter(ZipStreamOutput zipOutput, InputSource[] sources) {
         super(zipOutput, sources);
     }
     public ApkStreamWriter(OutputStream outputStream, InputSource[] sources) {
         this(new ZipStreamOutput(outputStream), sources);
     }
+    public boolean isStreaming() {
+        return streaming;
+    }
+    /**
+     * If true, each entry is compressed directly to the output and its crc and sizes are
+     * written on data descriptor after the data, thus no entry is buffered in memory.
+     * NOTE: java.util.zip.ZipInputStream can not read stored entries having data descriptor,
+     * the resulting archive should be read through its central directory. A data descriptor
+     * factory or interceptor clearing the data descriptor flag fails the write.
+     * */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
     @Override
     void writeApk(StreamOutputSource outputSource, ZipAligner zipAligner) throws IOException {
         outputSource.writeApk(getZipOutput(), zipAligner);
@@ -37,7 +51,7 @@ public class ApkStreamWriter extends ApkWriter<ZipStreamOutput, StreamOutputSour
     }
     @Override
     StreamOutputSource toOutputSource(InputSource inputSource) {
-        return new StreamOutputSource(inputSource);
+        return new StreamOutputSource(inputSource, isStreaming());
     }
     @Override
     StreamOutputSource[] createOutArray(int length) {
@@ -16,15 +16,43 @@
 package com.reandroid.archive.writer;
 
 import com.reandroid.archive.io.ZipFileInput;
+import com.reandroid.archive.io.ZipFileOutput;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.channels.FileChannel;
 
 public class BufferFileInput extends ZipFileInput {
+    private final MemoryBuffer memoryBuffer;
     private boolean unlocked;
     public BufferFileInput(File file){
+        this(file, null);
+    }
+    BufferFileInput(File file, MemoryBuffer memoryBuffer){
         super(file);
+        this.memoryBuffer = memoryBuffer;
+    }
+
+    /**
+     * Writes the range of buffered bytes, the leading part could be in memory
+     * */
+    void writeTo(ZipFileOutput output, long offset, long length) throws IOException {
+        MemoryBuffer memoryBuffer = this.memoryBuffer;
+        long memorySize = 0;
+        if(memoryBuffer != null){
+            memorySize = memoryBuffer.size();
+            if(offset < memorySize){
+                long count = Math.min(length, memorySize - offset);
+                memoryBuffer.writeTo(output, offset, count);
+                offset += count;
+                length -= count;
+            }
+        }
+        if(length > 0){
+            FileChannel fileChannel = getFileChannel();
+            fileChannel.position(offset - memorySize);
+            output.write(fileChannel, length);
+        }
     }
 
     public void unlock(){
@@ -41,6 +69,10 @@ public class BufferFileInput extends ZipFileInput {
     @Override
     public void close() throws IOException {
         super.close();
+        MemoryBuffer memoryBuffer = this.memoryBuffer;
+        if(memoryBuffer != null){
+            memoryBuffer.free();
+        }
         if(unlocked){
             File file = super.getFile();
             if(file.isFile()){
@@ -16,12 +16,120 @@
 package com.reandroid.archive.writer;
 
 import com.reandroid.archive.io.ZipFileOutput;
+import com.reandroid.archive.io.ZipOutput;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+
+/**
+ * Writes to memory first if {@link MemoryBuffer} is given, once it is full the rest
+ * spills to the file. The file is created only when spilled.
+ * */
+public class BufferFileOutput extends ZipOutput {
+    private final File file;
+    private final MemoryBuffer memoryBuffer;
+    private ZipFileOutput fileOutput;
+    private OutputStream outputStream;
 
-public class BufferFileOutput extends ZipFileOutput {
     public BufferFileOutput(File file) throws IOException {
-        super(file);
+        this(file, null);
+    }
+    BufferFileOutput(File file, MemoryBuffer memoryBuffer) {
+        this.file = file;
+        this.memoryBuffer = memoryBuffer;
+    }
+
+    public File getFile() {
+        return file;
+    }
+    public boolean isSpilled(){
+        return fileOutput != null;
+    }
+    public void write(FileChannel input, long length) throws IOException {
+        MemoryBuffer memoryBuffer = this.memoryBuffer;
+        if(memoryBuffer != null && !isSpilled()){
+            length -= memoryBuffer.read(input, length);
+        }
+        if(length > 0){
+            getFileOutput().write(input, length);
+        }
+    }
+    @Override
+    public long position() throws IOException {
+        long position = 0;
+        MemoryBuffer memoryBuffer = this.memoryBuffer;
+        if(memoryBuffer != null){
+            position = memoryBuffer.size();
+        }
+        ZipFileOutput fileOutput = this.fileOutput;
+        if(fileOutput != null){
+            position += fileOutput.position();
+        }
+        return position;
+    }
+    @Override
+    public void position(long pos) throws IOException {
+        throw new IOException("Not used");
+    }
+    @Override
+    public void close() throws IOException {
+        ZipFileOutput fileOutput = this.fileOutput;
+        if(fileOutput != null){
+            fileOutput.close();
+        }
+    }
+    @Override
+    public boolean isOpen() {
+        ZipFileOutput fileOutput = this.fileOutput;
+        return fileOutput == null || fileOutput.isOpen();
+    }
+    @Override
+    public void write(InputStream inputStream) throws IOException {
+        OutputStream outputStream = getOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = inputStream.read(buffer, 0, buffer.length)) > 0){
+            outputStream.write(buffer, 0, read);
+        }
+        inputStream.close();
+    }
+    @Override
+    public OutputStream getOutputStream() {
+        OutputStream outputStream = this.outputStream;
+        if(outputStream == null){
+            outputStream = new SpillOutputStream();
+            this.outputStream = outputStream;
+        }
+        return outputStream;
+    }
+    private ZipFileOutput getFileOutput() throws IOException {
+        ZipFileOutput fileOutput = this.fileOutput;
+        if(fileOutput == null){
+            fileOutput = new ZipFileOutput(file);
+            this.fileOutput = fileOutput;
+        }
+        return fileOutput;
+    }
+
+    private class SpillOutputStream extends OutputStream {
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            MemoryBuffer memoryBuffer = BufferFileOutput.this.memoryBuffer;
+            if(memoryBuffer != null && !isSpilled()){
+                int count = memoryBuffer.write(bytes, offset, length);
+                offset += count;
+                length -= count;
+            }
+            if(length > 0){
+                getFileOutput().getOutputStream().write(bytes, offset, length);
+            }
+        }
+        @Override
+        public void write(int i) throws IOException {
+            write(new byte[]{(byte) i}, 0, 1);
+        }
     }
 }
@@ -15,7 +15,9 @@
  */
 package com.reandroid.archive.writer;
 
+import com.reandroid.archive.Archive;
 import com.reandroid.archive.InputSource;
+import com.reandroid.archive.block.LocalFileHeader;
 import com.reandroid.archive.io.ZipByteOutput;
 
 import java.io.IOException;
@@ -24,13 +26,25 @@ class ByteOutputSource extends OutputSource{
     ByteOutputSource(InputSource inputSource) {
         super(inputSource);
     }
+    /**
+     * Streams content straight in to the output; the local header is written ahead
+     * and patched in place with crc and sizes once the single compress pass completes
+     * */
     void writeApk(ZipByteOutput zipOutput, ZipAligner zipAligner) throws IOException {
-        ZipByteOutput buffer = new ZipByteOutput();
-        writeBuffer(buffer);
-        buffer.close();
+        LocalFileHeader lfh = getLocalFileHeader();
+        if(getInputSource().getMethod() != Archive.STORED){
+            lfh.setMethod(Archive.DEFLATED);
+        }
+        long headerOffset = zipOutput.position();
         writeLFH(zipOutput, zipAligner);
-        getLocalFileHeader().setFileOffset(zipOutput.position());
-        zipOutput.write(buffer.toByteArray());
+        long dataOffset = zipOutput.position();
+        lfh.setFileOffset(dataOffset);
+        writeBuffer(zipOutput);
+        byte[] header = lfh.getBytes();
+        if(header.length != dataOffset - headerOffset){
+            throw new IOException("Local header length changed: " + lfh.getFileName());
+        }
+        zipOutput.write(headerOffset, header);
         writeDD(zipOutput);
     }
 }
@@ -16,6 +16,10 @@
 package com.reandroid.archive.writer;
 
 import com.reandroid.archive.io.ZipFileInput;
+import com.reandroid.archive.io.ZipFileOutput;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
 
 public class EntryBuffer {
     private final ZipFileInput zipFileInput;
@@ -36,5 +40,15 @@ public class EntryBuffer {
     public long getLength() {
         return length;
     }
+    public void writeTo(ZipFileOutput output) throws IOException {
+        ZipFileInput zipFileInput = getZipFileInput();
+        if(zipFileInput instanceof BufferFileInput){
+            ((BufferFileInput) zipFileInput).writeTo(output, getOffset(), getLength());
+            return;
+        }
+        FileChannel fileChannel = zipFileInput.getFileChannel();
+        fileChannel.position(getOffset());
+        output.write(fileChannel, getLength());
+    }
 
 }
@@ -21,7 +21,6 @@ import com.reandroid.archive.io.ZipFileOutput;
 import com.reandroid.archive.io.ZipOutput;
 
 import java.io.IOException;
-import java.nio.channels.FileChannel;
 
 class FileOutputSource extends OutputSource {
     private EntryBuffer entryBuffer;
@@ -50,21 +49,22 @@ class FileOutputSource extends OutputSource {
     EntryBuffer makeFromEntry(){
         return null;
     }
+    EntryBuffer getEntryBuffer(){
+        return entryBuffer;
+    }
+    void setEntryBuffer(EntryBuffer entryBuffer){
+        this.entryBuffer = entryBuffer;
+    }
     void writeApk(ZipFileOutput zipFileOutput, ZipAligner zipAligner) throws IOException{
         logLargeFileWrite();
-        EntryBuffer entryBuffer = this.entryBuffer;
-        FileChannel input = entryBuffer.getZipFileInput().getFileChannel();
-        input.position(entryBuffer.getOffset());
         writeLFH(zipFileOutput, zipAligner);
-        writeData(input, entryBuffer.getLength(), zipFileOutput);
+        writeData(this.entryBuffer, zipFileOutput);
         writeDD(zipFileOutput);
     }
-    private void writeData(FileChannel input, long length, ZipFileOutput apkFileWriter) throws IOException{
+    private void writeData(EntryBuffer entryBuffer, ZipFileOutput apkFileWriter) throws IOException{
         long offset = apkFileWriter.position();
         LocalFileHeader lfh = getLocalFileHeader();
         lfh.setFileOffset(offset);
-        apkFileWriter.write(input, length);
+        entryBuffer.writeTo(apkFileWriter);
     }
-
-
 }
@@ -0,0 +1,136 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.archive.writer;
+
+import com.reandroid.archive.io.ZipFileOutput;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Off-heap chunks holding the leading part of the write buffer, accepts bytes only
+ * up to the given limit
+ * */
+class MemoryBuffer {
+    private final long limit;
+    private final List<ByteBuffer> chunks;
+    private long size;
+
+    MemoryBuffer(long limit){
+        this.limit = limit;
+        this.chunks = new ArrayList<>();
+    }
+
+    long size(){
+        return size;
+    }
+    /**
+     * Returns number of bytes accepted, less than length means the buffer is full
+     * */
+    int write(byte[] bytes, int offset, int length){
+        int result = 0;
+        while (length > 0){
+            ByteBuffer chunk = currentChunk();
+            if(chunk == null){
+                break;
+            }
+            int count = Math.min(length, chunk.remaining());
+            chunk.put(bytes, offset, count);
+            offset += count;
+            length -= count;
+            result += count;
+            size += count;
+        }
+        return result;
+    }
+    /**
+     * Reads from the current position of the channel, returns number of bytes read
+     * */
+    long read(FileChannel channel, long length) throws IOException {
+        long result = 0;
+        while (length > 0){
+            ByteBuffer chunk = currentChunk();
+            if(chunk == null){
+                break;
+            }
+            Buffer buffer = chunk;
+            int count = (int) Math.min(length, chunk.remaining());
+            buffer.limit(chunk.position() + count);
+            int read = 0;
+            while (read < count){
+                int i = channel.read(chunk);
+                if(i < 0){
+                    break;
+                }
+                read += i;
+            }
+            buffer.limit(chunk.capacity());
+            length -= read;
+            result += read;
+            size += read;
+            if(read < count){
+                break;
+            }
+        }
+        return result;
+    }
+    void writeTo(ZipFileOutput output, long offset, long length) throws IOException {
+        if(offset < 0 || offset + length > size){
+            throw new IOException("Invalid range offset = " + offset
+                    + ", length = " + length + ", size = " + size);
+        }
+        int index = (int) (offset / CHUNK_SIZE);
+        int position = (int) (offset % CHUNK_SIZE);
+        while (length > 0){
+            ByteBuffer chunk = chunks.get(index).duplicate();
+            Buffer buffer = chunk;
+            int count = (int) Math.min(length, CHUNK_SIZE - position);
+            buffer.limit(position + count);
+            buffer.position(position);
+            output.write(chunk);
+            length -= count;
+            position = 0;
+            index ++;
+        }
+    }
+    void free(){
+        chunks.clear();
+        size = 0;
+    }
+    private ByteBuffer currentChunk(){
+        List<ByteBuffer> chunks = this.chunks;
+        int count = chunks.size();
+        if(count != 0){
+            ByteBuffer chunk = chunks.get(count - 1);
+            if(chunk.hasRemaining()){
+                return chunk;
+            }
+        }
+        long available = limit - size;
+        if(available <= 0){
+            return null;
+        }
+        ByteBuffer chunk = ByteBuffer.allocateDirect((int) Math.min(available, CHUNK_SIZE));
+        chunks.add(chunk);
+        return chunk;
+    }
+
+    private static final int CHUNK_SIZE = 1024 * 1024;
+}
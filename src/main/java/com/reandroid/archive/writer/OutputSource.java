@@ -34,6 +34,8 @@ import java.util.zip.DeflaterOutputStream;
 class OutputSource {
     private final InputSource inputSource;
     private LocalFileHeader lfh;
+    private long preparedOffset = -1;
+    private boolean ddPrepared;
     private APKLogger apkLogger;
     private HeaderInterceptor headerInterceptor;
 
@@ -41,38 +43,41 @@ class OutputSource {
         this.inputSource = inputSource;
     }
 
+    /**
+     * Streams the content once, crc, sizes and deflate output are all computed on the same pass
+     * */
     void writeBuffer(ZipOutput zipOutput) throws IOException {
         LocalFileHeader lfh = getLocalFileHeader();
         InputSource inputSource = getInputSource();
         OutputStream rawStream = zipOutput.getOutputStream();
         CountingOutputStream<OutputStream> rawCounter = new CountingOutputStream<>(rawStream);
-        CountingOutputStream<DeflaterOutputStream> deflateCounter = null;
-
+        long crc;
+        long size;
         if(inputSource.getMethod() != Archive.STORED){
-            DeflaterOutputStream deflaterInputStream =
-                    new DeflaterOutputStream(rawCounter, new Deflater(Deflater.DEFAULT_COMPRESSION, true), true);
-            deflateCounter = new CountingOutputStream<>(deflaterInputStream, false);
-        }
-        if(deflateCounter != null){
             rawCounter.disableCrc(true);
-            inputSource.write(deflateCounter);
-            deflateCounter.close();
-            rawCounter.close();
-        }else {
-            inputSource.write(rawCounter);
-        }
-
-        lfh.setCompressedSize(rawCounter.getSize());
-
-        if(deflateCounter != null){
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            DeflaterOutputStream deflaterOutputStream =
+                    new DeflaterOutputStream(rawCounter, deflater, true);
+            CountingOutputStream<DeflaterOutputStream> deflateCounter =
+                    new CountingOutputStream<>(deflaterOutputStream, false);
+            try {
+                inputSource.write(deflateCounter);
+                deflaterOutputStream.finish();
+            } finally {
+                deflater.end();
+            }
             lfh.setMethod(Archive.DEFLATED);
-            lfh.setCrc(deflateCounter.getCrc32());
-            lfh.setSize(deflateCounter.getSize());
+            crc = deflateCounter.getCrc32();
+            size = deflateCounter.getSize();
         }else {
-            lfh.setSize(rawCounter.getSize());
+            inputSource.write(rawCounter);
             lfh.setMethod(Archive.STORED);
-            lfh.setCrc(rawCounter.getCrc32());
+            crc = rawCounter.getCrc32();
+            size = rawCounter.getSize();
         }
+        lfh.setCompressedSize(rawCounter.getSize());
+        lfh.setCrc(crc);
+        lfh.setSize(size);
         inputSource.disposeInputSource();
     }
     void writeCEH(ZipOutput zipOutput) throws IOException{
@@ -82,20 +87,42 @@ class OutputSource {
         ceh.writeBytes(zipOutput.getOutputStream());
     }
     void writeDD(ZipOutput apkFileWriter) throws IOException{
-        DataDescriptor dataDescriptor = getLocalFileHeader().getDataDescriptor();
+        DataDescriptor dataDescriptor = prepareDD();
         if(dataDescriptor == null){
             return;
         }
-        notifyDDWrite(dataDescriptor);
         dataDescriptor.writeBytes(apkFileWriter.getOutputStream());
     }
     void writeLFH(ZipOutput zipOutput, ZipAligner zipAligner) throws IOException {
+        LocalFileHeader lfh = prepareLFH(zipOutput.position(), zipAligner);
+        lfh.writeBytes(zipOutput.getOutputStream());
+    }
+    /**
+     * Aligns the local header for the given offset exactly as writeLFH does. The header is
+     * intercepted only on the first call, a header measured at an offset is written as is
+     * at the same offset and only re-aligned at a different one.
+     * */
+    LocalFileHeader prepareLFH(long offset, ZipAligner zipAligner){
         LocalFileHeader lfh = getLocalFileHeader();
+        if(offset == preparedOffset){
+            return lfh;
+        }
         if(zipAligner != null){
-            zipAligner.align(zipOutput.position(), lfh);
+            zipAligner.align(offset, lfh);
         }
-        notifyLFHWrite(lfh);
-        lfh.writeBytes(zipOutput.getOutputStream());
+        if(preparedOffset < 0){
+            notifyLFHWrite(lfh);
+        }
+        preparedOffset = offset;
+        return lfh;
+    }
+    DataDescriptor prepareDD(){
+        DataDescriptor dataDescriptor = getLocalFileHeader().getDataDescriptor();
+        if(dataDescriptor != null && !ddPrepared){
+            ddPrepared = true;
+            notifyDDWrite(dataDescriptor);
+        }
+        return dataDescriptor;
     }
 
     public void setHeaderInterceptor(HeaderInterceptor interceptor) {
@@ -0,0 +1,130 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.archive.writer;
+
+import com.reandroid.archive.InputSource;
+import com.reandroid.archive.RenamedInputSource;
+import com.reandroid.archive.block.DataDescriptor;
+import com.reandroid.archive.block.LocalFileHeader;
+import com.reandroid.archive.block.ZipHeader;
+import com.reandroid.archive.io.ArchiveFileEntrySource;
+import com.reandroid.archive.io.ZipFileOutput;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * Entry of the archive being rewritten in place, its local record is either kept
+ * untouched at the original offset or its raw data is moved through the buffer
+ * */
+class RecordOutputSource extends ArchiveOutputSource {
+    private boolean kept;
+
+    RecordOutputSource(InputSource inputSource){
+        super(inputSource);
+    }
+
+    @Override
+    ArchiveFileEntrySource getArchiveSource(){
+        return getArchiveSource(getInputSource());
+    }
+    @Override
+    LocalFileHeader getLocalFileHeader(){
+        if(kept){
+            return getOriginalHeader();
+        }
+        return super.getLocalFileHeader();
+    }
+    /**
+     * Local header as read from the existing file, its extra field and file offset
+     * describe the record exactly as it is on disk
+     * */
+    private LocalFileHeader getOriginalHeader(){
+        return getArchiveSource().getArchiveEntry().getLocalFileHeader();
+    }
+    boolean isKept(){
+        return kept;
+    }
+    void keep(){
+        this.kept = true;
+    }
+    /**
+     * Returns true if the existing record can be left as it is: same name and method,
+     * data within the file and aligned as the given aligner would write it
+     * */
+    boolean canKeep(ZipAligner zipAligner, long fileLength){
+        LocalFileHeader lfh = getOriginalHeader();
+        if(lfh.getMethod() != getInputSource().getMethod()
+                || !getInputSource().getAlias().equals(lfh.getFileName())){
+            return false;
+        }
+        long end = getRecordEnd();
+        if(getRecordOffset() < 0 || end > fileLength || ZipHeader.isZip64Length(end)){
+            return false;
+        }
+        return zipAligner == null || zipAligner.isAligned(lfh.getFileOffset(), lfh);
+    }
+    long getRecordOffset(){
+        LocalFileHeader lfh = getOriginalHeader();
+        return lfh.getFileOffset() - lfh.countBytes();
+    }
+    long getRecordEnd(){
+        LocalFileHeader lfh = getOriginalHeader();
+        long end = lfh.getFileOffset() + lfh.getDataSize();
+        DataDescriptor dataDescriptor = lfh.getDataDescriptor();
+        if(dataDescriptor != null){
+            end += dataDescriptor.countBytes();
+        }
+        return end;
+    }
+    long getRecordLength(){
+        return getRecordEnd() - getRecordOffset();
+    }
+    @Override
+    void makeBuffer(BufferFileInput input, BufferFileOutput output) throws IOException {
+        if(kept || getEntryBuffer() != null){
+            return;
+        }
+        EntryBuffer source = makeFromEntry();
+        if(source == null){
+            super.makeBuffer(input, output);
+            return;
+        }
+        // the original range will be overwritten, move raw data to the buffer
+        long offset = output.position();
+        FileChannel channel = source.getZipFileInput().getFileChannel();
+        channel.position(source.getOffset());
+        output.write(channel, source.getLength());
+        setEntryBuffer(new EntryBuffer(input, offset, source.getLength()));
+    }
+    @Override
+    void writeApk(ZipFileOutput zipFileOutput, ZipAligner zipAligner) throws IOException {
+        if(!kept){
+            super.writeApk(zipFileOutput, zipAligner);
+        }
+    }
+
+    static ArchiveFileEntrySource getArchiveSource(InputSource inputSource){
+        if(inputSource instanceof ArchiveFileEntrySource){
+            return (ArchiveFileEntrySource) inputSource;
+        }
+        if(inputSource instanceof RenamedInputSource){
+            return ((RenamedInputSource<?>) inputSource)
+                    .getParentInputSource(ArchiveFileEntrySource.class);
+        }
+        return null;
+    }
+}
@@ -16,23 +16,48 @@
 package com.reandroid.archive.writer;
 
 import com.reandroid.archive.InputSource;
+import com.reandroid.archive.block.LocalFileHeader;
 import com.reandroid.archive.io.ZipByteOutput;
 import com.reandroid.archive.io.ZipStreamOutput;
 
 import java.io.IOException;
 
 class StreamOutputSource extends OutputSource{
-    StreamOutputSource(InputSource inputSource) {
+    private final boolean streaming;
+    StreamOutputSource(InputSource inputSource, boolean streaming) {
         super(inputSource);
+        this.streaming = streaming;
+    }
+    StreamOutputSource(InputSource inputSource) {
+        this(inputSource, false);
     }
     void writeApk(ZipStreamOutput zipOutput, ZipAligner zipAligner) throws IOException {
+        if(streaming){
+            writeStreaming(zipOutput, zipAligner);
+            return;
+        }
         ZipByteOutput buffer = new ZipByteOutput();
         writeBuffer(buffer);
-        buffer.close();
 
         writeLFH(zipOutput, zipAligner);
         getLocalFileHeader().setFileOffset(zipOutput.position());
-        zipOutput.write(buffer.toByteArray());
+        buffer.writeTo(zipOutput.getOutputStream());
+        writeDD(zipOutput);
+    }
+    /**
+     * Single pass, crc and sizes are unknown until the data is written thus the header is
+     * flagged to have data descriptor before interceptors see it
+     * */
+    private void writeStreaming(ZipStreamOutput zipOutput, ZipAligner zipAligner) throws IOException {
+        getLocalFileHeader().setHasDataDescriptor(true);
+        LocalFileHeader lfh = prepareLFH(zipOutput.position(), zipAligner);
+        if(!lfh.hasDataDescriptor()){
+            throw new IOException("Data descriptor is required on streaming mode, cleared by interceptor: "
+                    + lfh.getFileName());
+        }
+        lfh.writeBytes(zipOutput.getOutputStream());
+        lfh.setFileOffset(zipOutput.position());
+        writeBuffer(zipOutput);
         writeDD(zipOutput);
     }
 }
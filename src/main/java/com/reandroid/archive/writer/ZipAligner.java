@@ -73,6 +73,16 @@ public class ZipAligner {
         }
         lfh.setZipAlign(padding);
     }
+    /**
+     * Checks if existing record data at the given offset satisfies the alignment
+     * */
+    boolean isAligned(long dataOffset, LocalFileHeader lfh){
+        if(lfh.getMethod() == Archive.DEFLATED){
+            return true;
+        }
+        int alignment = getAlignment(lfh.getFileName());
+        return alignment <= NO_ALIGNMENT || (dataOffset % alignment) == 0;
+    }
     private int getAlignment(String name){
         if(!alignmentMap.isEmpty()) {
             for(Map.Entry<Pattern, Integer> entry:alignmentMap.entrySet()){
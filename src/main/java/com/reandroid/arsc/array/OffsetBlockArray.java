@@ -96,30 +96,39 @@ public abstract class OffsetBlockArray<T extends Block> extends BlockArray<T> im
     }
     @Override
     protected void onRefreshed() {
-        calculateOffsets();
+        int length = calculateOffsets();
         refreshCount();
         refreshStart();
-        refreshAlignment(getAlignItem());
+        refreshAlignment(getAlignItem(), length);
     }
-    private void calculateOffsets() {
+    /**
+     * Returns the total length of items, the same as super.countBytes() without re-walking
+     * all items.
+     * */
+    private int calculateOffsets() {
         int count = size();
         OffsetArray offsetArray = getOffsetArray();
         offsetArray.setSize(count);
         if(count == 0){
-            return;
+            return 0;
         }
         int sum = 0;
+        int length = 0;
         for(int i = 0; i < count; i++){
             T item = get(i);
             int offset;
-            if(item == null || item.isNull()){
+            if(item == null){
+                offset = -1;
+            }else if(item.isNull()){
                 offset = -1;
+                length += item.countBytes();
             }else {
                 offset = sum;
                 sum += item.countBytes();
             }
             offsetArray.setOffset(i, offset);
         }
+        return sum + length;
     }
     public void refreshCountAndStart(){
         refreshCount();
@@ -143,13 +152,12 @@ public abstract class OffsetBlockArray<T extends Block> extends BlockArray<T> im
         startReference.set(start);
     }
     void refreshAlignment(BlockReader reader, AlignItem alignItem) throws IOException{
-        refreshAlignment(alignItem);
+        refreshAlignment(alignItem, super.countBytes());
     }
-    void refreshAlignment(AlignItem alignItem){
-        if(size() == 0){
-            alignItem.clear();
-        }else {
-            alignItem.align(this);
+    void refreshAlignment(AlignItem alignItem, int length){
+        alignItem.clear();
+        if(size() != 0){
+            alignItem.align(length);
         }
     }
 
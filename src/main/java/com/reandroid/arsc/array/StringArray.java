@@ -16,6 +16,7 @@
 package com.reandroid.arsc.array;
 
 import com.reandroid.arsc.item.IntegerItem;
+import com.reandroid.arsc.item.StringEncoder;
 import com.reandroid.arsc.item.StringItem;
 import com.reandroid.arsc.pool.StringPool;
 import com.reandroid.json.JSONArray;
@@ -41,13 +42,14 @@ public abstract class StringArray<T extends StringItem> extends OffsetBlockArray
             return;
         }
         mUtf8 = is_utf8;
-        Iterator<T> iterator = iterator();
-        while (iterator.hasNext()){
-            T item = iterator.next();
-            if(item != null){
-                item.setUtf8(is_utf8);
-            }
+        getStringEncoder().encodeAll(this, is_utf8);
+    }
+    private StringEncoder getStringEncoder(){
+        StringPool<?> stringPool = getParentInstance(StringPool.class);
+        if(stringPool != null){
+            return stringPool.getStringEncoder();
         }
+        return new StringEncoder();
     }
     public boolean isUtf8() {
         return mUtf8;
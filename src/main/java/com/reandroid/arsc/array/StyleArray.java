@@ -64,7 +64,7 @@ public class StyleArray extends OffsetBlockArray<StyleItem> implements
         }
     }
     @Override
-    void refreshAlignment(AlignItem alignItem) {
+    void refreshAlignment(AlignItem alignItem, int length) {
         if(size() == 0){
             alignItem.clear();
             return;
@@ -59,15 +59,20 @@ public abstract class Chunk<T extends HeaderBlock> extends ExpandableBlockContai
     }
     @Override
     protected final void onRefreshed() {
-        updateAlign();
-        getHeaderBlock().refreshHeader();
+        int chunkSize = updateAlign();
+        getHeaderBlock().refreshHeader(chunkSize);
         onChunkRefreshed();
     }
 
-    private void updateAlign() {
+    /**
+     * Counts this chunk only once for both alignment and chunk size, the children are
+     * already refreshed at this point.
+     * */
+    private int updateAlign() {
         AlignItem alignItem = getAlignItem();
         alignItem.setSize(0);
-        alignItem.align(this);
+        int count = countBytes();
+        return count + alignItem.align(count);
     }
     protected abstract void onChunkRefreshed();
     public void onChunkLoaded(){
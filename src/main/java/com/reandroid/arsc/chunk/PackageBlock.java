@@ -747,6 +747,7 @@ public class PackageBlock extends Chunk<PackageHeader>
         getSpecTypePairArray().merge(packageBlock.getSpecTypePairArray());
         getOverlayableList().merge(packageBlock.getOverlayableList());
         getStagedAliasList().merge(packageBlock.getStagedAliasList());
+        getSpecStringPool().clearMergeIndexMap();
     }
 
     public ResourceEntry mergeWithName(ResourceMergeOption mergeOption, ResourceEntry resourceEntry) {
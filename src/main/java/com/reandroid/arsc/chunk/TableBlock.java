@@ -22,6 +22,7 @@ import com.reandroid.arsc.header.HeaderBlock;
 import com.reandroid.arsc.header.InfoHeader;
 import com.reandroid.arsc.header.TableHeader;
 import com.reandroid.arsc.io.BlockReader;
+import com.reandroid.arsc.io.ByteBufferReader;
 import com.reandroid.arsc.model.ResourceEntry;
 import com.reandroid.arsc.model.ResourceName;
 import com.reandroid.arsc.pool.TableStringPool;
@@ -39,6 +40,7 @@ import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
@@ -687,6 +689,10 @@ public class TableBlock extends Chunk<TableHeader>
         BlockReader reader=new BlockReader(inputStream);
         super.readBytes(reader);
     }
+    public void readBytes(ByteBuffer byteBuffer) throws IOException{
+        BlockReader reader=new ByteBufferReader(byteBuffer);
+        super.readBytes(reader);
+    }
     public final int writeBytes(File file) throws IOException{
         if(isNull()){
             throw new IOException("Can NOT save null block");
@@ -800,6 +806,7 @@ public class TableBlock extends Chunk<TableHeader>
         }
         getStringPool().merge(tableBlock.getStringPool());
         getPackageArray().merge(tableBlock.getPackageArray());
+        getStringPool().clearMergeIndexMap();
         refresh();
     }
     @Override
@@ -851,6 +858,11 @@ public class TableBlock extends Chunk<TableHeader>
         tableBlock.readBytes(inputStream);
         return tableBlock;
     }
+    public static TableBlock load(ByteBuffer byteBuffer) throws IOException{
+        TableBlock tableBlock=new TableBlock();
+        tableBlock.readBytes(byteBuffer);
+        return tableBlock;
+    }
     public static TableBlock createEmpty() {
         TableBlock tableBlock = new TableBlock();
         tableBlock.initializeAsEmpty();
@@ -70,13 +70,8 @@ public class ResXmlAttribute extends AttributeValue implements
     }
     public boolean autoSetNamespace(boolean removeNoIdPrefix) {
         if(getNameId() == 0){
-            if(removeNoIdPrefix) {
-                String uri = getUri();
-                if(!Namespace.isExternalUri(uri) ||
-                        !Namespace.isValidUri(uri) ||
-                        !Namespace.isValidPrefix(getPrefix())) {
-                    return setNamespace(null, null);
-                }
+            if(removeNoIdPrefix && !isValidNoIdNamespace(getUri(), getPrefix())) {
+                return setNamespace(null, null);
             }
             return false;
         }
@@ -88,13 +83,8 @@ public class ResXmlAttribute extends AttributeValue implements
     public boolean autoSetName(boolean removeNoIdPrefix) {
         int nameId = getNameId();
         if(nameId == 0) {
-            if(removeNoIdPrefix) {
-                String uri = getUri();
-                if(!Namespace.isExternalUri(uri) ||
-                        !Namespace.isValidUri(uri) ||
-                        !Namespace.isValidPrefix(getPrefix())) {
-                    return setNamespace(null, null);
-                }
+            if(removeNoIdPrefix && !isValidNoIdNamespace(getUri(), getPrefix())) {
+                return setNamespace(null, null);
             }
             return false;
         }
@@ -116,17 +106,28 @@ public class ResXmlAttribute extends AttributeValue implements
             return false;
         }
         PackageBlock packageBlock = nameEntry.getPackageBlock();
-        String prefix = getPrefix();
-        String uri = getUri();
-        String packageName = packageBlock.getName();
-        if(!packageBlock.isMultiPackage() &&
-                Namespace.isValidPrefix(prefix, packageName) &&
-                Namespace.isValidUri(uri, packageName)) {
+        if(isValidNamespace(packageBlock, getUri(), getPrefix())) {
             return false;
         }
-        prefix = packageBlock.getPrefix();
-        uri = packageBlock.getUri();
-        return setNamespace(uri, prefix);
+        return setNamespace(packageBlock.getUri(), packageBlock.getPrefix());
+    }
+    /**
+     * Whether namespace of attribute having no resource id is kept by {@link #autoSetNamespace()}
+     * */
+    static boolean isValidNoIdNamespace(String uri, String prefix) {
+        return Namespace.isExternalUri(uri) &&
+                Namespace.isValidUri(uri) &&
+                Namespace.isValidPrefix(prefix);
+    }
+    /**
+     * Whether namespace of attribute named by a resource of packageBlock is kept
+     * by {@link #autoSetNamespace()}
+     * */
+    static boolean isValidNamespace(PackageBlock packageBlock, String uri, String prefix) {
+        String packageName = packageBlock.getName();
+        return !packageBlock.isMultiPackage() &&
+                Namespace.isValidPrefix(prefix, packageName) &&
+                Namespace.isValidUri(uri, packageName);
     }
     @Override
     public boolean isUndefined(){
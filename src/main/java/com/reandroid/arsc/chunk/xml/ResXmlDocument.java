@@ -5,6 +5,7 @@ import com.reandroid.arsc.ApkFile;
 import com.reandroid.arsc.chunk.*;
 import com.reandroid.arsc.header.HeaderBlock;
 import com.reandroid.arsc.io.BlockReader;
+import com.reandroid.arsc.io.ByteBufferReader;
 import com.reandroid.arsc.pool.ResXmlStringPool;
 import com.reandroid.arsc.pool.StringPool;
 import com.reandroid.json.JSONObject;
@@ -21,6 +22,7 @@ import org.xmlpull.v1.XmlPullParserException;
 import org.xmlpull.v1.XmlSerializer;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.util.Iterator;
 
 public class ResXmlDocument extends ResXmlDocumentOrElement implements
@@ -121,6 +123,10 @@ public class ResXmlDocument extends ResXmlDocumentOrElement implements
         BlockReader reader=new BlockReader(inputStream);
         super.readBytes(reader);
     }
+    public void readBytes(ByteBuffer byteBuffer) throws IOException{
+        BlockReader reader=new ByteBufferReader(byteBuffer);
+        super.readBytes(reader);
+    }
     public final int writeBytes(File file) throws IOException{
         if(isNull()){
             throw new IOException("Can NOT save null block");
@@ -0,0 +1,416 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.arsc.chunk.xml;
+
+import com.reandroid.arsc.chunk.ChunkType;
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.header.InfoHeader;
+import com.reandroid.arsc.io.BlockReader;
+import com.reandroid.arsc.item.IntegerItem;
+import com.reandroid.arsc.item.ResXmlString;
+import com.reandroid.arsc.model.ResourceEntry;
+import com.reandroid.arsc.pool.ResXmlStringPool;
+import com.reandroid.utils.StringsUtil;
+import com.reandroid.utils.collection.ArrayCollection;
+import org.xmlpull.v1.XmlSerializer;
+
+import java.io.IOException;
+import java.util.BitSet;
+
+/**
+ * Serializes binary xml to text xml directly from chunk stream, only the string pool and
+ * the currently open elements are held in memory. The output is the same as
+ * {@link ResXmlDocument#serialize(XmlSerializer)}, documents needing namespace fixes or
+ * having unusual chunk layout are rejected by {@link #read(PackageBlock, BlockReader)}
+ * thus callers should fall back to {@link ResXmlDocument}.
+ * */
+public class ResXmlTranscoder {
+
+    private final ResXmlDocument document;
+    private final BlockReader reader;
+    private final BitSet usedNamespaces;
+
+    private ResXmlTranscoder(ResXmlDocument document, BlockReader reader, BitSet usedNamespaces) {
+        this.document = document;
+        this.reader = reader;
+        this.usedNamespaces = usedNamespaces;
+    }
+
+    public void serialize(XmlSerializer serializer) throws IOException {
+        BlockReader reader = this.reader;
+        ResXmlDocument document = this.document;
+        ResXmlNode.setIndent(serializer, true);
+        serializer.startDocument("utf-8", null);
+        ArrayCollection<ResXmlElement> stack = new ArrayCollection<>();
+        ResXmlElement pending = null;
+        int namespaceIndex = 0;
+        int[] firstNamespace = new int[8];
+        InfoHeader headerBlock;
+        while ((headerBlock = reader.readHeaderBlock()) != null) {
+            ChunkType chunkType = headerBlock.getChunkType();
+            int depth = stack.size();
+            ResXmlDocumentOrElement parent = depth == 0 ? document : stack.get(depth - 1);
+            if(chunkType == ChunkType.XML_START_NAMESPACE) {
+                if(pending == null) {
+                    pending = parent.newElement();
+                    firstNamespace = ensureCapacity(firstNamespace, depth);
+                    firstNamespace[depth] = namespaceIndex;
+                }
+                pending.getNamespaceList().createNext().readBytes(reader);
+                namespaceIndex ++;
+            } else if(chunkType == ChunkType.XML_START_ELEMENT) {
+                if(pending == null) {
+                    pending = parent.newElement();
+                    firstNamespace = ensureCapacity(firstNamespace, depth);
+                    firstNamespace[depth] = namespaceIndex;
+                }
+                pending.getChunk().getStartElement().readBytes(reader);
+                serializeStart(serializer, pending, firstNamespace[depth]);
+                stack.add(pending);
+                pending = null;
+            } else if(chunkType == ChunkType.XML_END_ELEMENT) {
+                ResXmlElement element = stack.remove(depth - 1);
+                element.getChunk().getEndElement().readBytes(reader);
+                serializer.endTag(element.getUri(), element.getName(false));
+                element.serializeComment(serializer, element.getEndComment());
+                element.removeSelf();
+            } else if(chunkType == ChunkType.XML_CDATA) {
+                ResXmlTextNode textNode = parent.newText();
+                textNode.readBytes(reader);
+                textNode.serialize(serializer, true);
+                textNode.removeSelf();
+            } else {
+                reader.offset(headerBlock.getChunkSize());
+            }
+        }
+        serializer.endDocument();
+    }
+    private void serializeStart(XmlSerializer serializer, ResXmlElement element, int firstNamespace) throws IOException {
+        ResXmlNode.setIndent(serializer, true);
+        BitSet usedNamespaces = this.usedNamespaces;
+        int count = element.getNamespaceCount();
+        for(int i = 0; i < count; i++) {
+            if(usedNamespaces.get(firstNamespace + i)) {
+                ResXmlNamespace namespace = element.getNamespaceAt(i);
+                serializer.setPrefix(namespace.getPrefix(), namespace.getUri());
+            }
+        }
+        element.serializeComment(serializer, element.getStartComment());
+        serializer.startTag(element.getUri(), element.getName(false));
+        count = element.getAttributeCount();
+        for(int i = 0; i < count; i++) {
+            element.getAttributeAt(i).serialize(serializer, true);
+        }
+    }
+
+    /**
+     * Reads string pool and resource id map, then scans the remaining chunks without building
+     * nodes. Returns null if the document can not be transcoded as it is, the reader position
+     * is undefined on null result.
+     * */
+    public static ResXmlTranscoder read(PackageBlock packageBlock, BlockReader reader) throws IOException {
+        if(packageBlock == null) {
+            return null;
+        }
+        InfoHeader headerBlock = reader.readHeaderBlock();
+        if(headerBlock == null || headerBlock.getChunkType() != ChunkType.XML
+                || !isValidChunk(headerBlock, reader)) {
+            return null;
+        }
+        BlockReader chunkReader = reader.create(headerBlock.getChunkSize());
+        chunkReader.offset(headerBlock.getHeaderSize());
+        ResXmlDocument document = new ResXmlDocument();
+        document.setPackageBlock(packageBlock);
+        ResXmlStringPool stringPool = document.getStringPool();
+        ResXmlIDMap idMap = document.getResXmlIDMap();
+        boolean stringPoolRead = false;
+        boolean idMapRead = false;
+        while ((headerBlock = chunkReader.readHeaderBlock()) != null) {
+            if(!isValidChunk(headerBlock, chunkReader)) {
+                return null;
+            }
+            ChunkType chunkType = headerBlock.getChunkType();
+            if(chunkType == ChunkType.STRING && !stringPoolRead) {
+                stringPool.readBytes(chunkReader);
+                stringPoolRead = true;
+            } else if(chunkType == ChunkType.XML_RESOURCE_MAP && !idMapRead) {
+                idMap.readBytes(chunkReader);
+                idMapRead = true;
+            } else {
+                break;
+            }
+        }
+        pinResourceIds(idMap);
+        Scanner scanner = new Scanner(packageBlock, stringPool);
+        int start = chunkReader.getPosition();
+        if(!scanner.scan(chunkReader)) {
+            return null;
+        }
+        chunkReader.seek(start);
+        return new ResXmlTranscoder(document, chunkReader, scanner.usedNamespaces);
+    }
+    // Closed nodes are removed while serializing, keeps ids and their names in string pool
+    // otherwise unlinking the last attribute referring an id removes it
+    private static void pinResourceIds(ResXmlIDMap idMap) {
+        IntegerItem pin = new IntegerItem();
+        int size = idMap.size();
+        for(int i = 0; i < size; i++) {
+            idMap.get(i).addReference(pin);
+        }
+    }
+    static boolean isValidChunk(InfoHeader headerBlock, BlockReader reader) {
+        int headerSize = headerBlock.getHeaderSize();
+        int chunkSize = headerBlock.getChunkSize();
+        return headerSize >= InfoHeader.INFO_MIN_SIZE
+                && chunkSize >= headerSize
+                && chunkSize <= reader.available();
+    }
+    private static int[] ensureCapacity(int[] array, int index) {
+        if(index < array.length) {
+            return array;
+        }
+        int[] result = new int[array.length * 2];
+        System.arraycopy(array, 0, result, 0, array.length);
+        return result;
+    }
+
+    /**
+     * Verifies chunk layout is strictly nested and no namespace would be changed by
+     * {@link ResXmlDocument#fixNamespaces()}, meanwhile collects namespaces those survive
+     * {@link ResXmlDocument#removeUnusedNamespaces()}.
+     * */
+    static class Scanner {
+
+        private final PackageBlock packageBlock;
+        private final TableBlock tableBlock;
+        private final ResXmlStringPool stringPool;
+        final BitSet usedNamespaces;
+
+        // prefix reference, uri reference and declaration index of visible namespaces
+        private int[] namespaces;
+        private int namespaceCount;
+        private int namespaceIndex;
+        // index of first visible namespace for each open element
+        private int[] elements;
+        private int depth;
+
+        Scanner(PackageBlock packageBlock, ResXmlStringPool stringPool) {
+            this.packageBlock = packageBlock;
+            this.tableBlock = packageBlock.getTableBlock();
+            this.stringPool = stringPool;
+            this.usedNamespaces = new BitSet();
+            this.namespaces = new int[48];
+            this.elements = new int[16];
+        }
+
+        boolean scan(BlockReader reader) throws IOException {
+            int pendingStart = -1;
+            int pendingEndNamespace = 0;
+            InfoHeader headerBlock;
+            while ((headerBlock = reader.readHeaderBlock()) != null) {
+                if(!isValidChunk(headerBlock, reader)) {
+                    return false;
+                }
+                ChunkType chunkType = headerBlock.getChunkType();
+                if(chunkType == ChunkType.XML_END_NAMESPACE) {
+                    if(pendingEndNamespace == 0) {
+                        return false;
+                    }
+                    pendingEndNamespace --;
+                    reader.offset(headerBlock.getChunkSize());
+                    continue;
+                }
+                if(pendingEndNamespace != 0 || headerBlock.getHeaderSize() != NODE_HEADER_SIZE) {
+                    return false;
+                }
+                int position = reader.getPosition();
+                if(chunkType == ChunkType.XML_START_NAMESPACE) {
+                    if(pendingStart < 0) {
+                        pendingStart = namespaceCount;
+                    }
+                    if(!addNamespace(reader, position)) {
+                        return false;
+                    }
+                } else if(chunkType == ChunkType.XML_START_ELEMENT) {
+                    if(pendingStart < 0) {
+                        pendingStart = namespaceCount;
+                    }
+                    pushElement(pendingStart);
+                    pendingStart = -1;
+                    if(!scanStartElement(reader, position, headerBlock.getChunkSize())) {
+                        return false;
+                    }
+                } else if(chunkType == ChunkType.XML_END_ELEMENT) {
+                    if(pendingStart >= 0 || depth == 0) {
+                        return false;
+                    }
+                    depth --;
+                    int start = elements[depth];
+                    pendingEndNamespace = namespaceCount - start;
+                    namespaceCount = start;
+                } else if(chunkType == ChunkType.XML_CDATA) {
+                    if(pendingStart >= 0 || depth == 0) {
+                        return false;
+                    }
+                } else {
+                    return false;
+                }
+                reader.seek(position + headerBlock.getChunkSize());
+            }
+            return depth == 0 && pendingStart < 0 && pendingEndNamespace == 0;
+        }
+        private boolean addNamespace(BlockReader reader, int position) throws IOException {
+            int prefixReference = readInteger(reader, position + NODE_HEADER_SIZE);
+            int uriReference = readInteger(reader, position + NODE_HEADER_SIZE + 4);
+            if(StringsUtil.isBlank(getString(prefixReference))
+                    || StringsUtil.isBlank(getString(uriReference))) {
+                return false;
+            }
+            int index = namespaceCount * 3;
+            int[] namespaces = ensureCapacity(this.namespaces, index + 2);
+            this.namespaces = namespaces;
+            namespaces[index] = prefixReference;
+            namespaces[index + 1] = uriReference;
+            namespaces[index + 2] = namespaceIndex;
+            namespaceCount ++;
+            namespaceIndex ++;
+            return true;
+        }
+        private void pushElement(int namespaceStart) {
+            elements = ensureCapacity(elements, depth);
+            elements[depth] = namespaceStart;
+            depth ++;
+        }
+        private boolean scanStartElement(BlockReader reader, int position, int chunkSize) throws IOException {
+            int offset = position + NODE_HEADER_SIZE;
+            markUsed(findNamespace(readInteger(reader, offset)));
+            int attributeStart = readShort(reader, offset + 8);
+            int unitSize = readShort(reader, offset + 10);
+            int count = readShort(reader, offset + 12);
+            if(unitSize == 0) {
+                unitSize = 20;
+            }
+            if(unitSize < 20 || NODE_HEADER_SIZE + attributeStart + unitSize * count > chunkSize) {
+                return false;
+            }
+            offset = position + NODE_HEADER_SIZE + attributeStart;
+            for(int i = 0; i < count; i++) {
+                int uriReference = readInteger(reader, offset);
+                int nameReference = readInteger(reader, offset + 4);
+                if(!scanAttribute(uriReference, nameReference)) {
+                    return false;
+                }
+                offset += unitSize;
+            }
+            return true;
+        }
+        private boolean scanAttribute(int uriReference, int nameReference) {
+            int namespace = findNamespace(uriReference);
+            String prefix = namespace < 0 ? null : getString(namespaces[namespace * 3]);
+            String uri = getHtml(uriReference);
+            int nameId = getResourceId(nameReference);
+            if(nameId == 0) {
+                if(uriReference != -1 && !ResXmlAttribute.isValidNoIdNamespace(uri, prefix)) {
+                    return false;
+                }
+            } else {
+                ResourceEntry nameEntry = tableBlock == null ? null :
+                        tableBlock.getResource(packageBlock, nameId);
+                if(nameEntry != null) {
+                    PackageBlock packageBlock = nameEntry.getPackageBlock();
+                    if(!ResXmlAttribute.isValidNamespace(packageBlock, uri, prefix) &&
+                            !isOnlyMatch(namespace, packageBlock.getUri(), packageBlock.getPrefix())) {
+                        return false;
+                    }
+                }
+            }
+            markUsed(namespace);
+            return true;
+        }
+        // Whether re-assigning the namespace by uri and prefix resolves to the same declaration
+        private boolean isOnlyMatch(int namespace, String uri, String prefix) {
+            if(namespace < 0 || StringsUtil.isEmpty(uri) || StringsUtil.isEmpty(prefix)) {
+                return false;
+            }
+            int[] namespaces = this.namespaces;
+            int count = namespaceCount;
+            for(int i = 0; i < count; i++) {
+                int index = i * 3;
+                if(uri.equals(getString(namespaces[index + 1]))
+                        && prefix.equals(getString(namespaces[index]))) {
+                    if(i != namespace) {
+                        return false;
+                    }
+                } else if(i == namespace) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        private void markUsed(int namespace) {
+            if(namespace >= 0) {
+                usedNamespaces.set(namespaces[namespace * 3 + 2]);
+            }
+        }
+        // Same lookup order as ResXmlStartNamespaceList#getForUriReference
+        private int findNamespace(int uriReference) {
+            if(uriReference == -1) {
+                return -1;
+            }
+            int[] namespaces = this.namespaces;
+            int end = namespaceCount;
+            for(int i = depth - 1; i >= 0; i--) {
+                int start = elements[i];
+                for(int j = start; j < end; j++) {
+                    if(namespaces[j * 3 + 1] == uriReference) {
+                        return j;
+                    }
+                }
+                end = start;
+            }
+            return -1;
+        }
+        private String getString(int reference) {
+            ResXmlString xmlString = getXmlString(reference);
+            return xmlString == null ? null : xmlString.get();
+        }
+        private String getHtml(int reference) {
+            ResXmlString xmlString = getXmlString(reference);
+            return xmlString == null ? null : xmlString.getHtml();
+        }
+        private int getResourceId(int reference) {
+            ResXmlString xmlString = getXmlString(reference);
+            return xmlString == null ? 0 : xmlString.getResourceId();
+        }
+        private ResXmlString getXmlString(int reference) {
+            if(reference < 0) {
+                return null;
+            }
+            return stringPool.get(reference);
+        }
+        private static int readInteger(BlockReader reader, int position) throws IOException {
+            reader.seek(position);
+            return reader.readInteger();
+        }
+        private static int readShort(BlockReader reader, int position) throws IOException {
+            reader.seek(position);
+            return reader.readUnsignedShort();
+        }
+    }
+
+    private static final int NODE_HEADER_SIZE = 16;
+}
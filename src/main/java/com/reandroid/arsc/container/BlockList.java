@@ -33,6 +33,7 @@ import java.util.function.Predicate;
 public class BlockList<T extends Block> extends Block implements BlockRefresh, Swappable {
     private ArrayCollection<T> mItems;
     private Creator<? extends T> mCreator;
+    private int mModCount;
 
     public BlockList(Creator<? extends T> creator){
         super();
@@ -529,16 +530,24 @@ public class BlockList<T extends Block> extends Block implements BlockRefresh, S
     public List<T> getChildes(){
         return mItems;
     }
+    /**
+     * Changes whenever elements are added, removed, replaced or reordered
+     * */
+    public int getModCount(){
+        return mModCount + mItems.getModCount();
+    }
     private void lockList(){
         if(mItems.isImmutableEmpty()){
             return;
         }
+        mModCount += mItems.getModCount() + 1;
         mItems = ArrayCollection.empty();
     }
     private void unlockList(){
         if(!mItems.isImmutableEmpty()){
             return;
         }
+        mModCount ++;
         mItems = new ArrayCollection<>();
         updateCreator();
         mItems.setMonitor(getMonitor());
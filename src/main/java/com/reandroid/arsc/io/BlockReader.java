@@ -40,6 +40,9 @@ public class BlockReader extends InputStream {
     public BlockReader(byte[] buffer) {
         this(buffer, 0, buffer.length);
     }
+    protected BlockReader(int start, int length) {
+        this(null, start, length);
+    }
     public BlockReader(InputStream in) throws IOException {
         this(loadBuffer(in));
     }
@@ -53,18 +56,52 @@ public class BlockReader extends InputStream {
         return 0x0000ffff & readShort();
     }
     public short readShort() throws IOException {
-        int pos = getPosition();
-        byte[] bts = new byte[2];
-        readFully(bts);
-        seek(pos);
-        return toShort(bts);
+        return (short) readLittleEndian(2);
     }
     public int readInteger() throws IOException {
-        int pos = getPosition();
-        byte[] bytes = new byte[4];
-        readFully(bytes);
-        seek(pos);
-        return toInt(bytes);
+        return readLittleEndian(4);
+    }
+    private int readLittleEndian(int size) throws IOException {
+        checkReadable();
+        int available = available();
+        if(size > available){
+            size = available;
+        }
+        int actualPosition = mStart + mPosition;
+        int result = 0;
+        for(int i = 0; i < size; i++){
+            result |= (byteAt(actualPosition + i) & 0xff) << (i * 8);
+        }
+        return result;
+    }
+    /**
+     * Lock guarding the position, sub classes reading at the current position hold it too
+     * */
+    Object getLock(){
+        return mLock;
+    }
+    void checkReadable() throws IOException {
+        if(mIsClosed){
+            throw new IOException("Stream is closed");
+        }
+        if(mPosition >= mLength){
+            throw new EOFException("Finished reading: "+mPosition);
+        }
+    }
+    /**
+     * Returns byte at absolute position of the underlying buffer
+     * */
+    protected byte byteAt(int actualPosition){
+        return BUFFER[actualPosition];
+    }
+    /**
+     * Copies bytes starting at absolute position of the underlying buffer
+     * */
+    protected void copyBytes(int actualPosition, byte[] dest, int destStart, int length){
+        System.arraycopy(BUFFER, actualPosition, dest, destStart, length);
+    }
+    protected BlockReader newReader(int start, int length){
+        return new BlockReader(BUFFER, start, length);
     }
     /**
      * Use SpecHeader#read(BlockReader)
@@ -83,29 +120,19 @@ public class BlockReader extends InputStream {
     public InfoHeader readHeaderBlock() throws IOException {
         return InfoHeader.read(this);
     }
-    private int toInt(byte[] bytes){
-        return bytes[0] & 0xff |
-                (bytes[1] & 0xff) << 8 |
-                (bytes[2] & 0xff) << 16 |
-                (bytes[3] & 0xff) << 24;
-    }
-    private short toShort(byte[] bytes){
-        return (short) (bytes[0] & 0xff |
-                (bytes[1] & 0xff) << 8);
-    }
     public byte[] getBuffer(){
         return BUFFER;
     }
     public byte[] getBytes(){
         int len = length();
-        if(this.BUFFER.length == len){
+        if(this.BUFFER != null && this.BUFFER.length == len){
             return BUFFER;
         }
         byte[] bytes = new byte[len];
         if(len==0){
             return bytes;
         }
-        System.arraycopy(BUFFER, mStart, bytes, 0, len);
+        copyBytes(mStart, bytes, 0, len);
         return bytes;
     }
     public BlockReader create(int len){
@@ -117,7 +144,7 @@ public class BlockReader extends InputStream {
             len = this.mLength - start;
         }
         start = start + this.mStart;
-        return new BlockReader(BUFFER, start, len);
+        return newReader(start, len);
     }
     public boolean isAvailable(){
         if(mIsClosed){
@@ -174,27 +201,18 @@ public class BlockReader extends InputStream {
         if(length == 0){
             return 0;
         }
-        if(mIsClosed){
-            throw new IOException("Stream is closed");
-        }
-        if(mPosition >= mLength){
-            throw new EOFException("Finished reading: "+mPosition);
-        }
+        checkReadable();
         if(length > bytes.length){
             length = bytes.length;
         }
         synchronized (mLock){
-            int actualPosition = mStart + mPosition;
-            int i;
-            for(i = 0; i < length; i++){
-                bytes[start + i] = BUFFER[actualPosition + i];
-                mPosition ++;
-                if(mPosition >= mLength){
-                    i++;
-                    break;
-                }
+            int available = mLength - mPosition;
+            if(length > available){
+                length = available;
             }
-            return i;
+            copyBytes(mStart + mPosition, bytes, start, length);
+            mPosition += length;
+            return length;
         }
     }
     public int getPosition(){
@@ -205,16 +223,9 @@ public class BlockReader extends InputStream {
     }
     @Override
     public int read() throws IOException {
-        if(mIsClosed){
-            throw new IOException("Stream is closed");
-        }
-        int i = mPosition;
-        if(i >= mLength){
-            throw new EOFException("Finished reading: "+i);
-        }
+        checkReadable();
         synchronized (mLock){
-            int actPos = mStart + i;
-            int val = BUFFER[actPos] & 0xff;
+            int val = byteAt(mStart + mPosition) & 0xff;
             mPosition ++;
             return val;
         }
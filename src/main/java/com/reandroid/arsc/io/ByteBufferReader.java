@@ -0,0 +1,120 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.arsc.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * BlockReader over heap, direct or memory mapped {@link ByteBuffer}, the content is never
+ * copied in to a byte array and sub readers created by {@link #create(int, int)} share the
+ * same buffer.
+ * */
+public class ByteBufferReader extends BlockReader {
+
+    private ByteBuffer buffer;
+
+    public ByteBufferReader(ByteBuffer buffer) {
+        this(toLittleEndian(buffer), buffer.position(), buffer.remaining());
+    }
+    private ByteBufferReader(ByteBuffer buffer, int start, int length) {
+        super(start, length);
+        this.buffer = buffer;
+    }
+
+    public ByteBuffer getByteBuffer() {
+        return buffer;
+    }
+    @Override
+    public short readShort() throws IOException {
+        synchronized (getLock()) {
+            if(available() < 2) {
+                return super.readShort();
+            }
+            checkReadable();
+            return buffer.getShort(getActualPosition());
+        }
+    }
+    @Override
+    public int readInteger() throws IOException {
+        synchronized (getLock()) {
+            if(available() < 4) {
+                return super.readInteger();
+            }
+            checkReadable();
+            return buffer.getInt(getActualPosition());
+        }
+    }
+    @Override
+    protected byte byteAt(int actualPosition) {
+        return buffer.get(actualPosition);
+    }
+    @Override
+    protected void copyBytes(int actualPosition, byte[] dest, int destStart, int length) {
+        ByteBuffer buffer = this.buffer;
+        if(buffer.hasArray()) {
+            System.arraycopy(buffer.array(), buffer.arrayOffset() + actualPosition,
+                    dest, destStart, length);
+            return;
+        }
+        Buffer view = buffer.duplicate();
+        view.position(actualPosition);
+        ((ByteBuffer) view).get(dest, destStart, length);
+    }
+    @Override
+    protected BlockReader newReader(int start, int length) {
+        return new ByteBufferReader(buffer, start, length);
+    }
+    /**
+     * There is no backing array to share, returns a copy of this reader's content
+     * */
+    @Override
+    public byte[] getBuffer() {
+        return getBytes();
+    }
+    @Override
+    public void close() {
+        synchronized (getLock()) {
+            super.close();
+            this.buffer = null;
+        }
+    }
+
+    /**
+     * Maps the whole file read-only, the mapping stays valid after the
+     * underlying channel is closed.
+     * */
+    public static ByteBufferReader map(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if(size > Integer.MAX_VALUE) {
+                throw new IOException("File too large to map: " + file + ", size = " + size);
+            }
+            return new ByteBufferReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        } finally {
+            channel.close();
+        }
+    }
+    private static ByteBuffer toLittleEndian(ByteBuffer buffer) {
+        return buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
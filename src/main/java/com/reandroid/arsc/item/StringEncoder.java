@@ -0,0 +1,243 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.arsc.item;
+
+import com.reandroid.arsc.array.StringArray;
+
+/**
+ * Encodes string pool entries (length prefix + body + null terminator) directly
+ * into a single growing buffer. Each encoded entry length is computed up front,
+ * so per string encoding needs no intermediate arrays; a new byte array is
+ * materialized only when the result differs from the bytes the item already holds.
+ * */
+public class StringEncoder {
+
+    private byte[] buffer;
+
+    public StringEncoder() {
+        this.buffer = EMPTY;
+    }
+
+    /**
+     * Re-encodes every item of the given array in the requested encoding,
+     * reusing this encoder's buffer across all strings.
+     * Returns the number of items whose bytes have changed.
+     * */
+    public int encodeAll(StringArray<?> stringArray, boolean utf8) {
+        int size = stringArray.size();
+        int changed = 0;
+        for(int i = 0; i < size; i++) {
+            StringItem item = stringArray.get(i);
+            if(item != null && encode(item, utf8)) {
+                changed ++;
+            }
+        }
+        return changed;
+    }
+    public boolean encode(StringItem item, boolean utf8) {
+        String text = item.get();
+        item.setUtf8Internal(utf8);
+        if(item.getBytesLength() == 0 || text == null) {
+            return false;
+        }
+        int length = encodeToBuffer(text, utf8);
+        if(length < 0) {
+            return false;
+        }
+        byte[] current = item.getBytesInternal();
+        if(isEqual(current, this.buffer, length)) {
+            return false;
+        }
+        byte[] bytes = new byte[length];
+        System.arraycopy(this.buffer, 0, bytes, 0, length);
+        item.setBytesInternal(bytes, false);
+        return true;
+    }
+    private int encodeToBuffer(String text, boolean utf8) {
+        int length = encodedLength(text, utf8);
+        if(length < 0) {
+            return length;
+        }
+        byte[] buffer = ensureCapacity(length);
+        if(utf8) {
+            writeUtf8(text, buffer, length);
+        }else {
+            writeUtf16(text, buffer);
+        }
+        return length;
+    }
+    private byte[] ensureCapacity(int length) {
+        byte[] buffer = this.buffer;
+        if(buffer.length < length) {
+            int capacity = buffer.length << 1;
+            if(capacity < length) {
+                capacity = length;
+            }
+            if(capacity < 256) {
+                capacity = 256;
+            }
+            buffer = new byte[capacity];
+            this.buffer = buffer;
+        }
+        return buffer;
+    }
+
+    public static byte[] encode(String text, boolean utf8) {
+        int length = encodedLength(text, utf8);
+        if(length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        if(utf8) {
+            writeUtf8(text, bytes, length);
+        }else {
+            writeUtf16(text, bytes);
+        }
+        return bytes;
+    }
+    /**
+     * Returns total encoded length including length prefix and null terminator,
+     * or -1 for null utf16 string
+     * */
+    public static int encodedLength(String text, boolean utf8) {
+        if(utf8) {
+            if(text == null) {
+                return 3;
+            }
+            int bytesLength = utf8Length(text);
+            int prefix = bytesLength >= 0x80 ? 4 : 2;
+            return prefix + bytesLength + 1;
+        }
+        if(text == null) {
+            return -1;
+        }
+        int charsLength = text.length();
+        int prefix = (charsLength & 0xffff8000) != 0 ? 4 : 2;
+        return prefix + charsLength * 2 + 2;
+    }
+    /**
+     * Computes the same length as text.getBytes(StandardCharsets.UTF_8).length
+     * without encoding, unpaired surrogates are counted as a single '?' byte
+     * */
+    public static int utf8Length(String text) {
+        int length = text.length();
+        int result = 0;
+        for(int i = 0; i < length; i++) {
+            char ch = text.charAt(i);
+            if(ch < 0x80) {
+                result ++;
+            }else if(ch < 0x800) {
+                result += 2;
+            }else if(Character.isHighSurrogate(ch) && i + 1 < length
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                result += 4;
+                i ++;
+            }else if(Character.isSurrogate(ch)) {
+                result ++;
+            }else {
+                result += 3;
+            }
+        }
+        return result;
+    }
+    private static void writeUtf8(String text, byte[] bytes, int length) {
+        if(text == null) {
+            bytes[0] = 0;
+            bytes[1] = 0;
+            bytes[2] = 0;
+            return;
+        }
+        int charsLength = text.length();
+        int position = 0;
+        int bytesLength = length - 3;
+        if(bytesLength < 0x80) {
+            bytes[position++] = (byte) charsLength;
+            bytes[position++] = (byte) bytesLength;
+        }else {
+            bytesLength = length - 5;
+            bytes[position++] = (byte) ((charsLength >> 8) | 0x80);
+            bytes[position++] = (byte) (charsLength & 0xff);
+            bytes[position++] = (byte) ((bytesLength >> 8) | 0x80);
+            bytes[position++] = (byte) (bytesLength & 0xff);
+        }
+        for(int i = 0; i < charsLength; i++) {
+            char ch = text.charAt(i);
+            if(ch < 0x80) {
+                bytes[position++] = (byte) ch;
+            }else if(ch < 0x800) {
+                bytes[position++] = (byte) (0xc0 | (ch >> 6));
+                bytes[position++] = (byte) (0x80 | (ch & 0x3f));
+            }else if(Character.isHighSurrogate(ch) && i + 1 < charsLength
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(ch, text.charAt(i + 1));
+                i ++;
+                bytes[position++] = (byte) (0xf0 | (codePoint >> 18));
+                bytes[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                bytes[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                bytes[position++] = (byte) (0x80 | (codePoint & 0x3f));
+            }else if(Character.isSurrogate(ch)) {
+                bytes[position++] = (byte) '?';
+            }else {
+                bytes[position++] = (byte) (0xe0 | (ch >> 12));
+                bytes[position++] = (byte) (0x80 | ((ch >> 6) & 0x3f));
+                bytes[position++] = (byte) (0x80 | (ch & 0x3f));
+            }
+        }
+        bytes[position] = 0;
+    }
+    private static void writeUtf16(String text, byte[] bytes) {
+        int charsLength = text.length();
+        int position = 0;
+        if((charsLength & 0xffff8000) != 0) {
+            int high = (charsLength >>> 16) | 0x8000;
+            bytes[position++] = (byte) (high & 0xff);
+            bytes[position++] = (byte) (high >> 8);
+        }
+        bytes[position++] = (byte) (charsLength & 0xff);
+        bytes[position++] = (byte) ((charsLength >> 8) & 0xff);
+        for(int i = 0; i < charsLength; i++) {
+            char ch = text.charAt(i);
+            if(Character.isSurrogate(ch)) {
+                if(Character.isHighSurrogate(ch) && i + 1 < charsLength
+                        && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    bytes[position++] = (byte) (ch & 0xff);
+                    bytes[position++] = (byte) (ch >> 8);
+                    ch = text.charAt(++i);
+                }else {
+                    ch = REPLACEMENT_CHAR;
+                }
+            }
+            bytes[position++] = (byte) (ch & 0xff);
+            bytes[position++] = (byte) (ch >> 8);
+        }
+        bytes[position++] = 0;
+        bytes[position] = 0;
+    }
+    private static boolean isEqual(byte[] bytes, byte[] buffer, int length) {
+        if(bytes.length != length) {
+            return false;
+        }
+        for(int i = 0; i < length; i++) {
+            if(bytes[i] != buffer[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final char REPLACEMENT_CHAR = '\uFFFD';
+    private static final byte[] EMPTY = new byte[0];
+}
@@ -83,10 +83,17 @@ public class StringItem extends StringBlock implements JSONConvert<JSONObject>,
     }
 
     public boolean removeReference(ReferenceItem ref){
-        return mReferencedList.remove(ref);
+        if(mReferencedList.remove(ref)){
+            onReferencesChanged();
+            return true;
+        }
+        return false;
     }
     public void removeAllReference(){
-        mReferencedList.clear();
+        if(!mReferencedList.isEmpty()){
+            mReferencedList.clear();
+            onReferencesChanged();
+        }
     }
     public boolean hasReference(){
         ensureStringLinkUnlocked();
@@ -111,24 +118,33 @@ public class StringItem extends StringBlock implements JSONConvert<JSONObject>,
         }
     }
     public void addReference(ReferenceItem ref){
-        if(ref!=null){
-            mReferencedList.add(ref);
+        if(ref!=null && mReferencedList.add(ref)){
+            onReferencesChanged();
         }
     }
     public void addReferenceIfAbsent(ReferenceItem ref){
-        if(ref!=null){
-            mReferencedList.add(ref);
-        }
+        addReference(ref);
     }
     public void addReference(Collection<ReferenceItem> refList){
         if(refList == null){
             return;
         }
+        boolean changed = false;
         for(ReferenceItem ref:refList){
-            if(ref != null){
-                this.mReferencedList.add(ref);
+            if(ref != null && this.mReferencedList.add(ref)){
+                changed = true;
             }
         }
+        if(changed){
+            onReferencesChanged();
+        }
+    }
+    @SuppressWarnings("unchecked")
+    private void onReferencesChanged(){
+        StringPool<StringItem> stringPool = getParentInstance(StringPool.class);
+        if(stringPool != null) {
+            stringPool.onReferencesChanged(this);
+        }
     }
     private void reUpdateReferences(int newIndex){
         ReferenceItem[] referenceItems = mReferencedList.toArray(new ReferenceItem[0]);
@@ -252,6 +268,9 @@ public class StringItem extends StringBlock implements JSONConvert<JSONObject>,
         mUtf8 = utf8;
         onBytesChanged();
     }
+    void setUtf8Internal(boolean utf8){
+        mUtf8 = utf8;
+    }
     @Override
     public void onReadBytes(BlockReader reader) throws IOException {
         if(reader.available() < 4){
@@ -283,11 +302,7 @@ public class StringItem extends StringBlock implements JSONConvert<JSONObject>,
     }
     @Override
     protected byte[] encodeString(String str){
-        if(mUtf8){
-            return encodeUtf8ToBytes(str);
-        }else {
-            return encodeUtf16ToBytes(str);
-        }
+        return StringEncoder.encode(str, mUtf8);
     }
     private String decodeString(byte[] allStringBytes, boolean isUtf8) {
         if(isNullBytes(allStringBytes)){
@@ -304,9 +319,9 @@ public class StringItem extends StringBlock implements JSONConvert<JSONObject>,
         }
         CharsetDecoder charsetDecoder;
         if(isUtf8){
-            charsetDecoder=UTF8_DECODER;
+            charsetDecoder=UTF8_DECODERS.get();
         }else {
-            charsetDecoder=UTF16LE_DECODER;
+            charsetDecoder=UTF16LE_DECODERS.get();
         }
         try {
             ByteBuffer buf=ByteBuffer.wrap(allStringBytes, offLen[0], offLen[1]);
@@ -322,7 +337,7 @@ public class StringItem extends StringBlock implements JSONConvert<JSONObject>,
     private String tryThreeByteDecoder(byte[] bytes, int offset, int length){
         try {
             ByteBuffer byteBuffer = ByteBuffer.wrap(bytes, offset, length);
-            CharBuffer charBuffer = DECODER_3B.decode(byteBuffer);
+            CharBuffer charBuffer = DECODERS_3B.get().decode(byteBuffer);
             return charBuffer.toString();
         } catch (CharacterCodingException e) {
             return new String(bytes, offset, length, StandardCharsets.UTF_8);
@@ -515,95 +530,17 @@ public class StringItem extends StringBlock implements JSONConvert<JSONObject>,
         }
         return true;
     }
-
-
-    private static byte[] encodeUtf8ToBytes(String str){
-        byte[] bts;
-        byte[] lenBytes=new byte[2];
-        if(str!=null){
-            bts=str.getBytes(StandardCharsets.UTF_8);
-            int strLen=bts.length;
-            if((strLen & 0xff80)!=0){
-                lenBytes=new byte[4];
-                int l2=strLen&0xff;
-                int l1=(strLen-l2)>>8;
-                lenBytes[3]=(byte) (l2);
-                lenBytes[2]=(byte) (l1|0x80);
-                strLen=str.length();
-                l2=strLen&0xff;
-                l1=(strLen-l2)>>8;
-                lenBytes[1]=(byte) (l2);
-                lenBytes[0]=(byte) (l1|0x80);
-            }else{
-                lenBytes=new ShortItem((short) strLen).getBytesInternal();
-                lenBytes[1]=lenBytes[0];
-                lenBytes[0]=(byte)str.length();
-            }
-        }else {
-            bts=new byte[0];
-        }
-        return addBytes(lenBytes, bts, new byte[1]);
-    }
-    private static byte[] encodeUtf16ToBytes(String str){
-        if(str==null){
-            return null;
-        }
-        byte[] lenBytes;
-        byte[] bts=getUtf16Bytes(str);
-        int strLen=bts.length;
-        strLen=strLen/2;
-        if((strLen & 0xffff8000)!=0){
-            lenBytes=new byte[4];
-            int low=strLen&0xff;
-            int high=(strLen-low)&0xff00;
-            int rem=strLen-low-high;
-            lenBytes[3]=(byte) (high>>8);
-            lenBytes[2]=(byte) (low);
-            low=rem&0xff;
-            high=(rem&0xff00)>>8;
-            lenBytes[1]=(byte) (high|0x80);
-            lenBytes[0]=(byte) (low);
-        }else{
-            lenBytes=new ShortItem((short) strLen).getBytesInternal();
-        }
-        return addBytes(lenBytes, bts, new byte[2]);
-    }
     static byte[] getUtf16Bytes(String str){
         return str.getBytes(StandardCharsets.UTF_16LE);
     }
 
-    private static byte[] addBytes(byte[] bts1, byte[] bts2, byte[] bts3){
-        if(bts1==null && bts2==null && bts3==null){
-            return null;
-        }
-        int len=0;
-        if(bts1!=null){
-            len=bts1.length;
-        }
-        if(bts2!=null){
-            len+=bts2.length;
-        }
-        if(bts3!=null){
-            len+=bts3.length;
-        }
-        byte[] result=new byte[len];
-        int start=0;
-        if(bts1!=null){
-            start=bts1.length;
-            System.arraycopy(bts1, 0, result, 0, start);
-        }
-        if(bts2!=null){
-            System.arraycopy(bts2, 0, result, start, bts2.length);
-            start+=bts2.length;
-        }
-        if(bts3!=null){
-            System.arraycopy(bts3, 0, result, start, bts3.length);
-        }
-        return result;
-    }
-
-    private static final CharsetDecoder UTF16LE_DECODER = StandardCharsets.UTF_16LE.newDecoder();
-    private static final CharsetDecoder DECODER_3B = ThreeByteCharsetDecoder.INSTANCE;
+    // Decoders are stateful, keep one per thread so that independent pools can be loaded concurrently
+    private static final ThreadLocal<CharsetDecoder> UTF8_DECODERS =
+            ThreadLocal.withInitial(StandardCharsets.UTF_8::newDecoder);
+    private static final ThreadLocal<CharsetDecoder> UTF16LE_DECODERS =
+            ThreadLocal.withInitial(StandardCharsets.UTF_16LE::newDecoder);
+    private static final ThreadLocal<CharsetDecoder> DECODERS_3B =
+            ThreadLocal.withInitial(ThreeByteCharsetDecoder::new);
 
     public static final String NAME_string = ObjectsUtil.of("string");
     public static final String NAME_style = ObjectsUtil.of("style");
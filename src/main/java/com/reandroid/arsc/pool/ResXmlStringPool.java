@@ -39,6 +39,10 @@ public class ResXmlStringPool extends StringPool<ResXmlString> {
         return new ResXmlStringArray(offsets, itemCount, itemStart, is_utf8);
     }
 
+    @Override
+    boolean isHashMergeSupported(){
+        return false;
+    }
     @Override
     public ResXmlString getOrCreate(String str){
         return getOrCreate(0, str);
@@ -0,0 +1,197 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.arsc.pool;
+
+import com.reandroid.arsc.array.StringArray;
+import com.reandroid.arsc.item.StringItem;
+import com.reandroid.arsc.item.StyleItem;
+import com.reandroid.arsc.item.StyleSpan;
+
+/**
+ * Open addressing index of string pool items keyed by string content and style spans.
+ * When both pools share the same encoding, raw encoded bytes are hashed and compared
+ * directly, so lookups never decode or build xml strings.
+ * */
+class StringHashIndex<T extends StringItem> {
+
+    private final StringArray<T> stringArray;
+    private final boolean rawBytes;
+    private int[] slots;
+    private int[] hashes;
+    private int count;
+
+    StringHashIndex(StringArray<T> stringArray, boolean rawBytes, int expectedSize) {
+        this.stringArray = stringArray;
+        this.rawBytes = rawBytes;
+        int capacity = tableSizeFor(expectedSize);
+        this.slots = new int[capacity];
+        this.hashes = new int[capacity];
+    }
+
+    void addAll() {
+        StringArray<T> stringArray = this.stringArray;
+        int size = stringArray.size();
+        for(int i = 0; i < size; i++) {
+            T item = stringArray.get(i);
+            if(item != null && !item.isNull()) {
+                add(item, hashOf(item));
+            }
+        }
+    }
+    void add(T item, int hash) {
+        if((count + 1) * 4 > slots.length * 3) {
+            resize();
+        }
+        insert(item.getIndex(), hash);
+        count ++;
+    }
+    T find(StringItem item, int hash) {
+        int[] slots = this.slots;
+        int[] hashes = this.hashes;
+        int mask = slots.length - 1;
+        int i = hash & mask;
+        int slot;
+        while ((slot = slots[i]) != 0) {
+            if(hashes[i] == hash) {
+                T exist = stringArray.get(slot - 1);
+                if(exist != null && isEqual(exist, item)) {
+                    return exist;
+                }
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+    int hashOf(StringItem item) {
+        int hash;
+        if(rawBytes) {
+            hash = 1;
+            byte[] bytes = item.getBytes();
+            if(bytes != null) {
+                for(byte b : bytes) {
+                    hash = 31 * hash + b;
+                }
+            }
+        }else {
+            String text = item.get();
+            hash = text != null ? text.hashCode() : 0;
+        }
+        StyleItem styleItem = item.getStyle();
+        if(styleItem != null) {
+            int size = styleItem.size();
+            for(int i = 0; i < size; i++) {
+                StyleSpan span = styleItem.get(i);
+                String tag = span.getString();
+                hash = 31 * hash + (tag != null ? tag.hashCode() : 0);
+                hash = 31 * hash + span.getFirstChar();
+                hash = 31 * hash + span.getLastChar();
+            }
+        }
+        return mix(hash);
+    }
+    private boolean isEqual(StringItem item1, StringItem item2) {
+        return isEqual(item1, item2, rawBytes);
+    }
+    static boolean isEqual(StringItem item1, StringItem item2, boolean rawBytes) {
+        if(rawBytes) {
+            if(!isEqual(item1.getBytes(), item2.getBytes())) {
+                return false;
+            }
+        }else if(!equalsText(item1.get(), item2.get())) {
+            return false;
+        }
+        return isEqual(item1.getStyle(), item2.getStyle());
+    }
+    private void insert(int index, int hash) {
+        int[] slots = this.slots;
+        int mask = slots.length - 1;
+        int i = hash & mask;
+        while (slots[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        slots[i] = index + 1;
+        hashes[i] = hash;
+    }
+    private void resize() {
+        int[] oldSlots = this.slots;
+        int[] oldHashes = this.hashes;
+        int length = oldSlots.length;
+        this.slots = new int[length << 1];
+        this.hashes = new int[length << 1];
+        for(int i = 0; i < length; i++) {
+            int slot = oldSlots[i];
+            if(slot != 0) {
+                insert(slot - 1, oldHashes[i]);
+            }
+        }
+    }
+
+    private static boolean isEqual(StyleItem style1, StyleItem style2) {
+        int size1 = style1 != null ? style1.size() : 0;
+        int size2 = style2 != null ? style2.size() : 0;
+        if(size1 != size2) {
+            return false;
+        }
+        for(int i = 0; i < size1; i++) {
+            StyleSpan span1 = style1.get(i);
+            StyleSpan span2 = style2.get(i);
+            if(span1.getFirstChar() != span2.getFirstChar()
+                    || span1.getLastChar() != span2.getLastChar()
+                    || !equalsText(span1.getString(), span2.getString())) {
+                return false;
+            }
+        }
+        return true;
+    }
+    private static boolean isEqual(byte[] bytes1, byte[] bytes2) {
+        if(bytes1 == bytes2) {
+            return true;
+        }
+        if(bytes1 == null || bytes2 == null) {
+            return false;
+        }
+        int length = bytes1.length;
+        if(length != bytes2.length) {
+            return false;
+        }
+        for(int i = 0; i < length; i++) {
+            if(bytes1[i] != bytes2[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    private static boolean equalsText(String text1, String text2) {
+        if(text1 == null) {
+            return text2 == null;
+        }
+        return text1.equals(text2);
+    }
+    private static int mix(int hash) {
+        hash ^= (hash >>> 16);
+        hash *= 0x85ebca6b;
+        hash ^= (hash >>> 13);
+        return hash;
+    }
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = 16;
+        int required = expectedSize + (expectedSize / 3) + 1;
+        while (capacity < required) {
+            capacity = capacity << 1;
+        }
+        return capacity;
+    }
+}
@@ -53,6 +53,12 @@ public abstract class StringPool<T extends StringItem> extends Chunk<StringPoolH
 
     private final MultiMap<String, T> poolMap;
     private boolean stringLinkLocked;
+    private StringEncoder mStringEncoder;
+    private StringPool<?> mMergeSource;
+    private int[] mMergeIndexMap;
+    private int mMergeSourceModCount;
+    private int mMergeModCount;
+    private int modCount;
 
     StringPool(boolean is_utf8, boolean stringLinkLocked){
         super(new StringPoolHeader(), 4);
@@ -111,9 +117,11 @@ public abstract class StringPool<T extends StringItem> extends Chunk<StringPoolH
         return size() == 0;
     }
     public void clear(){
+        clearMergeIndexMap();
         getStyleArray().clear();
         getStringsArray().clear();
         poolMap.clear();
+        modCount ++;
     }
     /**
      * Use clear()
@@ -123,6 +131,7 @@ public abstract class StringPool<T extends StringItem> extends Chunk<StringPoolH
         clear();
     }
     public void sort(){
+        clearMergeIndexMap();
         ensureStringLinkUnlockedInternal();
         getStringsArray().sort();
     }
@@ -161,6 +170,7 @@ public abstract class StringPool<T extends StringItem> extends Chunk<StringPoolH
         }
     }
     public void removeString(T item){
+        clearMergeIndexMap();
         getStringsArray().remove(item);
     }
     public Iterator<String> getStrings() {
@@ -180,6 +190,7 @@ public abstract class StringPool<T extends StringItem> extends Chunk<StringPoolH
             poolMap.setInitialSize(size());
             poolMap.putAll(StringItem::getXml, iterator());
         }
+        modCount ++;
     }
     public void compressDuplicates(){
         ensureStringLinkUnlockedInternal();
@@ -192,6 +203,7 @@ public abstract class StringPool<T extends StringItem> extends Chunk<StringPoolH
         });
     }
     public boolean removeUnusedStrings(){
+        clearMergeIndexMap();
         return getStringsArray().removeIf(getUnusedStringsFilter());
     }
     public List<T> listUnusedStrings(){
@@ -224,11 +236,23 @@ public abstract class StringPool<T extends StringItem> extends Chunk<StringPoolH
         if(!stringLinkLocked){
             poolMap.updateKey(old, stringItem.getXml(), stringItem);
         }
+        modCount ++;
     }
     public void onStringRemoved(T stringItem) {
         if(!stringLinkLocked) {
             poolMap.remove(stringItem.getXml(), stringItem);
         }
+        modCount ++;
+    }
+    public void onReferencesChanged(T stringItem) {
+        modCount ++;
+    }
+    /**
+     * Incremented whenever a string value, a string's references or the pool content changes,
+     * used to validate lookups cached outside of this pool.
+     * */
+    public int getModCount() {
+        return modCount;
     }
     public final T getLast(){
         return mArrayStrings.getLast();
@@ -341,8 +365,26 @@ public abstract class StringPool<T extends StringItem> extends Chunk<StringPoolH
         getHeaderBlock().setSorted(sorted);
     }
 
+    public StringEncoder getStringEncoder(){
+        StringEncoder encoder = this.mStringEncoder;
+        if(encoder == null){
+            encoder = new StringEncoder();
+            this.mStringEncoder = encoder;
+        }
+        return encoder;
+    }
+
     abstract StringArray<T> newInstance(OffsetArray offsets, IntegerItem itemCount, IntegerItem itemStart, boolean is_utf8);
     @Override
+    protected void onPreRefresh() {
+        super.onPreRefresh();
+        clearMergeIndexMap();
+        boolean utf8 = isUtf8();
+        if(utf8 != mArrayStrings.isUtf8()){
+            mArrayStrings.setUtf8(utf8);
+        }
+    }
+    @Override
     protected void onChunkRefreshed() {
         mArrayStrings.refreshCountAndStart();
         mArrayStyles.refreshCountAndStart();
@@ -394,10 +436,95 @@ public abstract class StringPool<T extends StringItem> extends Chunk<StringPoolH
             return;
         }
         ensureStringLinkUnlockedInternal();
-        for (T stringItem : stringPool) {
-            if(!containsInternal(stringItem)) {
-                createNewString().merge(stringItem);
+        if(!isHashMergeSupported()){
+            for (T stringItem : stringPool) {
+                if(!containsInternal(stringItem)) {
+                    createNewString().merge(stringItem);
+                }
+            }
+            return;
+        }
+        mergeAll(stringPool);
+    }
+    /**
+     * Merges all strings of the given pool in a single pass, strings equal by content
+     * and style spans are shared. The resulting source to destination index table is kept
+     * until the next structural change of this pool, see {@link #getMerged(StringItem)}
+     * */
+    private void mergeAll(StringPool<T> stringPool){
+        StringArray<T> stringsArray = getStringsArray();
+        StringArray<T> sourceArray = stringPool.getStringsArray();
+        int sourceSize = sourceArray.size();
+        StringHashIndex<T> hashIndex = new StringHashIndex<>(stringsArray,
+                isUtf8() == stringPool.isUtf8(), size() + sourceSize);
+        hashIndex.addAll();
+        int[] indexMap = new int[sourceSize];
+        for(int i = 0; i < sourceSize; i++){
+            T source = sourceArray.get(i);
+            if(source == null || source.isNull()){
+                indexMap[i] = -1;
+                continue;
+            }
+            int hash = hashIndex.hashOf(source);
+            T item = hashIndex.find(source, hash);
+            if(item == null){
+                item = createNewString();
+                item.merge(source);
+                hashIndex.add(item, hash);
+            }
+            indexMap[i] = item.getIndex();
+        }
+        this.mMergeSource = stringPool;
+        this.mMergeIndexMap = indexMap;
+        this.mMergeSourceModCount = mergeModCountOf(stringPool);
+        this.mMergeModCount = mergeModCountOf(this);
+    }
+    /**
+     * Returns the string of this pool the given source string was merged into by the
+     * latest {@link #merge(StringPool)}, or null if not available. Once either pool is
+     * modified after the merge, the mapped string is returned only if it is still equal
+     * to the source string.
+     * */
+    public T getMerged(StringItem sourceItem){
+        int[] indexMap = this.mMergeIndexMap;
+        if(indexMap == null || sourceItem == null){
+            return null;
+        }
+        StringPool<?> source = this.mMergeSource;
+        if(sourceItem.getParentInstance(StringPool.class) != source){
+            return null;
+        }
+        int index = sourceItem.getIndex();
+        if(index < 0 || index >= indexMap.length){
+            return null;
+        }
+        index = indexMap[index];
+        if(index < 0 || index >= size()){
+            return null;
+        }
+        T item = get(index);
+        if(item == null){
+            return null;
+        }
+        if(mergeModCountOf(source) != mMergeSourceModCount
+                || mergeModCountOf(this) != mMergeModCount){
+            if(!StringHashIndex.isEqual(item, sourceItem, isUtf8() == source.isUtf8())){
+                return null;
             }
         }
+        return item;
+    }
+    /**
+     * Releases the index table (and the reference to the source pool) of the latest merge
+     * */
+    public void clearMergeIndexMap(){
+        this.mMergeSource = null;
+        this.mMergeIndexMap = null;
+    }
+    private static int mergeModCountOf(StringPool<?> stringPool){
+        return stringPool.getModCount() + stringPool.getStringsArray().getModCount();
+    }
+    boolean isHashMergeSupported(){
+        return true;
     }
 }
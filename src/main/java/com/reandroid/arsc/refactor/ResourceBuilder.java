@@ -33,8 +33,10 @@ import com.reandroid.arsc.value.ResConfig;
 import com.reandroid.utils.CompareUtil;
 import com.reandroid.utils.collection.ArrayCollection;
 import com.reandroid.utils.collection.FilterIterator;
+import com.reandroid.utils.collection.IntIntMap;
 
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.Predicate;
 
 public class ResourceBuilder {
@@ -42,13 +44,13 @@ public class ResourceBuilder {
     private ResourceMergeOption mMergeOption;
     private final TableBlock sourceTable;
     private ApkModule resultModule;
-    private final Map<Integer, Integer> resourceIdMap;
+    private final IntIntMap resourceIdMap;
     private boolean mRebuilt;
 
     public ResourceBuilder(ResourceMergeOption mergeOption, TableBlock sourceTable) {
         this.mMergeOption = mergeOption;
         this.sourceTable = sourceTable;
-        this.resourceIdMap = new HashMap<>();
+        this.resourceIdMap = new IntIntMap();
     }
     public ResourceBuilder(TableBlock sourceTable) {
         this(new ResourceMergeOption(), sourceTable);
@@ -76,19 +78,70 @@ public class ResourceBuilder {
 
     public int applyIdChanges(Iterator<IntegerReference> iterator) {
         int count = 0;
-        Map<Integer, Integer> idMap = getResourceIdMap();
+        IntIntMap idMap = this.resourceIdMap;
+        if(idMap.isEmpty()) {
+            return 0;
+        }
         while (iterator.hasNext()){
             IntegerReference reference = iterator.next();
-            Integer value = idMap.get(reference.get());
-            if(value != null) {
+            // zero is never mapped, see addIdMap
+            int value = idMap.get(reference.get(), 0);
+            if(value != 0) {
                 reference.set(value);
                 count ++;
             }
         }
         return count;
     }
+    /**
+     * Rewrites each source concurrently against the (read only) id map, sources must not
+     * share references e.g. one per dex module, xml document or type block.
+     * Returns number of changed references of each source in the same order as given.
+     * */
+    public int[] applyIdChanges(List<? extends Iterator<IntegerReference>> sources, int threads) {
+        int size = sources.size();
+        int[] results = new int[size];
+        threads = Math.min(threads, size);
+        if(threads <= 1) {
+            for(int i = 0; i < size; i++) {
+                results[i] = applyIdChanges(sources.get(i));
+            }
+            return results;
+        }
+        List<Callable<Integer>> taskList = new ArrayList<>(size);
+        for(Iterator<IntegerReference> iterator : sources) {
+            taskList.add(() -> applyIdChanges(iterator));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> futureList = executor.invokeAll(taskList);
+            for(int i = 0; i < size; i++) {
+                results[i] = futureList.get(i).get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if(cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+    /**
+     * Returns a copy of source to result resource id mapping
+     * */
     public Map<Integer, Integer> getResourceIdMap() {
-        return resourceIdMap;
+        IntIntMap idMap = this.resourceIdMap;
+        Map<Integer, Integer> results = new HashMap<>(idMap.size());
+        for(int id : idMap.keys()) {
+            results.put(id, idMap.get(id, 0));
+        }
+        return results;
     }
     private void addIdMap(int search, int replace){
         if(search == replace ||
@@ -251,7 +251,22 @@ public class ValueHeader extends BlockItem implements JSONConvert<JSONObject> {
         setComplex(valueHeader.isComplex());
         setWeak(valueHeader.isWeak());
         setPublic(valueHeader.isPublic());
-        setName(valueHeader.getName());
+        StringItem merged = getMergedKey(valueHeader.getNameString());
+        if(merged != null){
+            setKey(merged);
+        }else {
+            setName(valueHeader.getName());
+        }
+    }
+    private StringItem getMergedKey(StringItem source){
+        if(source == null){
+            return null;
+        }
+        StringPool<?> stringPool = getSpecStringPool();
+        if(stringPool == null){
+            return null;
+        }
+        return stringPool.getMerged(source);
     }
     public void mergeWithName(ResourceMergeOption mergeOption, ValueHeader valueHeader){
         this.merge(valueHeader);
@@ -374,7 +374,11 @@ public abstract class ValueItem extends BlockItem implements Value,
         ValueType coming = valueItem.getValueType();
         if(coming == ValueType.STRING) {
             StringItem stringItem = valueItem.getDataAsPoolString();
-            if(stringItem != null) {
+            StringItem merged = getMergedString(stringItem);
+            if(merged != null) {
+                setData(merged.getIndex());
+                setValueType(ValueType.STRING);
+            }else if(stringItem != null) {
                 StyleDocument document = stringItem.getStyleDocument();
                 if(document != null) {
                     setValueAsString(document);
@@ -386,6 +390,16 @@ public abstract class ValueItem extends BlockItem implements Value,
             setTypeAndData(coming, valueItem.getData());
         }
     }
+    private StringItem getMergedString(StringItem source){
+        if(source == null){
+            return null;
+        }
+        StringPool<?> stringPool = getStringPool();
+        if(stringPool == null){
+            return null;
+        }
+        return stringPool.getMerged(source);
+    }
     public void mergeWithName(ResourceMergeOption mergeOption, ValueItem valueItem){
         if(valueItem == null || valueItem == this){
             return;
@@ -50,6 +50,16 @@ public class BytesOutputStream extends ByteArrayOutputStream {
     public void write(byte[] b) throws IOException {
         this.write(b, 0, b.length);
     }
+    /**
+     * Overwrites already written bytes starting at the given position, size is unchanged
+     * */
+    public synchronized void write(int position, byte[] b, int off, int len) {
+        if(position < 0 || position + len > this.count){
+            throw new IndexOutOfBoundsException("Position = " + position
+                    + ", length = " + len + ", size = " + this.count);
+        }
+        System.arraycopy(b, off, this.buf, position, len);
+    }
 
     private void ensureCapacity(int minCapacity) {
         if (minCapacity - this.buf.length > 0) {
@@ -68,14 +78,16 @@ public class BytesOutputStream extends ByteArrayOutputStream {
         }
         byte[] buf = this.buf;
         int oldCapacity = buf.length;
-        int newCapacity = minCapacity + mLastGrow;
+        int step = oldCapacity >> 1;
+        if(step < mLastGrow){
+            step = mLastGrow;
+        }
+        int newCapacity = minCapacity + step;
         if (newCapacity - minCapacity < 0) {
             newCapacity = minCapacity;
         }
         byte[] bytes = new byte[newCapacity];
-        for(int i = 0; i < oldCapacity; i ++){
-            bytes[i] = buf[i];
-        }
+        System.arraycopy(buf, 0, bytes, 0, this.count);
         this.buf = bytes;
     }
 
@@ -114,9 +126,7 @@ public class BytesOutputStream extends ByteArrayOutputStream {
             return buf;
         }
         byte[] results = new byte[count];
-        for(int i = 0; i < count; i++){
-            results[i] = buf[i];
-        }
+        System.arraycopy(buf, 0, results, 0, count);
         this.buf = results;
         return results;
     }
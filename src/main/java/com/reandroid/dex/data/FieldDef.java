@@ -152,8 +152,10 @@ public class FieldDef extends Def<FieldId> {
     @Override
     public void merge(Def<?> def) {
         super.merge(def);
-        FieldDef comingField = (FieldDef) def;
-        setStaticValue(comingField.getStaticValue());
+        if(isStatic()){
+            FieldDef comingField = (FieldDef) def;
+            setStaticValue(comingField.getStaticValue());
+        }
     }
 
     @Override
@@ -48,6 +48,11 @@ public class InsBlockList extends BlockList<Ins> {
 
     private Object mLockedBy;
 
+    private int[] mAddresses;
+    private int mAddressesCount;
+    private Ins[] mAddressMap;
+    private int mAddressesModCount;
+
     public InsBlockList(AlignItem blockAlign,
                         IntegerReference codeUnitsReference,
                         IntegerReference outSizReference,
@@ -70,14 +75,27 @@ public class InsBlockList extends BlockList<Ins> {
         return null;
     }
     public Ins getAtAddress(int address){
+        if(address < 0) {
+            return null;
+        }
+        ensureAddressCache();
+        Ins[] map = this.mAddressMap;
+        if(address < map.length) {
+            return map[address];
+        }
         int size = size();
+        int index = mAddressesCount - 1;
         int codeUnits = 0;
-        for (int i = 0; i < size; i++) {
-            Ins ins = get(i);
+        if(index < 0) {
+            index = 0;
+        } else {
+            codeUnits = mAddresses[index];
+        }
+        for (int i = index; i < size; i++) {
             if(codeUnits == address) {
-                return ins;
+                return get(i);
             }
-            codeUnits += ins.getCodeUnits();
+            codeUnits += get(i).getCodeUnits();
         }
         if(address == codeUnits) {
             return getOrCreateNullInstruction();
@@ -85,31 +103,81 @@ public class InsBlockList extends BlockList<Ins> {
         return null;
     }
     public int addressOf(Ins instruction) {
-        int count = size();
-        int address = 0;
-        for(int i = 0; i < count; i++) {
-            Ins ins = get(i);
-            if(ins == instruction) {
-                return address;
-            }
-            address += ins.getCodeUnits();
+        if(instruction == null) {
+            return -1;
+        }
+        int index = -1;
+        if(instruction.getParent() == this) {
+            index = indexOf(instruction);
+        }
+        if(index >= 0) {
+            return addressAt(index);
         }
         if(instruction == getNullInstruction()) {
-            return address;
+            return addressAt(size());
         }
         return -1;
     }
-    private Ins[] buildAddressMap() {
+    private int addressAt(int index) {
+        ensureAddressCache();
+        int count = this.mAddressesCount;
+        if(index < count) {
+            return mAddresses[index];
+        }
+        int i = count - 1;
+        int address = 0;
+        if(i < 0) {
+            i = 0;
+        } else {
+            address = mAddresses[i];
+        }
+        for(; i < index; i++) {
+            address += get(i).getCodeUnits();
+        }
+        return address;
+    }
+    void invalidateAddressCache() {
+        this.mAddressMap = null;
+    }
+    /**
+     * Caches address of each instruction and address to instruction map, the cache stays
+     * valid until the list is structurally modified (see {@link #getModCount()}) or
+     * an instruction changes its size in place (see {@link InsGoto#setOpcode(Opcode)}).
+     * Payloads may grow without notice, thus only addresses up to the first payload are
+     * cached, the rest (normally only trailing payloads) is computed on demand.
+     * */
+    private void ensureAddressCache() {
+        int modCount = getModCount();
+        if(this.mAddressMap != null && this.mAddressesModCount == modCount) {
+            return;
+        }
         int size = size();
+        int[] addresses = this.mAddresses;
+        if(addresses == null || addresses.length < size) {
+            addresses = new int[size];
+        }
+        int count = 0;
         int address = 0;
-        updateCodeUnits();
-        Ins[] map = new Ins[getCodeUnits()];
-        for(int i = 0; i < size; i++) {
-            Ins ins = get(i);
-            map[address] = ins;
+        while (count < size) {
+            Ins ins = get(count);
+            addresses[count] = address;
+            count ++;
+            if(ins instanceof PayloadData) {
+                break;
+            }
             address += ins.getCodeUnits();
         }
-        return map;
+        Ins[] map = new Ins[address];
+        for(int i = 0; i < count; i++) {
+            int insAddress = addresses[i];
+            if(insAddress < address) {
+                map[insAddress] = get(i);
+            }
+        }
+        this.mAddresses = addresses;
+        this.mAddressesCount = count;
+        this.mAddressMap = map;
+        this.mAddressesModCount = modCount;
     }
     public Iterator<Label> getLabels() {
         return  new IterableIterator<Ins, Label>(iterator()) {
@@ -185,8 +253,8 @@ public class InsBlockList extends BlockList<Ins> {
         if(!iterator.hasNext()) {
             return;
         }
-        Ins[] map = buildAddressMap();
-        int length = map.length;
+        updateCodeUnits();
+        int length = getCodeUnits();
         while (iterator.hasNext()) {
             ExtraLine extraLine = iterator.next();
             if(extraLine.isRemoved() ||
@@ -194,17 +262,15 @@ public class InsBlockList extends BlockList<Ins> {
                 continue;
             }
             int address = extraLine.getTargetAddress();
+            Ins target = null;
+            if(address >= 0 && address <= length) {
+                target = getAtAddress(address);
+            }
             if(extraLine instanceof DebugElement) {
-                if(address < 0 || address >= length || map[address] == null) {
+                if(address == length || target == null) {
                     continue;
                 }
             }
-            Ins target;
-            if(address == length) {
-                target = getOrCreateNullInstruction();
-            } else {
-                target = map[address];
-            }
             if(target == null) {
                 throw new NullPointerException("Invalid address " + address + ": " + extraLine);
             }
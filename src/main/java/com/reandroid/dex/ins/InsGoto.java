@@ -135,6 +135,9 @@ public class InsGoto extends SizeXIns implements Label {
         byteArray.setSize(0);
         byteArray.setSize(opcode.size());
         byteArray.putShort(0, opcode.getValue());
+        if(insBlockList != null) {
+            insBlockList.invalidateAddressCache();
+        }
         setData(data);
         if(insBlockList != null) {
             insBlockList.unlink();
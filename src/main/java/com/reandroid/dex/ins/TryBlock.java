@@ -134,15 +134,29 @@ public class TryBlock extends FixedDexContainerWithTool implements
 
         tryItemsCount.set(realTryItemCount);
 
-        int baseOffset = tryItemsCount.countBytes();
+        int[] offsets = new int[size];
+        int offset = tryItemsCount.countBytes();
+        for (int i = 0; i < size; i++) {
+            TryItem tryItem = array.get(i);
+            offsets[i] = offset;
+            offset += tryItem.countBytes();
+        }
         HandlerOffsetArray offsetArray = this.handlerOffsetArray;
         offsetArray.setSize(size);
         for (int i = 0; i < size; i++) {
             TryItem tryItem = array.get(i);
-            HandlerOffset handlerOffset = offsetArray.get(i);
-            int offset = array.countUpTo(tryItem);
-            offset += baseOffset;
-            handlerOffset.setOffset(offset);
+            TryItem target = tryItem.getTryItem();
+            if (target != tryItem) {
+                int index = target.getIndex();
+                if (index >= 0 && index < size && array.get(index) == target) {
+                    offset = offsets[index];
+                } else {
+                    offset = array.countUpTo(tryItem) + offsets[0];
+                }
+            } else {
+                offset = offsets[i];
+            }
+            offsetArray.get(i).setOffset(offset);
         }
     }
     private HandlerOffsetArray initHandlersOffset() {
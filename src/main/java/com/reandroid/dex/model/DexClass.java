@@ -378,11 +378,9 @@ public class DexClass extends DexDeclaration implements Comparable<DexClass> {
         if(dir != null && !dir.exists() && !dir.mkdirs()){
             throw new IOException("Failed to create dir: " + dir);
         }
-        FileOutputStream outputStream = new FileOutputStream(file);
-        writer.setWriter(new OutputStreamWriter(outputStream));
+        writer.setOutputStream(new FileOutputStream(file));
         append(writer);
         writer.close();
-        outputStream.close();
     }
     private String toFilePath(){
         String name = getDefining().getTypeName();
@@ -671,8 +669,7 @@ public class DexClass extends DexDeclaration implements Comparable<DexClass> {
     public void writeSmali(SmaliWriter writer, File dir) throws IOException {
         File file = toSmaliFile(dir);
         FileUtil.ensureParentDirectory(file);
-        FileWriter fileWriter = new FileWriter(file);
-        writer.setWriter(fileWriter);
+        writer.setOutputStream(new FileOutputStream(file));
         append(writer);
         writer.close();
     }
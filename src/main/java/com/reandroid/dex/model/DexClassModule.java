@@ -102,6 +102,9 @@ public interface DexClassModule extends DexClassRepository {
     @Override
     void clearPoolMap();
 
+    @Override
+    void updatePoolMap();
+
     @Override
     int shrink();
 }
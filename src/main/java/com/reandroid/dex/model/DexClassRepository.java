@@ -262,6 +262,13 @@ public interface DexClassRepository extends FullRefresh, BlockRefresh {
         }
     }
 
+    default void updatePoolMap() {
+        Iterator<DexClassModule> iterator = modules();
+        while (iterator.hasNext()) {
+            iterator.next().updatePoolMap();
+        }
+    }
+
     default <T extends SectionItem> Iterator<T> getClonedItems(SectionType<T> sectionType, Predicate<? super T> filter) {
         return FilterIterator.of(getClonedItems(sectionType), filter);
     }
@@ -30,8 +30,10 @@ import com.reandroid.utils.collection.*;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Predicate;
 
 public class DexDirectory implements Iterable<DexFile>, Closeable,
@@ -121,22 +123,81 @@ public class DexDirectory implements Iterable<DexFile>, Closeable,
         merge(new DexMergeOptions());
     }
     public void merge(MergeOptions options){
-        if(size() < 2){
+        merge(options, 1);
+    }
+    /**
+     * Moves classes from the last dex files towards the first ones. Placement is planned up
+     * front (see {@link DexMergePlan}) and then copied per destination dex file using the
+     * given number of threads.
+     * */
+    public void merge(MergeOptions options, int threads){
+        int size = size();
+        if(size < 2){
             return;
         }
-        int i = 0;
-        while (true){
-            DexFile dexFile = get(i);
-            DexFile last = getLastNonEmpty(options,i + 1);
-            if(dexFile == null || last == null){
-                break;
+        DexMergePlan plan = new DexMergePlan();
+        for(int i = 0; i < size; i++){
+            plan.addDestination(get(i).getOrCreateFirst());
+        }
+        for(int i = size - 1; i > 0; i--){
+            Iterator<ClassId> iterator = listClassesReversed(get(i)).iterator();
+            while (iterator.hasNext()){
+                ClassId classId = iterator.next();
+                TypeKey key = classId.getKey();
+                if(options.skipMerging(classId, key)){
+                    continue;
+                }
+                if(plan.containsClass(key, 0, i)){
+                    options.onDuplicate(classId);
+                    continue;
+                }
+                plan.add(classId, 0, i);
             }
-            if(!dexFile.merge(options, last)){
-                i ++;
+        }
+        applyMergePlan(plan, options, threads);
+        for(int i = 0; i < size; i++){
+            if(!plan.getClasses(i).isEmpty()){
+                DexLayout dexLayout = plan.getLayout(i);
+                dexLayout.refresh();
+                dexLayout.sortStrings();
+                dexLayout.refresh();
             }
         }
         shrink();
     }
+    private int applyMergePlan(DexMergePlan plan, MergeOptions options, int threads){
+        plan.ensureCapacity();
+        List<ClassId> copied = plan.copy(threads);
+        Set<DexLayoutBlock> sources = new HashSet<>();
+        for(ClassId classId : copied){
+            sources.add(classId.getParentInstance(DexLayoutBlock.class));
+            options.onMergeSuccess(classId, classId.getKey());
+            if(options.relocateClass()){
+                classId.removeSelf();
+            }
+        }
+        for(DexLayoutBlock layoutBlock : sources){
+            Section<ClassId> section = layoutBlock.getSection(SectionType.CLASS_ID);
+            if(section == null || section.getCount() == 0){
+                layoutBlock.clear();
+            }
+        }
+        return copied.size();
+    }
+    private static List<ClassId> listClassesReversed(DexFile dexFile){
+        ArrayCollection<ClassId> results = new ArrayCollection<>();
+        for(DexLayout dexLayout : dexFile){
+            Section<ClassId> section = dexLayout.getSection(SectionType.CLASS_ID);
+            if(section == null){
+                continue;
+            }
+            SectionArray<ClassId> array = section.getItemArray();
+            for(int i = array.size() - 1; i >= 0; i--){
+                results.add(array.get(i));
+            }
+        }
+        return results;
+    }
     private DexFile getLastNonEmpty(MergeOptions options, int limit){
         int size = size() - 1;
         for(int i = size; i >= limit; i--){
@@ -589,6 +650,14 @@ public class DexDirectory implements Iterable<DexFile>, Closeable,
     }
 
     public int distributeClasses(int maxClassesPerDex) {
+        return distributeClasses(maxClassesPerDex, 1);
+    }
+    /**
+     * Moves classes from crowded dex files so that each holds at most an even share of classes
+     * (not exceeding maxClassesPerDex). Placement is planned up front also against the id
+     * limits, a new dex file is created only when the existing ones can not take a class.
+     * */
+    public int distributeClasses(int maxClassesPerDex, int threads) {
         if(maxClassesPerDex <= 0){
             throw new IllegalArgumentException(
                     "Classes per dex must be greater than zero: " + maxClassesPerDex);
@@ -608,43 +677,33 @@ public class DexDirectory implements Iterable<DexFile>, Closeable,
             size = check;
             classesPerDex = count / size;
         }
-        int result = 0;
+        if(classesPerDex * size < count){
+            classesPerDex ++;
+        }
+        classesPerDex = Math.min(classesPerDex, maxClassesPerDex);
+        DexMergePlan plan = new DexMergePlan(classesPerDex);
         for(int i = 0; i < size; i++){
-            result += distributeClasses(this.get(i), classesPerDex);
+            plan.addDestination(get(i).getOrCreateFirst());
         }
-        return result;
-    }
-    private int distributeClasses(DexFile source, int classesPerDex){
-        int result = 0;
-        DexDirectory directory = source.getDexDirectory();
-        for(int i = 0; i < directory.size(); i++) {
-            DexLayout sourceLayout = source.getFirst();
-            if (sourceLayout == null) {
+        for(int i = 0; i < size; i++){
+            DexFile source = get(i);
+            int excess = source.getDexClassesCount() - classesPerDex;
+            if(excess <= 0){
                 continue;
             }
-            DexLayout destinationLayout = directory.get(i).getOrCreateFirst();
-            result += distributeClasses(sourceLayout, destinationLayout, classesPerDex);
-        }
-        return result;
-    }
-    private int distributeClasses(DexLayout source, DexLayout destination, int classesPerDex){
-        int result = 0;
-        if(source.getDexLayoutBlock() == destination.getDexLayoutBlock()){
-            return result;
-        }
-        Section<ClassId> classSection = source.getSection(SectionType.CLASS_ID);
-        ClassId previous = null;
-        SectionArray<ClassId> array = classSection.getItemArray();
-        while (source.getDexClassesCount() > classesPerDex && destination.getDexClassesCount() < classesPerDex){
-            ClassId classId = array.getLast();
-            if(classId == previous){
-                break;
+            Iterator<ClassId> iterator = listClassesReversed(source).iterator();
+            while (excess > 0 && iterator.hasNext()){
+                ClassId classId = iterator.next();
+                if(plan.add(classId, 0, plan.size()) < 0){
+                    int index = plan.addDestination(createDefault().getOrCreateFirst());
+                    if(plan.add(classId, index, index + 1) < 0){
+                        break;
+                    }
+                }
+                excess --;
             }
-            destination.merge(classId);
-            previous = classId;
-            result ++;
         }
-        return result;
+        return applyMergePlan(plan, new DexMergeOptions(true), threads);
     }
     public DexFile get(int i){
         return dexSourceSet.getDexFile(i);
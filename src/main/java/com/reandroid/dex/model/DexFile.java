@@ -16,6 +16,7 @@
 package com.reandroid.dex.model;
 
 import com.reandroid.arsc.io.BlockReader;
+import com.reandroid.arsc.io.ByteBufferReader;
 import com.reandroid.dex.id.ClassId;
 import com.reandroid.dex.key.TypeKey;
 import com.reandroid.dex.sections.*;
@@ -27,6 +28,7 @@ import com.reandroid.utils.collection.IterableIterator;
 import com.reandroid.utils.io.FileUtil;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.util.Iterator;
 import java.util.List;
 import java.util.function.Predicate;
@@ -477,6 +479,9 @@ public class DexFile implements Closeable, DexClassRepository, Iterable<DexLayou
     public static DexFile read(InputStream inputStream) throws IOException {
         return read(inputStream, null);
     }
+    public static DexFile read(ByteBuffer byteBuffer) throws IOException {
+        return read(byteBuffer, null);
+    }
     public static DexFile read(BlockReader reader) throws IOException {
         return read(reader, null);
     }
@@ -491,6 +496,9 @@ public class DexFile implements Closeable, DexClassRepository, Iterable<DexLayou
     public static DexFile read(InputStream inputStream, Predicate<SectionType<?>> filter) throws IOException {
         return read(new BlockReader(inputStream), filter);
     }
+    public static DexFile read(ByteBuffer byteBuffer, Predicate<SectionType<?>> filter) throws IOException {
+        return read(new ByteBufferReader(byteBuffer), filter);
+    }
     public static DexFile read(BlockReader reader, Predicate<SectionType<?>> filter) throws IOException {
         DexFile dexFile = new DexFile(new DexContainerBlock());
         dexFile.readBytes(reader, filter);
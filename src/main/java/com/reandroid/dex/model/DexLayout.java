@@ -239,6 +239,10 @@ public class DexLayout implements DexClassModule, Closeable,
     public void clearPoolMap() {
         getDexLayoutBlock().clearPoolMap();
     }
+    @Override
+    public void updatePoolMap() {
+        getDexLayoutBlock().updatePoolMap();
+    }
     public void sortStrings() {
         getDexLayoutBlock().sortStrings();
     }
@@ -0,0 +1,358 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.dex.model;
+
+import com.reandroid.dex.id.ClassId;
+import com.reandroid.dex.id.IdItem;
+import com.reandroid.dex.key.Key;
+import com.reandroid.dex.key.TypeKey;
+import com.reandroid.dex.sections.DexLayoutBlock;
+import com.reandroid.dex.sections.IdSection;
+import com.reandroid.dex.sections.SectionType;
+import com.reandroid.utils.collection.ArrayCollection;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Assigns classes to destination dex layouts before copying. Each destination tracks the
+ * distinct id keys it will hold, so a class goes to the first destination having room for
+ * all of its references (with the same reserve space as merging) instead of discovering
+ * the 64K limits while merging.
+ * */
+public class DexMergePlan {
+
+    private final ArrayCollection<Destination> destinations;
+    private final int maxClassesPerDex;
+
+    public DexMergePlan(int maxClassesPerDex) {
+        this.destinations = new ArrayCollection<>();
+        this.maxClassesPerDex = maxClassesPerDex;
+    }
+    public DexMergePlan() {
+        this(MAX_ID_COUNT);
+    }
+
+    public int size() {
+        return destinations.size();
+    }
+    public DexLayout getLayout(int i) {
+        return destinations.get(i).layout;
+    }
+    public List<ClassId> getClasses(int i) {
+        return destinations.get(i).classes;
+    }
+    public int getClassesCount() {
+        int result = 0;
+        for(Destination destination : destinations) {
+            result += destination.classes.size();
+        }
+        return result;
+    }
+    public int addDestination(DexLayout dexLayout) {
+        destinations.add(new Destination(dexLayout));
+        return destinations.size() - 1;
+    }
+    public boolean containsClass(TypeKey typeKey, int start, int end) {
+        end = Math.min(end, size());
+        for(int i = start; i < end; i++) {
+            if(destinations.get(i).containsClass(typeKey)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    /**
+     * Assigns the class to the first destination in range [start, end) having room,
+     * returns the destination index or -1 if none fits.
+     * */
+    public int add(ClassId classId, int start, int end) {
+        Map<SectionType<?>, Set<Key>> footprint = footprint(classId);
+        end = Math.min(end, size());
+        for(int i = start; i < end; i++) {
+            Destination destination = destinations.get(i);
+            if(destination.canAdd(footprint, maxClassesPerDex)) {
+                destination.add(classId, footprint);
+                return i;
+            }
+        }
+        return -1;
+    }
+    /**
+     * Pre-sizes destination sections for the planned id counts
+     * */
+    public void ensureCapacity() {
+        for(Destination destination : destinations) {
+            destination.ensureCapacity();
+        }
+    }
+    /**
+     * Copies planned classes to their destinations and returns the copied classes, relocation
+     * is left to the caller. Reading a coming class is not thread safe (e.g. keys of shared
+     * data items are cached on read), thus destinations sharing a source dex are copied by the
+     * same task and different tasks never read the same source. Destinations which are also
+     * a source of planned classes are copied one by one after the others.
+     * */
+    public List<ClassId> copy(int threads) {
+        Set<DexLayoutBlock> sources = new HashSet<>();
+        for(Destination destination : destinations) {
+            sources.addAll(destination.listSources());
+        }
+        List<Destination> concurrent = new ArrayCollection<>();
+        List<Destination> sequential = new ArrayCollection<>();
+        for(Destination destination : destinations) {
+            if(destination.classes.isEmpty()) {
+                continue;
+            }
+            if(sources.contains(destination.layout.getDexLayoutBlock())) {
+                sequential.add(destination);
+            } else {
+                concurrent.add(destination);
+            }
+        }
+        List<ClassId> results = new ArrayCollection<>(getClassesCount());
+        copy(groupBySource(concurrent), threads, results);
+        for(Destination destination : sequential) {
+            results.addAll(destination.copy());
+        }
+        return results;
+    }
+    private void copy(List<List<Destination>> groups, int threads, List<ClassId> results) {
+        int size = groups.size();
+        threads = Math.min(threads, size);
+        if(threads <= 1) {
+            for(List<Destination> group : groups) {
+                results.addAll(copy(group));
+            }
+            return;
+        }
+        List<Callable<List<ClassId>>> taskList = new ArrayList<>(size);
+        for(List<Destination> group : groups) {
+            taskList.add(() -> copy(group));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for(Future<List<ClassId>> future : executor.invokeAll(taskList)) {
+                results.addAll(future.get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if(cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    private static List<ClassId> copy(List<Destination> group) {
+        List<ClassId> results = new ArrayCollection<>();
+        for(Destination destination : group) {
+            results.addAll(destination.copy());
+        }
+        return results;
+    }
+    /**
+     * Joins destinations reading from a common source dex, groups keep destinations order
+     * */
+    private static List<List<Destination>> groupBySource(List<Destination> destinationList) {
+        Map<DexLayoutBlock, List<Destination>> groupMap = new HashMap<>();
+        List<List<Destination>> groups = new ArrayList<>();
+        for(Destination destination : destinationList) {
+            List<Destination> group = null;
+            for(DexLayoutBlock source : destination.listSources()) {
+                List<Destination> existing = groupMap.get(source);
+                if(existing == null || existing == group) {
+                    continue;
+                }
+                if(group == null) {
+                    group = existing;
+                    continue;
+                }
+                group.addAll(existing);
+                removeGroup(groups, existing);
+                for(Map.Entry<DexLayoutBlock, List<Destination>> entry : groupMap.entrySet()) {
+                    if(entry.getValue() == existing) {
+                        entry.setValue(group);
+                    }
+                }
+            }
+            if(group == null) {
+                group = new ArrayCollection<>();
+                groups.add(group);
+            }
+            group.add(destination);
+            for(DexLayoutBlock source : destination.listSources()) {
+                groupMap.put(source, group);
+            }
+        }
+        return groups;
+    }
+    // by identity, lists of different groups may be equal
+    private static void removeGroup(List<List<Destination>> groups, List<Destination> group) {
+        int size = groups.size();
+        for(int i = 0; i < size; i++) {
+            if(groups.get(i) == group) {
+                groups.remove(i);
+                return;
+            }
+        }
+    }
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        int size = size();
+        for(int i = 0; i < size; i++) {
+            if(i != 0) {
+                builder.append(", ");
+            }
+            builder.append(i);
+            builder.append(": ");
+            builder.append(getClasses(i).size());
+        }
+        return builder.toString();
+    }
+
+    private static Map<SectionType<?>, Set<Key>> footprint(ClassId classId) {
+        Map<SectionType<?>, Set<Key>> footprint = new HashMap<>();
+        for(IdItem idItem : classId.listUsedIds()) {
+            if(idItem == null) {
+                continue;
+            }
+            Key key = idItem.getKey();
+            if(key != null) {
+                footprint.computeIfAbsent(idItem.getSectionType(), type -> new HashSet<>())
+                        .add(key);
+            }
+        }
+        return footprint;
+    }
+
+    static class Destination {
+
+        final DexLayout layout;
+        final Map<SectionType<?>, Set<Key>> keysMap;
+        final Set<TypeKey> classKeys;
+        final ArrayCollection<ClassId> classes;
+        private int classesCount;
+        private boolean loaded;
+
+        Destination(DexLayout layout) {
+            this.layout = layout;
+            this.keysMap = new HashMap<>();
+            this.classKeys = new HashSet<>();
+            this.classes = new ArrayCollection<>();
+            this.classesCount = layout.getDexClassesCount();
+        }
+        boolean containsClass(TypeKey typeKey) {
+            load();
+            return classKeys.contains(typeKey);
+        }
+        boolean canAdd(Map<SectionType<?>, Set<Key>> footprint, int maxClasses) {
+            if(classesCount >= maxClasses || !hasSpace(classesCount)) {
+                return false;
+            }
+            load();
+            for(Map.Entry<SectionType<?>, Set<Key>> entry : footprint.entrySet()) {
+                Set<Key> keys = keysMap.get(entry.getKey());
+                int count = 0;
+                if(keys != null) {
+                    count = keys.size();
+                }
+                if(!hasSpace(count)) {
+                    return false;
+                }
+                for(Key key : entry.getValue()) {
+                    if(keys == null || !keys.contains(key)) {
+                        count ++;
+                        if(!hasSpace(count)) {
+                            return false;
+                        }
+                    }
+                }
+            }
+            return true;
+        }
+        void add(ClassId classId, Map<SectionType<?>, Set<Key>> footprint) {
+            for(Map.Entry<SectionType<?>, Set<Key>> entry : footprint.entrySet()) {
+                keysMap.computeIfAbsent(entry.getKey(), type -> new HashSet<>())
+                        .addAll(entry.getValue());
+            }
+            classKeys.add(classId.getKey());
+            classes.add(classId);
+            classesCount ++;
+        }
+        Set<DexLayoutBlock> listSources() {
+            Set<DexLayoutBlock> results = new HashSet<>();
+            for(ClassId classId : classes) {
+                DexLayoutBlock source = classId.getParentInstance(DexLayoutBlock.class);
+                if(source != null) {
+                    results.add(source);
+                }
+            }
+            return results;
+        }
+        List<ClassId> copy() {
+            return layout.getDexLayoutBlock().getSectionList().copyClasses(classes);
+        }
+        void ensureCapacity() {
+            if(classes.isEmpty()) {
+                return;
+            }
+            for(Map.Entry<SectionType<?>, Set<Key>> entry : keysMap.entrySet()) {
+                layout.getOrCreateSection(entry.getKey()).getItemArray()
+                        .ensureCapacity(entry.getValue().size());
+            }
+            layout.getOrCreateSection(SectionType.CLASS_ID).getItemArray()
+                    .ensureCapacity(classesCount);
+        }
+        private void load() {
+            if(loaded) {
+                return;
+            }
+            loaded = true;
+            Iterator<IdSection<?>> iterator = layout.getDexLayoutBlock()
+                    .getSectionList().getIdSections();
+            while (iterator.hasNext()) {
+                IdSection<?> section = iterator.next();
+                SectionType<?> sectionType = section.getSectionType();
+                if(sectionType == SectionType.CLASS_ID) {
+                    for(IdItem idItem : section) {
+                        classKeys.add((TypeKey) idItem.getKey());
+                    }
+                    continue;
+                }
+                Set<Key> keys = new HashSet<>(section.getCount());
+                for(IdItem idItem : section) {
+                    Key key = idItem.getKey();
+                    if(key != null) {
+                        keys.add(key);
+                    }
+                }
+                keysMap.put(sectionType, keys);
+            }
+        }
+        private static boolean hasSpace(int count) {
+            return MAX_ID_COUNT - count > RESERVE_SPACE;
+        }
+    }
+
+    private static final int MAX_ID_COUNT = 0xffff;
+    private static final int RESERVE_SPACE = 200;
+}
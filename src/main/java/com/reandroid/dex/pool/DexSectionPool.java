@@ -68,6 +68,15 @@ public class DexSectionPool<T extends SectionItem> extends MultiMap<Key, T> {
         Section<T> section = this.getSection();
         putAll(T::getKey, section.iterator());
     }
+    /**
+     * Re-keys items whose key changed (e.g. after renaming strings) without reloading the pool
+     * */
+    public int updateKeys(){
+        if(!isKeyItems()){
+            return 0;
+        }
+        return updateKeys(T::getKey);
+    }
     T createNext(Key key){
         T item = getSection().createItem();
         ((KeyReference) item).setKey(key);
@@ -22,11 +22,14 @@ import com.reandroid.dex.key.KeyPair;
 import com.reandroid.dex.key.TypeKey;
 import com.reandroid.dex.key.TypeKeyReference;
 import com.reandroid.dex.model.DexClass;
+import com.reandroid.dex.model.DexClassModule;
 import com.reandroid.dex.model.DexClassRepository;
 import com.reandroid.dex.sections.SectionType;
 import com.reandroid.utils.ObjectsUtil;
+import com.reandroid.utils.collection.CollectionUtil;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 public class RenameTypes extends Rename<TypeKey, TypeKey>{
 
@@ -35,6 +38,7 @@ public class RenameTypes extends Rename<TypeKey, TypeKey>{
     private boolean renameSource;
     private boolean noRenameSourceForNoPackageClass;
     private boolean fixAccessibility;
+    private int threads;
     private Set<String> renamedStrings;
 
     public RenameTypes(){
@@ -44,6 +48,7 @@ public class RenameTypes extends Rename<TypeKey, TypeKey>{
         this.renameSource = true;
         this.noRenameSourceForNoPackageClass = true;
         this.fixAccessibility = true;
+        this.threads = 1;
         this.renamedStrings = new HashSet<>();
     }
 
@@ -51,27 +56,67 @@ public class RenameTypes extends Rename<TypeKey, TypeKey>{
     public int apply(DexClassRepository classRepository) {
         Map<String, String> map = buildRenameMap();
         this.renamedStrings = new HashSet<>(map.size());
-        renameStringIds(classRepository, map);
+        renameModules(CollectionUtil.toList(classRepository.modules()), map);
         renameExternalTypeKeyReferences(classRepository, map);
         int size = renamedStrings.size();
-        if(size != 0) {
-            classRepository.clearPoolMap();
-        }
         fixAccessibility(classRepository);
         renamedStrings.clear();
         renamedStrings = null;
         return size;
     }
-    private void renameStringIds(DexClassRepository classRepository, Map<String, String> map) {
-        Iterator<StringId> iterator = classRepository.getClonedItems(SectionType.STRING_ID);
+    private void renameModules(List<DexClassModule> moduleList, Map<String, String> map) {
+        int size = moduleList.size();
+        int threads = Math.min(getThreads(), size);
+        if(threads <= 1) {
+            for(DexClassModule module : moduleList) {
+                this.renamedStrings.addAll(renameModule(module, map));
+            }
+            return;
+        }
+        List<Callable<Set<String>>> taskList = new ArrayList<>(size);
+        for(DexClassModule module : moduleList) {
+            taskList.add(() -> renameModule(module, map));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for(Future<Set<String>> future : executor.invokeAll(taskList)) {
+                this.renamedStrings.addAll(future.get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if(cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    /**
+     * Strings are owned by each module, thus modules are independent and safe to be
+     * renamed concurrently. Only pool entries whose key changed are updated.
+     * */
+    private Set<String> renameModule(DexClassModule module, Map<String, String> map) {
+        Set<String> renamed = new HashSet<>();
+        renameStringIds(module, map, renamed);
+        if(!renamed.isEmpty()) {
+            module.updatePoolMap();
+        }
+        return renamed;
+    }
+    private void renameStringIds(DexClassModule module, Map<String, String> map, Set<String> renamed) {
+        Iterator<StringId> iterator = module.getClonedItems(SectionType.STRING_ID);
         while (iterator.hasNext()){
             StringId stringId = iterator.next();
             stringId.addUsageType(UsageMarker.USAGE_DEFINITION);
             String text = map.get(stringId.getString());
             if(text != null){
-                setString(stringId, text);
+                setString(stringId, text, renamed);
             }else {
-                renameSignatures(map, stringId);
+                renameSignatures(map, stringId, renamed);
             }
         }
     }
@@ -107,7 +152,7 @@ public class RenameTypes extends Rename<TypeKey, TypeKey>{
             iterator.next().fixAccessibility();
         }
     }
-    private void renameSignatures(Map<String, String> map, StringId stringId){
+    private void renameSignatures(Map<String, String> map, StringId stringId, Set<String> renamed){
         if(!stringId.containsUsage(UsageMarker.USAGE_SIGNATURE_TYPE)){
             return;
         }
@@ -131,12 +176,12 @@ public class RenameTypes extends Rename<TypeKey, TypeKey>{
             for(int i = 0; i < length; i++){
                 builder.append(signatures[i]);
             }
-            setString(stringId, builder.toString());
+            setString(stringId, builder.toString(), renamed);
         }
     }
-    private void setString(StringId stringId, String value) {
+    private void setString(StringId stringId, String value, Set<String> renamed) {
         stringId.setString(value);
-        renamedStrings.add(value);
+        renamed.add(value);
     }
 
     public void setArrayDepth(int arrayDepth) {
@@ -157,6 +202,18 @@ public class RenameTypes extends Rename<TypeKey, TypeKey>{
     public void setFixAccessibility(boolean fixAccessibility) {
         this.fixAccessibility = fixAccessibility;
     }
+    public int getThreads() {
+        return threads;
+    }
+    /**
+     * Number of dex modules to rename concurrently, default 1
+     * */
+    public void setThreads(int threads) {
+        if(threads < 1) {
+            threads = 1;
+        }
+        this.threads = threads;
+    }
 
     private Map<String, String> buildRenameMap() {
         List<KeyPair<TypeKey, TypeKey>> list = sortedList();
@@ -219,6 +219,11 @@ public class DexLayoutBlock extends FixedBlockContainer implements FullRefresh {
         interfaceMap.clear();
         getSectionList().clearPoolMap();
     }
+    public void updatePoolMap(){
+        extendingClassMap.clear();
+        interfaceMap.clear();
+        getSectionList().updatePoolMap();
+    }
     public void sortStrings(){
         getSectionList().sortStrings();
     }
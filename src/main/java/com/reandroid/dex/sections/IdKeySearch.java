@@ -0,0 +1,192 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.dex.sections;
+
+import com.reandroid.dex.data.TypeList;
+import com.reandroid.dex.id.*;
+import com.reandroid.dex.key.*;
+import com.reandroid.utils.CompareUtil;
+
+import java.util.Iterator;
+
+/**
+ * Compares id items directly against a key in dex (spec) order, i.e. the order of
+ * item's referenced indexes, so that sorted id sections can be binary searched
+ * without creating keys of other items.
+ * */
+class IdKeySearch {
+
+    static boolean isSearchable(SectionType<?> sectionType) {
+        return sectionType == SectionType.STRING_ID
+                || sectionType == SectionType.TYPE_ID
+                || sectionType == SectionType.PROTO_ID
+                || sectionType == SectionType.FIELD_ID
+                || sectionType == SectionType.METHOD_ID;
+    }
+    static SectionType<?>[] getDependencies(SectionType<?> sectionType) {
+        if(sectionType == SectionType.TYPE_ID) {
+            return new SectionType<?>[]{SectionType.STRING_ID};
+        }
+        if(sectionType == SectionType.PROTO_ID) {
+            return new SectionType<?>[]{SectionType.TYPE_ID};
+        }
+        if(sectionType == SectionType.FIELD_ID) {
+            return new SectionType<?>[]{SectionType.STRING_ID, SectionType.TYPE_ID};
+        }
+        if(sectionType == SectionType.METHOD_ID) {
+            return new SectionType<?>[]{SectionType.STRING_ID, SectionType.PROTO_ID};
+        }
+        return EMPTY_TYPES;
+    }
+    static boolean isKeyOf(SectionType<?> sectionType, Key key) {
+        if(sectionType == SectionType.STRING_ID) {
+            return key instanceof StringKey;
+        }
+        if(sectionType == SectionType.TYPE_ID) {
+            return key instanceof TypeKey;
+        }
+        if(sectionType == SectionType.PROTO_ID) {
+            return key instanceof ProtoKey;
+        }
+        if(sectionType == SectionType.FIELD_ID) {
+            return key instanceof FieldKey;
+        }
+        if(sectionType == SectionType.METHOD_ID) {
+            return key instanceof MethodKey;
+        }
+        return false;
+    }
+    @SuppressWarnings("unchecked")
+    static<T extends IdItem> boolean isSorted(SectionArray<T> itemArray) {
+        int count = itemArray.getCount();
+        if(count < 2) {
+            return true;
+        }
+        T previous = itemArray.get(0);
+        if(previous instanceof StringId) {
+            String last = ((StringId) previous).getString();
+            for(int i = 1; i < count; i++) {
+                String text = ((StringId) itemArray.get(i)).getString();
+                if(last == null || text == null || last.compareTo(text) >= 0) {
+                    return false;
+                }
+                last = text;
+            }
+            return true;
+        }
+        for(int i = 1; i < count; i++) {
+            T item = itemArray.get(i);
+            if(((Comparable<T>) previous).compareTo(item) >= 0) {
+                return false;
+            }
+            previous = item;
+        }
+        return true;
+    }
+    static<T extends IdItem> T search(SectionArray<T> itemArray, Key key) {
+        int start = 0;
+        int end = itemArray.getCount() - 1;
+        while (start <= end) {
+            int mid = (start + end) >>> 1;
+            T item = itemArray.get(mid);
+            int i = compare(item, key);
+            if(i < 0) {
+                start = mid + 1;
+            } else if(i > 0) {
+                end = mid - 1;
+            } else {
+                return item;
+            }
+        }
+        return null;
+    }
+    static int compare(IdItem item, Key key) {
+        if(item instanceof StringId) {
+            return compare(((StringId) item).getString(), ((StringKey) key).getString());
+        }
+        if(item instanceof TypeId) {
+            return compare((TypeId) item, (TypeKey) key);
+        }
+        if(item instanceof ProtoId) {
+            return compare((ProtoId) item, (ProtoKey) key);
+        }
+        if(item instanceof FieldId) {
+            FieldId fieldId = (FieldId) item;
+            FieldKey fieldKey = (FieldKey) key;
+            int i = compare(fieldId.getDefiningId(), fieldKey.getDeclaring());
+            if(i != 0) {
+                return i;
+            }
+            i = compare(fieldId.getName(), fieldKey.getName());
+            if(i != 0) {
+                return i;
+            }
+            return compare(fieldId.getFieldTypeId(), fieldKey.getType());
+        }
+        if(item instanceof MethodId) {
+            MethodId methodId = (MethodId) item;
+            MethodKey methodKey = (MethodKey) key;
+            int i = compare(methodId.getDefiningId(), methodKey.getDeclaring());
+            if(i != 0) {
+                return i;
+            }
+            i = compare(methodId.getName(), methodKey.getName());
+            if(i != 0) {
+                return i;
+            }
+            return compare(methodId.getProtoId(), methodKey.getProto());
+        }
+        throw new IllegalArgumentException("Unsupported item: " + item.getClass());
+    }
+    private static int compare(ProtoId protoId, ProtoKey protoKey) {
+        if(protoId == null || protoKey == null) {
+            return CompareUtil.compare(protoId == null, protoKey == null);
+        }
+        int i = compare(protoId.getReturnTypeId(), protoKey.getReturnType());
+        if(i != 0) {
+            return i;
+        }
+        TypeListKey parameters = protoKey.getParameters();
+        int size = parameters == null ? 0 : parameters.size();
+        TypeList typeList = protoId.getTypeList();
+        Iterator<TypeId> iterator = typeList == null ? null : typeList.iterator();
+        for(int index = 0; index < size; index++) {
+            if(iterator == null || !iterator.hasNext()) {
+                return -1;
+            }
+            i = compare(iterator.next(), parameters.get(index));
+            if(i != 0) {
+                return i;
+            }
+        }
+        if(iterator != null && iterator.hasNext()) {
+            return 1;
+        }
+        return 0;
+    }
+    private static int compare(TypeId typeId, TypeKey typeKey) {
+        return compare(typeId == null ? null : typeId.getName(),
+                typeKey == null ? null : typeKey.getTypeName());
+    }
+    private static int compare(String text, String key) {
+        if(text == null || key == null) {
+            return CompareUtil.compare(text == null, key == null);
+        }
+        return text.compareTo(key);
+    }
+
+    private static final SectionType<?>[] EMPTY_TYPES = new SectionType<?>[0];
+}
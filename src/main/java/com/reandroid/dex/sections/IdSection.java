@@ -15,11 +15,14 @@
  */
 package com.reandroid.dex.sections;
 
+import com.reandroid.arsc.io.BlockReader;
 import com.reandroid.dex.base.BlockListArray;
 import com.reandroid.dex.base.IntegerPair;
+import com.reandroid.dex.common.SectionItem;
 import com.reandroid.dex.id.IdItem;
 import com.reandroid.dex.key.Key;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
@@ -27,6 +30,10 @@ import java.util.function.Predicate;
 
 public class IdSection<T extends IdItem> extends Section<T> {
 
+    private int orderedModCount = -1;
+    private boolean orderChecked;
+    private boolean sorted;
+
     public IdSection(IntegerPair countAndOffset, SectionType<T> sectionType) {
         super(sectionType, new IdSectionArray<>(countAndOffset, sectionType.getCreator()));
     }
@@ -44,6 +51,81 @@ public class IdSection<T extends IdItem> extends Section<T> {
         sort();
     }
     @Override
+    public void onReadBytes(BlockReader reader) throws IOException {
+        super.onReadBytes(reader);
+        markOrdered();
+    }
+    @Override
+    protected void onRefreshed() {
+        super.onRefreshed();
+        markOrdered();
+    }
+    @Override
+    public boolean contains(Key key){
+        if(canSearch(key)){
+            return IdKeySearch.search(getItemArray(), key) != null;
+        }
+        return super.contains(key);
+    }
+    @Override
+    public T getSectionItem(Key key) {
+        if(canSearch(key)){
+            return IdKeySearch.search(getItemArray(), key);
+        }
+        return super.getSectionItem(key);
+    }
+    @Override
+    public T get(Key key){
+        if(canSearch(key)){
+            return IdKeySearch.search(getItemArray(), key);
+        }
+        return super.get(key);
+    }
+    @Override
+    boolean keyChanged(SectionItem block, Key key){
+        this.orderedModCount = -1;
+        return super.keyChanged(block, key);
+    }
+    /**
+     * Read mode lookup, while the section is in dex order as read or refreshed and no pool is
+     * loaded yet, items are binary searched instead of loading keys of all items in to the pool.
+     * Any edit on items or on the sections it depends, falls back to the pool.
+     * */
+    private boolean canSearch(Key key){
+        return key != null && getLoadedPool() == null
+                && IdKeySearch.isKeyOf(getSectionType(), key)
+                && isSorted();
+    }
+    boolean isSorted(){
+        if(this.orderedModCount != getItemArray().getModCount()){
+            return false;
+        }
+        if(!this.orderChecked){
+            this.orderChecked = true;
+            this.sorted = IdKeySearch.isSorted(getItemArray());
+        }
+        if(!this.sorted){
+            return false;
+        }
+        SectionList sectionList = getSectionList();
+        if(sectionList == null){
+            return false;
+        }
+        for(SectionType<?> sectionType : IdKeySearch.getDependencies(getSectionType())){
+            Section<?> section = sectionList.getSection(sectionType);
+            if(!(section instanceof IdSection) || !((IdSection<?>) section).isSorted()){
+                return false;
+            }
+        }
+        return true;
+    }
+    private void markOrdered(){
+        if(IdKeySearch.isSearchable(getSectionType())){
+            this.orderedModCount = getItemArray().getModCount();
+            this.orderChecked = false;
+        }
+    }
+    @Override
     public boolean remove(Key key){
         T item = getSectionItem(key);
         if(item != null && item.getParent() != null){
@@ -111,6 +111,12 @@ public class Section<T extends SectionItem>  extends FixedDexContainer
             this.dexSectionPool = null;
         }
     }
+    public void updatePoolMap(){
+        DexSectionPool<T> dexSectionPool = this.getLoadedPool();
+        if(dexSectionPool != null){
+            dexSectionPool.updateKeys();
+        }
+    }
     @Override
     public void onReadBytes(BlockReader reader) throws IOException {
         sectionAlign.setAlignment(0);
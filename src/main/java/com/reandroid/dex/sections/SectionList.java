@@ -286,6 +286,11 @@ public class SectionList extends FixedBlockContainer
             section.clearPoolMap();
         }
     }
+    public void updatePoolMap(){
+        for(Section<?> section : this){
+            section.updatePoolMap();
+        }
+    }
     public void sortSection(SectionType<?>[] order){
         //WARN: DO NOT CALL refresh() HERE
         idSectionList.sort(SectionType.comparator(order, Section::getSectionType));
@@ -518,6 +523,29 @@ public class SectionList extends FixedBlockContainer
         options.onMergeSuccess(classId, classId.getKey());
         return true;
     }
+    /**
+     * Copies already planned classes without relocating or notifying merge options,
+     * classes which are duplicate or do not fit are skipped. Reading the coming classes
+     * updates cached keys of their items, thus concurrent copies must not share a source.
+     * Returns the copied classes.
+     * */
+    public List<ClassId> copyClasses(List<ClassId> classIdList){
+        ArrayCollection<ClassId> results = new ArrayCollection<>(classIdList.size());
+        Section<ClassId> mySection = getOrCreateSection(SectionType.CLASS_ID);
+        for(ClassId coming : classIdList){
+            if(coming.getParent() == null || coming.getParent(SectionList.class) == this){
+                continue;
+            }
+            TypeKey key = coming.getKey();
+            if(mySection.contains(key) || !canAddAll(coming.listUsedIds())){
+                continue;
+            }
+            ClassId classId = mySection.getOrCreate(key);
+            classId.merge(coming);
+            results.add(coming);
+        }
+        return results;
+    }
     public boolean merge(MergeOptions options, SectionList sectionList){
         if(sectionList == this){
             options.onMergeError(getParentInstance(DexLayoutBlock.class), sectionList, "Can not merge with self");
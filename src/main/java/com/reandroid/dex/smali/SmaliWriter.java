@@ -23,16 +23,26 @@ import com.reandroid.dex.key.MethodKey;
 import com.reandroid.dex.key.TypeKey;
 import com.reandroid.dex.smali.formatters.SequentialLabelFactory;
 import com.reandroid.utils.HexUtil;
+import com.reandroid.utils.NumbersUtil;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
 
 public class SmaliWriter implements Appendable, Closeable {
 
     private Writer writer;
+    private OutputStream outputStream;
+    private char[] buffer;
+    private int bufferPosition;
+    private byte[] encodeBuffer;
+    private char[] numberBuffer;
     private int indent;
     private int lineNumber;
     private int columnNumber;
@@ -51,6 +61,13 @@ public class SmaliWriter implements Appendable, Closeable {
         this();
         this.writer = writer;
     }
+    /**
+     * Buffered writer encoding UTF-8 directly to the given stream
+     * */
+    public SmaliWriter(OutputStream outputStream){
+        this();
+        setOutputStream(outputStream);
+    }
     public SmaliWriter(){
         this.lineNumber = 1;
         this.state_new_line = true;
@@ -69,9 +86,59 @@ public class SmaliWriter implements Appendable, Closeable {
             setting.writeMethodComment(this, methodKey);
         }
     }
+    /**
+     * Pending buffered content (if any) is flushed to the previous destination first
+     * */
     public void setWriter(Writer writer) {
+        flushPending();
         this.reset();
         this.writer = writer;
+        this.outputStream = null;
+    }
+    /**
+     * Switches to buffered mode and encodes UTF-8 directly to the given stream
+     * */
+    public void setOutputStream(OutputStream outputStream) {
+        flushPending();
+        this.reset();
+        this.writer = null;
+        this.outputStream = outputStream;
+        if(buffer == null) {
+            buffer = new char[BUFFER_SIZE];
+        }
+    }
+    public boolean isBuffered() {
+        return buffer != null;
+    }
+    /**
+     * When buffered, characters are collected in an internal buffer and passed to
+     * the underlying writer in bulk on flush, close or when the buffer is full.
+     * Unbuffered output stream destination is written through a UTF-8 writer.
+     * */
+    public void setBuffered(boolean buffered) throws IOException {
+        if(buffered == isBuffered()) {
+            return;
+        }
+        if(buffered) {
+            buffer = new char[BUFFER_SIZE];
+            bufferPosition = 0;
+            return;
+        }
+        OutputStream outputStream = this.outputStream;
+        if(outputStream == null) {
+            flushBuffer(true);
+        } else {
+            flushBuffer(false);
+            Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+            // pending high surrogate, pairs up on the writer with the next char
+            if(bufferPosition != 0) {
+                writer.write(buffer, 0, bufferPosition);
+                bufferPosition = 0;
+            }
+            this.writer = writer;
+            this.outputStream = null;
+        }
+        buffer = null;
     }
 
     @Override
@@ -174,31 +241,90 @@ public class SmaliWriter implements Appendable, Closeable {
         append('f');
     }
     public void appendInteger(int i) throws IOException {
-        append(Integer.toString(i));
+        char[] chars = getNumberBuffer();
+        int end = chars.length;
+        int position = end;
+        long value = i;
+        boolean negative = value < 0;
+        if(negative) {
+            value = -value;
+        }
+        do {
+            chars[--position] = (char) ('0' + (value % 10));
+            value = value / 10;
+        } while (value != 0);
+        if(negative) {
+            chars[--position] = '-';
+        }
+        write(chars, position, end);
     }
     public void appendHex(byte b) throws IOException {
-        append(HexUtil.toSignedHex(b));
+        appendSignedHex(b);
         append('t');
     }
     public void appendHex(short s) throws IOException {
-        append(HexUtil.toSignedHex(s));
+        appendSignedHex(s);
         append('S');
     }
     public void appendHex(int i) throws IOException {
-        append(HexUtil.toSignedHex(i));
+        appendSignedHex(i);
         SmaliWriterSetting setting = getWriterSetting();
         if(setting != null){
             setting.writeResourceIdComment(this, i);
         }
     }
     public void appendHex(long l) throws IOException {
-        append(HexUtil.toSignedHex(l));
+        appendSignedHex(l);
         append('L');
         SmaliWriterSetting setting = getWriterSetting();
         if(setting != null){
             setting.writeResourceIdComment(this, l);
         }
     }
+    /**
+     * Same format as {@link HexUtil#toSignedHex(int)}
+     * */
+    private void appendSignedHex(int i) throws IOException {
+        boolean negative = i < 0;
+        long value = i;
+        if(negative) {
+            value = -value;
+        }
+        appendSignedHex(value, negative);
+    }
+    /**
+     * Same format as {@link HexUtil#toSignedHex(long)}
+     * */
+    private void appendSignedHex(long l) throws IOException {
+        boolean negative = l < 0;
+        if(negative) {
+            l = -l;
+        }
+        appendSignedHex(l, negative);
+    }
+    private void appendSignedHex(long unsigned, boolean negative) throws IOException {
+        char[] chars = getNumberBuffer();
+        int end = chars.length;
+        int position = end;
+        do {
+            chars[--position] = HEX_DIGITS[(int) (unsigned & 0xf)];
+            unsigned = unsigned >>> 4;
+        } while (unsigned != 0);
+        chars[--position] = 'x';
+        chars[--position] = '0';
+        if(negative) {
+            chars[--position] = '-';
+        }
+        write(chars, position, end);
+    }
+    private char[] getNumberBuffer() {
+        char[] chars = this.numberBuffer;
+        if(chars == null) {
+            chars = new char[20];
+            this.numberBuffer = chars;
+        }
+        return chars;
+    }
     public void appendResourceIdComment(int i) throws IOException {
         SmaliWriterSetting setting = getWriterSetting();
         if(setting != null){
@@ -224,7 +350,7 @@ public class SmaliWriter implements Appendable, Closeable {
         }
         flushComment();
         for(int i = 0; i < amount; i++){
-            writer.append('\n');
+            writeRaw('\n');
         }
         columnNumber = 0;
         lineNumber += amount;
@@ -238,10 +364,9 @@ public class SmaliWriter implements Appendable, Closeable {
     }
     private void writeIndent() throws IOException {
         indentRequested = false;
-        Writer writer = this.writer;
         int length = this.indent;
         for(int i = 0; i < length; i++){
-            writer.append(' ');
+            writeRaw(' ');
         }
     }
     public void appendComment(String text) {
@@ -309,17 +434,152 @@ public class SmaliWriter implements Appendable, Closeable {
     }
 
 
-    private void write(CharSequence text, int start, int length) throws IOException {
-        for(int i = start; i < length; i++){
-            write(text.charAt(i));
+    private void write(CharSequence text, int start, int end) throws IOException {
+        if(start >= end) {
+            return;
         }
+        flushIndent();
+        char[] buffer = this.buffer;
+        if(buffer == null) {
+            this.writer.append(text, start, end);
+        } else {
+            int length = buffer.length;
+            int i = start;
+            while (i < end) {
+                if(bufferPosition == length) {
+                    flushBuffer(false);
+                }
+                int position = this.bufferPosition;
+                int count = NumbersUtil.min(end - i, length - position);
+                if(text instanceof String) {
+                    ((String) text).getChars(i, i + count, buffer, position);
+                } else {
+                    for(int j = 0; j < count; j++) {
+                        buffer[position + j] = text.charAt(i + j);
+                    }
+                }
+                this.bufferPosition = position + count;
+                i += count;
+            }
+        }
+        this.columnNumber += end - start;
+        this.state_new_line = false;
+    }
+    private void write(char[] chars, int start, int end) throws IOException {
+        flushIndent();
+        char[] buffer = this.buffer;
+        int count = end - start;
+        if(buffer == null) {
+            this.writer.write(chars, start, count);
+        } else {
+            if(buffer.length - bufferPosition < count) {
+                flushBuffer(false);
+            }
+            System.arraycopy(chars, start, buffer, bufferPosition, count);
+            bufferPosition += count;
+        }
+        this.columnNumber += count;
+        this.state_new_line = false;
     }
     private void write(char ch) throws IOException {
         flushIndent();
-        this.writer.append(ch);
+        writeRaw(ch);
         this.columnNumber ++;
         this.state_new_line = false;
     }
+    private void writeRaw(char ch) throws IOException {
+        char[] buffer = this.buffer;
+        if(buffer == null) {
+            this.writer.append(ch);
+            return;
+        }
+        if(bufferPosition == buffer.length) {
+            flushBuffer(false);
+        }
+        buffer[bufferPosition++] = ch;
+    }
+    public void flush() throws IOException {
+        flushBuffer(false);
+        if(outputStream != null) {
+            outputStream.flush();
+        } else if(writer != null) {
+            writer.flush();
+        }
+    }
+    private void flushPending() {
+        if(bufferPosition == 0) {
+            return;
+        }
+        try {
+            flushBuffer(true);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+    /**
+     * Writes out buffered chars, a trailing high surrogate is kept in buffer
+     * unless endOfInput so that pairs split between flushes are encoded correctly
+     * */
+    private void flushBuffer(boolean endOfInput) throws IOException {
+        int length = this.bufferPosition;
+        if(length == 0) {
+            return;
+        }
+        char[] buffer = this.buffer;
+        OutputStream outputStream = this.outputStream;
+        if(outputStream == null) {
+            this.bufferPosition = 0;
+            this.writer.write(buffer, 0, length);
+            return;
+        }
+        char pending = 0;
+        if(!endOfInput && Character.isHighSurrogate(buffer[length - 1])) {
+            length --;
+            pending = buffer[length];
+        }
+        this.bufferPosition = 0;
+        outputStream.write(getEncodeBuffer(), 0, encodeUtf8(buffer, length));
+        if(pending != 0) {
+            buffer[0] = pending;
+            this.bufferPosition = 1;
+        }
+    }
+    private int encodeUtf8(char[] chars, int length) {
+        byte[] bytes = getEncodeBuffer();
+        int position = 0;
+        for(int i = 0; i < length; i++) {
+            char ch = chars[i];
+            if(ch < 0x80) {
+                bytes[position++] = (byte) ch;
+            } else if(ch < 0x800) {
+                bytes[position++] = (byte) (0xc0 | (ch >> 6));
+                bytes[position++] = (byte) (0x80 | (ch & 0x3f));
+            } else if(Character.isHighSurrogate(ch) && i + 1 < length
+                    && Character.isLowSurrogate(chars[i + 1])) {
+                int codePoint = Character.toCodePoint(ch, chars[i + 1]);
+                i ++;
+                bytes[position++] = (byte) (0xf0 | (codePoint >> 18));
+                bytes[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                bytes[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                bytes[position++] = (byte) (0x80 | (codePoint & 0x3f));
+            } else if(Character.isSurrogate(ch)) {
+                bytes[position++] = (byte) '?';
+            } else {
+                bytes[position++] = (byte) (0xe0 | (ch >> 12));
+                bytes[position++] = (byte) (0x80 | ((ch >> 6) & 0x3f));
+                bytes[position++] = (byte) (0x80 | (ch & 0x3f));
+            }
+        }
+        return position;
+    }
+    private byte[] getEncodeBuffer() {
+        byte[] bytes = this.encodeBuffer;
+        if(bytes == null) {
+            bytes = new byte[BUFFER_SIZE * 3];
+            this.encodeBuffer = bytes;
+        }
+        return bytes;
+    }
 
     public SmaliWriterSetting getWriterSetting() {
         return writerSetting;
@@ -366,11 +626,20 @@ public class SmaliWriter implements Appendable, Closeable {
 
     @Override
     public void close() throws IOException {
+        OutputStream outputStream = this.outputStream;
+        if(outputStream != null) {
+            flushComment();
+            flushBuffer(true);
+            this.outputStream = null;
+            outputStream.close();
+            return;
+        }
         Writer writer = this.writer;
         if(writer == null){
             return;
         }
         flushComment();
+        flushBuffer(true);
         this.writer = null;
         writer.close();
     }
@@ -442,4 +711,9 @@ public class SmaliWriter implements Appendable, Closeable {
     }
 
     private static final int INDENT_STEP = 4;
+    private static final int BUFFER_SIZE = 8192;
+    private static final char[] HEX_DIGITS = new char[]{
+            '0', '1', '2', '3', '4', '5', '6', '7',
+            '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'
+    };
 }
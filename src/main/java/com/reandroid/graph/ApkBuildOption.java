@@ -37,6 +37,8 @@ public class ApkBuildOption {
 
     private boolean processClassNamesOnStrings = true;
 
+    private int threads = 1;
+
     private ResourceMergeOption mMergeOption;
     private Predicate<? super TypeKey> keepClassesFilter;
     private final Set<TypeKey> keepClassesList = new HashSet<>();
@@ -85,6 +87,18 @@ public class ApkBuildOption {
         this.processClassNamesOnStrings = processClassNamesOnStrings;
     }
 
+    public int getThreads() {
+        return threads;
+    }
+    /**
+     * Number of threads to process independent dex modules, default 1
+     * */
+    public void setThreads(int threads) {
+        if(threads < 1) {
+            threads = 1;
+        }
+        this.threads = threads;
+    }
 
     public ResourceMergeOption getResourceMergeOption() {
         ResourceMergeOption mergeOption = this.mMergeOption;
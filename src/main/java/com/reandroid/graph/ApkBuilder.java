@@ -18,9 +18,11 @@ package com.reandroid.graph;
 import com.reandroid.apk.ApkModule;
 import com.reandroid.apk.ResFile;
 import com.reandroid.archive.ZipEntryMap;
+import com.reandroid.arsc.item.IntegerReference;
 import com.reandroid.arsc.model.ResourceName;
 import com.reandroid.arsc.refactor.ResourceBuilder;
 import com.reandroid.arsc.refactor.ResourceMergeOption;
+import com.reandroid.dex.model.DexClassModule;
 import com.reandroid.dex.model.DexClassRepository;
 import com.reandroid.graph.cleaners.UnusedAnnotationCleaner;
 import com.reandroid.graph.cleaners.UnusedClassesCleaner;
@@ -28,6 +30,8 @@ import com.reandroid.graph.cleaners.UnusedFieldsCleaner;
 import com.reandroid.graph.cleaners.UnusedMethodsCleaner;
 import com.reandroid.utils.collection.CollectionUtil;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
@@ -60,7 +64,7 @@ public class ApkBuilder extends BaseApkModuleProcessor {
 
         ApkModule sourceModule = getApkModule();
         resourceBuilder.rebuildManifest(sourceModule);
-        resourceBuilder.applyIdChanges(getClassRepository().visitIntegers());
+        applyIdChanges(resourceBuilder);
         ApkModule resultModule = resourceBuilder.getResultModule();
 
         removeResFiles();
@@ -74,6 +78,19 @@ public class ApkBuilder extends BaseApkModuleProcessor {
         filesCount = filesCount - sourceModule.getZipEntryMap().size();
         verbose("Removed files: " + filesCount);
     }
+    private void applyIdChanges(ResourceBuilder resourceBuilder) {
+        List<Iterator<IntegerReference>> sources = new ArrayList<>();
+        Iterator<DexClassModule> iterator = getClassRepository().modules();
+        while (iterator.hasNext()) {
+            sources.add(iterator.next().visitIntegers());
+        }
+        int[] counts = resourceBuilder.applyIdChanges(sources, getBuildOption().getThreads());
+        int total = 0;
+        for(int count : counts) {
+            total += count;
+        }
+        verbose("Changed resource ids: " + total + ", modules = " + counts.length);
+    }
     private void cleanDex() {
         int countTotal = 0;
         int count = 1;
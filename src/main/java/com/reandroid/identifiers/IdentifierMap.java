@@ -15,19 +15,21 @@
  */
 package com.reandroid.identifiers;
 
+import com.reandroid.utils.collection.IntMap;
+
 import java.util.*;
 
 class IdentifierMap<CHILD extends Identifier> extends Identifier
         implements Comparator<CHILD> {
     private final Object mLock = new Object();
-    private final Map<Integer, CHILD> idMap;
+    private final IntMap<CHILD> idMap;
     private final Map<String, CHILD> nameMap;
     private boolean mCaseInsensitive;
     private int maxId;
 
     public IdentifierMap(int id, String name){
         super(id, name);
-        this.idMap = new HashMap<>();
+        this.idMap = new IntMap<>();
         this.nameMap = new HashMap<>();
         this.mCaseInsensitive = CASE_INSENSITIVE_FS;
     }
@@ -38,7 +40,7 @@ class IdentifierMap<CHILD extends Identifier> extends Identifier
     public List<CHILD> listDuplicates(){
         List<CHILD> results = new ArrayList<>();
         Map<String, CHILD> uniques = new HashMap<>();
-        for(CHILD item : getItems()){
+        for(CHILD item : list()){
             String name = item.getName();
             if(isCaseInsensitive()){
                 name = name.toLowerCase();
@@ -126,7 +128,7 @@ class IdentifierMap<CHILD extends Identifier> extends Identifier
                 return null;
             }
             child.setParent(this);
-            Integer entryId = child.getId();
+            int entryId = child.getId();
             CHILD exist = this.idMap.get(entryId);
             if(exist != null){
                 if(exist.getName() == null){
@@ -146,7 +148,9 @@ class IdentifierMap<CHILD extends Identifier> extends Identifier
     public void reloadNameMap(){
         synchronized (mLock){
             this.nameMap.clear();
-            for(CHILD child : idMap.values()){
+            List<CHILD> childList = new ArrayList<>(idMap.values());
+            childList.sort(this);
+            for(CHILD child : childList){
                 addNameMap(child);
             }
         }
@@ -15,46 +15,41 @@
  */
 package com.reandroid.utils;
 
+/**
+ * Adler-32 computed by the engine of {@link ChecksumProvider#getDefault()}
+ * unless a provider is given.
+ * */
 public class ALDER32 extends Checksum {
 
-    private static final int MOD_ADLER = 0xfff1;
-
-    private int a;
-    private int b;
+    private final Checksum engine;
 
     public ALDER32() {
+        this(ChecksumProvider.getDefault());
+    }
+    public ALDER32(ChecksumProvider provider) {
         super();
-        this.a = 1;
-        this.b = 0;
+        this.engine = provider.newAdler32();
     }
 
+    @Override
+    public void update(byte data) {
+        engine.update(data);
+    }
     @Override
     public void update(byte[] data, int offset, int length) {
         if (length != 0) {
-            int mod = MOD_ADLER;
-            int a = this.a;
-            int b = this.b;
-            int end = offset + length;
-            for (int i = offset; i < end; i++) {
-                int v = data[i] & 0xFF;
-                a = (a + v) % mod;
-                b = (b + a) % mod;
-            }
-            this.a = a;
-            this.b = b;
+            engine.update(data, offset, length);
         }
     }
 
     @Override
     public long getValue() {
-        int i = (this.b << 16) | this.a;
-        return (long) i & 0xffffffffL;
+        return engine.getValue();
     }
 
     @Override
     public void reset() {
-        this.a = 1;
-        this.b = 0;
+        engine.reset();
     }
 
     @Override
@@ -0,0 +1,249 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.utils;
+
+/**
+ * Creates the engines behind {@link Crc32} and {@link ALDER32}.
+ * {@link #JDK} delegates to java.util.zip (intrinsic backed on most JVMs),
+ * {@link #JAVA} is a portable implementation (slicing-by-8 crc, deferred modulo adler).
+ * The default is JDK, can be changed by {@link #setDefault(ChecksumProvider)} or
+ * system property "reandroid.checksum" = "jdk" | "java"
+ * */
+public abstract class ChecksumProvider {
+
+    private final String name;
+
+    ChecksumProvider(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+    public abstract Checksum newCrc32();
+    public abstract Checksum newAdler32();
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+
+    public static ChecksumProvider getDefault() {
+        return sDefault;
+    }
+    public static void setDefault(ChecksumProvider provider) {
+        if(provider == null) {
+            provider = JDK;
+        }
+        sDefault = provider;
+    }
+    public static ChecksumProvider forName(String name) {
+        if(JAVA.getName().equalsIgnoreCase(name)) {
+            return JAVA;
+        }
+        if(JDK.getName().equalsIgnoreCase(name)) {
+            return JDK;
+        }
+        return null;
+    }
+
+    public static final ChecksumProvider JDK = new ChecksumProvider("jdk") {
+        @Override
+        public Checksum newCrc32() {
+            return new JdkChecksum(new java.util.zip.CRC32());
+        }
+        @Override
+        public Checksum newAdler32() {
+            return new JdkChecksum(new java.util.zip.Adler32());
+        }
+    };
+    public static final ChecksumProvider JAVA = new ChecksumProvider("java") {
+        @Override
+        public Checksum newCrc32() {
+            return new SlicingCrc32();
+        }
+        @Override
+        public Checksum newAdler32() {
+            return new BlockAdler32();
+        }
+    };
+
+    private static volatile ChecksumProvider sDefault = initDefault();
+
+    private static ChecksumProvider initDefault() {
+        ChecksumProvider provider = null;
+        try {
+            provider = forName(System.getProperty("reandroid.checksum"));
+        } catch (SecurityException ignored) {
+        }
+        if(provider == null) {
+            provider = JDK;
+        }
+        return provider;
+    }
+
+    static class JdkChecksum extends Checksum {
+
+        private final java.util.zip.Checksum checksum;
+
+        JdkChecksum(java.util.zip.Checksum checksum) {
+            super();
+            this.checksum = checksum;
+        }
+        @Override
+        public void update(byte data) {
+            checksum.update(data);
+        }
+        @Override
+        public void update(byte[] data, int offset, int length) {
+            checksum.update(data, offset, length);
+        }
+        @Override
+        public long getValue() {
+            return checksum.getValue();
+        }
+        @Override
+        public void reset() {
+            checksum.reset();
+        }
+    }
+
+    static class SlicingCrc32 extends Checksum {
+
+        private int crc;
+
+        SlicingCrc32() {
+            super();
+            this.crc = 0xffffffff;
+        }
+        @Override
+        public void update(byte[] data, int offset, int length) {
+            int[][] tables = CRC_TABLES;
+            int[] t0 = tables[0];
+            int[] t1 = tables[1];
+            int[] t2 = tables[2];
+            int[] t3 = tables[3];
+            int[] t4 = tables[4];
+            int[] t5 = tables[5];
+            int[] t6 = tables[6];
+            int[] t7 = tables[7];
+            int c = this.crc;
+            int i = offset;
+            int end = offset + length;
+            int end8 = end - 8;
+            while (i <= end8) {
+                c ^= (data[i] & 0xff)
+                        | ((data[i + 1] & 0xff) << 8)
+                        | ((data[i + 2] & 0xff) << 16)
+                        | ((data[i + 3] & 0xff) << 24);
+                int high = (data[i + 4] & 0xff)
+                        | ((data[i + 5] & 0xff) << 8)
+                        | ((data[i + 6] & 0xff) << 16)
+                        | ((data[i + 7] & 0xff) << 24);
+                c = t7[c & 0xff] ^ t6[(c >>> 8) & 0xff] ^ t5[(c >>> 16) & 0xff] ^ t4[c >>> 24]
+                        ^ t3[high & 0xff] ^ t2[(high >>> 8) & 0xff] ^ t1[(high >>> 16) & 0xff]
+                        ^ t0[high >>> 24];
+                i += 8;
+            }
+            while (i < end) {
+                c = t0[(c ^ data[i]) & 0xff] ^ (c >>> 8);
+                i ++;
+            }
+            this.crc = c;
+        }
+        @Override
+        public long getValue() {
+            return (~crc) & 0xffffffffL;
+        }
+        @Override
+        public void reset() {
+            this.crc = 0xffffffff;
+        }
+
+        // implemented from http://www.libpng.org/pub/png/spec/1.2/PNG-CRCAppendix.html
+        private static final int[][] CRC_TABLES;
+
+        static {
+            int[][] tables = new int[8][256];
+            int[] t0 = tables[0];
+            for (int i = 0; i < 256; i++) {
+                int c = i;
+                for (int j = 0; j < 8; j++) {
+                    if ((c & 1) == 1) {
+                        c = 0xedb88320 ^ (c >>> 1);
+                    } else {
+                        c = c >>> 1;
+                    }
+                }
+                t0[i] = c;
+            }
+            for (int k = 1; k < 8; k++) {
+                int[] previous = tables[k - 1];
+                int[] table = tables[k];
+                for (int i = 0; i < 256; i++) {
+                    int c = previous[i];
+                    table[i] = (c >>> 8) ^ t0[c & 0xff];
+                }
+            }
+            CRC_TABLES = tables;
+        }
+    }
+
+    static class BlockAdler32 extends Checksum {
+
+        private int a;
+        private int b;
+
+        BlockAdler32() {
+            super();
+            this.a = 1;
+            this.b = 0;
+        }
+        @Override
+        public void update(byte[] data, int offset, int length) {
+            int a = this.a;
+            int b = this.b;
+            int i = offset;
+            while (length > 0) {
+                int count = NumbersUtil.min(length, NMAX);
+                length -= count;
+                int end = i + count;
+                while (i < end) {
+                    a += data[i] & 0xff;
+                    b += a;
+                    i ++;
+                }
+                a %= MOD_ADLER;
+                b %= MOD_ADLER;
+            }
+            this.a = a;
+            this.b = b;
+        }
+        @Override
+        public long getValue() {
+            return (((long) b) << 16) | a;
+        }
+        @Override
+        public void reset() {
+            this.a = 1;
+            this.b = 0;
+        }
+
+        private static final int MOD_ADLER = 0xfff1;
+        // largest n such that 255n(n+1)/2 + (n+1)(MOD_ADLER-1) <= 2^31-1
+        private static final int NMAX = 3854;
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.utils;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Creates the engines behind {@link Sha1OutputStream} and other sha digests.
+ * {@link #JDK} delegates to java.security.MessageDigest (intrinsic backed on most JVMs)
+ * and falls back to the bundled implementation when an algorithm is not available,
+ * {@link #JAVA} always uses the bundled {@link SHA1} / {@link SHA256}, there is no bundled sha-512.
+ * The default is JDK, can be changed by {@link #setDefault(DigestProvider)} or
+ * system property "reandroid.digest" = "jdk" | "java"
+ * */
+public abstract class DigestProvider {
+
+    private final String name;
+
+    DigestProvider(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+    public abstract ByteDigest newSha1();
+    public abstract ByteDigest newSha256();
+    public abstract ByteDigest newSha512();
+
+    /**
+     * Returns digest for "SHA-1", "SHA-256" or "SHA-512", otherwise null
+     * */
+    public ByteDigest newDigest(String algorithm) {
+        if(ALGORITHM_SHA1.equalsIgnoreCase(algorithm)) {
+            return newSha1();
+        }
+        if(ALGORITHM_SHA256.equalsIgnoreCase(algorithm)) {
+            return newSha256();
+        }
+        if(ALGORITHM_SHA512.equalsIgnoreCase(algorithm)) {
+            return newSha512();
+        }
+        return null;
+    }
+    @Override
+    public String toString() {
+        return getName();
+    }
+
+    public static DigestProvider getDefault() {
+        return sDefault;
+    }
+    public static void setDefault(DigestProvider provider) {
+        if(provider == null) {
+            provider = JDK;
+        }
+        sDefault = provider;
+    }
+    public static DigestProvider forName(String name) {
+        if(JAVA.getName().equalsIgnoreCase(name)) {
+            return JAVA;
+        }
+        if(JDK.getName().equalsIgnoreCase(name)) {
+            return JDK;
+        }
+        return null;
+    }
+
+    public static final DigestProvider JAVA = new DigestProvider("java") {
+        @Override
+        public ByteDigest newSha1() {
+            return new SHA1();
+        }
+        @Override
+        public ByteDigest newSha256() {
+            return new SHA256();
+        }
+        @Override
+        public ByteDigest newSha512() {
+            // no bundled sha-512
+            return JDK.newSha512();
+        }
+    };
+    public static final DigestProvider JDK = new DigestProvider("jdk") {
+        @Override
+        public ByteDigest newSha1() {
+            MessageDigest messageDigest = newMessageDigest(ALGORITHM_SHA1);
+            if(messageDigest == null) {
+                return JAVA.newSha1();
+            }
+            return new JdkDigest(messageDigest);
+        }
+        @Override
+        public ByteDigest newSha256() {
+            MessageDigest messageDigest = newMessageDigest(ALGORITHM_SHA256);
+            if(messageDigest == null) {
+                return JAVA.newSha256();
+            }
+            return new JdkDigest(messageDigest);
+        }
+        @Override
+        public ByteDigest newSha512() {
+            MessageDigest messageDigest = newMessageDigest(ALGORITHM_SHA512);
+            if(messageDigest == null) {
+                throw new IllegalStateException("Missing digest: " + ALGORITHM_SHA512);
+            }
+            return new JdkDigest(messageDigest);
+        }
+    };
+
+    private static volatile DigestProvider sDefault = initDefault();
+
+    private static DigestProvider initDefault() {
+        DigestProvider provider = null;
+        try {
+            provider = forName(System.getProperty("reandroid.digest"));
+        } catch (SecurityException ignored) {
+        }
+        if(provider == null) {
+            provider = JDK;
+        }
+        return provider;
+    }
+    private static MessageDigest newMessageDigest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException ignored) {
+            return null;
+        }
+    }
+
+    static class JdkDigest extends ByteDigest {
+
+        private final MessageDigest messageDigest;
+
+        JdkDigest(MessageDigest messageDigest) {
+            super();
+            this.messageDigest = messageDigest;
+        }
+        @Override
+        public void update(byte data) {
+            messageDigest.update(data);
+        }
+        @Override
+        public void update(byte[] data, int offset, int length) {
+            messageDigest.update(data, offset, length);
+        }
+        @Override
+        public int getDigestLength() {
+            return messageDigest.getDigestLength();
+        }
+        @Override
+        public byte[] digest() {
+            return messageDigest.digest();
+        }
+        @Override
+        public void digest(byte[] out, int outOffset) {
+            try {
+                messageDigest.digest(out, outOffset, getDigestLength());
+            } catch (DigestException exception) {
+                throw new IllegalArgumentException(exception.getMessage(), exception);
+            }
+        }
+        @Override
+        public void reset() {
+            messageDigest.reset();
+        }
+        @Override
+        public String toString() {
+            return messageDigest.getAlgorithm();
+        }
+    }
+
+    private static final String ALGORITHM_SHA1 = "SHA-1";
+    private static final String ALGORITHM_SHA256 = "SHA-256";
+    private static final String ALGORITHM_SHA512 = "SHA-512";
+}
@@ -20,11 +20,14 @@ import java.io.OutputStream;
 
 public class Sha1OutputStream extends OutputStream {
 
-    private final SHA1 sha1;
+    private final ByteDigest sha1;
 
-    public Sha1OutputStream() {
+    public Sha1OutputStream(DigestProvider provider) {
         super();
-        this.sha1 = new SHA1();
+        this.sha1 = provider.newSha1();
+    }
+    public Sha1OutputStream() {
+        this(DigestProvider.getDefault());
     }
 
     public byte[] digest() {
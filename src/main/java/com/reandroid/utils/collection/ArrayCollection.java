@@ -30,6 +30,7 @@ public class ArrayCollection<T> implements ArraySupplier<T>, List<T>, Set<T>, Sw
     private int mLastGrow;
 
     private int mHashCode;
+    private int mModCount;
     private boolean mLocked;
 
     private Monitor<T> mMonitor;
@@ -1114,6 +1115,13 @@ public class ArrayCollection<T> implements ArraySupplier<T>, List<T>, Set<T>, Sw
 
     public void onChanged(){
         mHashCode = 0;
+        mModCount ++;
+    }
+    /**
+     * Incremented on every structural change (add, remove, set, move, swap, sort ...)
+     * */
+    public int getModCount() {
+        return mModCount;
     }
     private void notifyAdd(int i, T item){
         Monitor<T> monitor = getMonitor();
@@ -1282,6 +1290,13 @@ public class ArrayCollection<T> implements ArraySupplier<T>, List<T>, Set<T>, Sw
         public void setSize(int size) {
         }
         @Override
+        public void onChanged() {
+        }
+        @Override
+        public int getModCount() {
+            return 0;
+        }
+        @Override
         public int hashCode() {
             return 0;
         }
@@ -0,0 +1,218 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.utils.collection;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing int to int map, keys and values are never boxed.
+ * */
+public class IntIntMap {
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    public IntIntMap(int initialCapacity) {
+        int length = tableLength(initialCapacity);
+        this.keys = new int[length];
+        this.values = new int[length];
+    }
+    public IntIntMap() {
+        this(0);
+    }
+
+    public int size() {
+        return size;
+    }
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    public boolean containsKey(int key) {
+        if(key == 0) {
+            return hasZeroKey;
+        }
+        return indexOf(key) >= 0;
+    }
+    public int get(int key, int def) {
+        if(key == 0) {
+            if(hasZeroKey) {
+                return zeroValue;
+            }
+            return def;
+        }
+        int i = indexOf(key);
+        if(i < 0) {
+            return def;
+        }
+        return values[i];
+    }
+    public void put(int key, int value) {
+        if(key == 0) {
+            if(!hasZeroKey) {
+                hasZeroKey = true;
+                size ++;
+            }
+            zeroValue = value;
+            return;
+        }
+        int[] keys = this.keys;
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (true) {
+            int k = keys[i];
+            if(k == 0) {
+                break;
+            }
+            if(k == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        size ++;
+        if(size * 2 > keys.length) {
+            rehash(keys.length << 1);
+        }
+    }
+    public boolean remove(int key) {
+        if(key == 0) {
+            if(!hasZeroKey) {
+                return false;
+            }
+            hasZeroKey = false;
+            zeroValue = 0;
+            size --;
+            return true;
+        }
+        int i = indexOf(key);
+        if(i < 0) {
+            return false;
+        }
+        shiftBack(i);
+        size --;
+        return true;
+    }
+    public void clear() {
+        if(size == 0) {
+            return;
+        }
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, 0);
+        hasZeroKey = false;
+        zeroValue = 0;
+        size = 0;
+    }
+    /**
+     * Returns all keys, in no particular order
+     * */
+    public int[] keys() {
+        int[] results = new int[size];
+        int count = 0;
+        if(hasZeroKey) {
+            count ++;
+        }
+        int[] keys = this.keys;
+        for(int k : keys) {
+            if(k != 0) {
+                results[count] = k;
+                count ++;
+            }
+        }
+        return results;
+    }
+
+    private int indexOf(int key) {
+        int[] keys = this.keys;
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (true) {
+            int k = keys[i];
+            if(k == key) {
+                return i;
+            }
+            if(k == 0) {
+                return -1;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+    private void shiftBack(int free) {
+        int[] keys = this.keys;
+        int[] values = this.values;
+        int mask = keys.length - 1;
+        int i = free;
+        while (true) {
+            i = (i + 1) & mask;
+            int k = keys[i];
+            if(k == 0) {
+                break;
+            }
+            int slot = hash(k) & mask;
+            // move back unless the entry's home slot lies cyclically in (free, i]
+            if(free <= i ? (free >= slot || slot > i) : (free >= slot && slot > i)) {
+                keys[free] = k;
+                values[free] = values[i];
+                free = i;
+            }
+        }
+        keys[free] = 0;
+        values[free] = 0;
+    }
+    private void rehash(int length) {
+        int[] oldKeys = this.keys;
+        int[] oldValues = this.values;
+        int[] keys = new int[length];
+        int[] values = new int[length];
+        int mask = length - 1;
+        int count = oldKeys.length;
+        for(int j = 0; j < count; j++) {
+            int k = oldKeys[j];
+            if(k == 0) {
+                continue;
+            }
+            int i = hash(k) & mask;
+            while (keys[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = k;
+            values[i] = oldValues[j];
+        }
+        this.keys = keys;
+        this.values = values;
+    }
+    @Override
+    public String toString() {
+        return "size = " + size();
+    }
+
+    static int hash(int key) {
+        int h = key * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+    static int tableLength(int capacity) {
+        int length = 8;
+        capacity = capacity * 2;
+        while (length < capacity && length < (1 << 30)) {
+            length = length << 1;
+        }
+        return length;
+    }
+}
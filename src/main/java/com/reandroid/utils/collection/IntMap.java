@@ -0,0 +1,218 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.utils.collection;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Open addressing int to object map, keys are never boxed. Null values are not
+ * stored, putting null removes the key.
+ * */
+@SuppressWarnings("unchecked")
+public class IntMap<V> {
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+
+    public IntMap(int initialCapacity) {
+        int length = IntIntMap.tableLength(initialCapacity);
+        this.keys = new int[length];
+        this.values = new Object[length];
+    }
+    public IntMap() {
+        this(0);
+    }
+
+    public int size() {
+        return size;
+    }
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+    public V get(int key) {
+        int i = indexOf(key);
+        if(i < 0) {
+            return null;
+        }
+        return (V) values[i];
+    }
+    public V put(int key, V value) {
+        if(value == null) {
+            return remove(key);
+        }
+        int[] keys = this.keys;
+        Object[] values = this.values;
+        int mask = keys.length - 1;
+        int i = IntIntMap.hash(key) & mask;
+        while (true) {
+            Object obj = values[i];
+            if(obj == null) {
+                break;
+            }
+            if(keys[i] == key) {
+                values[i] = value;
+                return (V) obj;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        size ++;
+        if(size * 2 > keys.length) {
+            rehash(keys.length << 1);
+        }
+        return null;
+    }
+    public V remove(int key) {
+        int i = indexOf(key);
+        if(i < 0) {
+            return null;
+        }
+        V result = (V) values[i];
+        shiftBack(i);
+        size --;
+        return result;
+    }
+    public void clear() {
+        if(size == 0) {
+            return;
+        }
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+    /**
+     * Live view of values, in no particular order
+     * */
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new ValuesIterator();
+            }
+            @Override
+            public int size() {
+                return IntMap.this.size();
+            }
+        };
+    }
+
+    private int indexOf(int key) {
+        int[] keys = this.keys;
+        Object[] values = this.values;
+        int mask = keys.length - 1;
+        int i = IntIntMap.hash(key) & mask;
+        while (values[i] != null) {
+            if(keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+    private void shiftBack(int free) {
+        int[] keys = this.keys;
+        Object[] values = this.values;
+        int mask = keys.length - 1;
+        int i = free;
+        while (true) {
+            i = (i + 1) & mask;
+            Object obj = values[i];
+            if(obj == null) {
+                break;
+            }
+            int k = keys[i];
+            int slot = IntIntMap.hash(k) & mask;
+            // move back unless the entry's home slot lies cyclically in (free, i]
+            if(free <= i ? (free >= slot || slot > i) : (free >= slot && slot > i)) {
+                keys[free] = k;
+                values[free] = obj;
+                free = i;
+            }
+        }
+        keys[free] = 0;
+        values[free] = null;
+    }
+    private void rehash(int length) {
+        int[] oldKeys = this.keys;
+        Object[] oldValues = this.values;
+        int[] keys = new int[length];
+        Object[] values = new Object[length];
+        int mask = length - 1;
+        int count = oldKeys.length;
+        for(int j = 0; j < count; j++) {
+            Object obj = oldValues[j];
+            if(obj == null) {
+                continue;
+            }
+            int k = oldKeys[j];
+            int i = IntIntMap.hash(k) & mask;
+            while (values[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = k;
+            values[i] = obj;
+        }
+        this.keys = keys;
+        this.values = values;
+    }
+    @Override
+    public String toString() {
+        return "size = " + size();
+    }
+
+    private class ValuesIterator implements Iterator<V> {
+        private final Object[] table;
+        private int index;
+        private int remaining;
+
+        ValuesIterator() {
+            this.table = IntMap.this.values;
+            this.remaining = IntMap.this.size;
+        }
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+        @Override
+        public V next() {
+            if(remaining <= 0) {
+                throw new NoSuchElementException();
+            }
+            Object[] table = this.table;
+            int length = table.length;
+            while (index < length && table[index] == null) {
+                index ++;
+            }
+            if(index >= length) {
+                throw new ConcurrentModificationException();
+            }
+            remaining --;
+            V value = (V) table[index];
+            index ++;
+            return value;
+        }
+    }
+}
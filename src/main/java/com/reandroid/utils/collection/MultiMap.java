@@ -262,6 +262,50 @@ public class MultiMap<K, V> {
             return true;
         }
     }
+    /**
+     * Moves only the values whose key computed by the function differs from the key
+     * they are mapped with, returns number of moved values.
+     * */
+    public int updateKeys(Function<? super V, K> function) {
+        synchronized (mLock) {
+            Map<K, Object> map = this.map;
+            if(map == null || map.isEmpty()) {
+                return 0;
+            }
+            ArrayCollection<Object> pairs = new ArrayCollection<>(map.size() * 2);
+            for(Map.Entry<K, Object> entry : map.entrySet()) {
+                Object obj = entry.getValue();
+                if(obj == null) {
+                    continue;
+                }
+                if(obj.getClass() == EntryList.class) {
+                    for(Object value : (EntryList<Object>) obj) {
+                        pairs.add(entry.getKey());
+                        pairs.add(value);
+                    }
+                }else {
+                    pairs.add(entry.getKey());
+                    pairs.add(obj);
+                }
+            }
+            int result = 0;
+            int size = pairs.size();
+            for(int i = 0; i < size; i += 2) {
+                K old = (K) pairs.get(i);
+                V value = (V) pairs.get(i + 1);
+                K key = function.apply(value);
+                if(old.equals(key)) {
+                    continue;
+                }
+                // the function may already have moved it
+                if(remove(old, value) != null) {
+                    putUnlocked(key, value);
+                    result ++;
+                }
+            }
+            return result;
+        }
+    }
     private Object combine(Object obj1, Object obj2) {
         if(obj1 == obj2) {
             return obj1;
@@ -1,11 +1,14 @@
 package com.reandroid.apk;
 
 import com.reandroid.TestUtils;
+import com.reandroid.archive.Archive;
+import com.reandroid.archive.ByteInputSource;
 import com.reandroid.arsc.base.BlockDiff;
 import com.reandroid.arsc.chunk.TableBlock;
 import com.reandroid.arsc.chunk.xml.AndroidManifestBlock;
 import com.reandroid.arsc.value.ResConfig;
 import com.reandroid.utils.io.FileUtil;
+import com.reandroid.utils.io.IOUtil;
 import org.junit.Assert;
 import org.junit.FixMethodOrder;
 import org.junit.Test;
@@ -13,6 +16,9 @@ import org.junit.runners.MethodSorters;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
 
 @FixMethodOrder(MethodSorters.NAME_ASCENDING)
 public class ApkModuleCoderTest {
@@ -89,6 +95,85 @@ public class ApkModuleCoderTest {
         Assert.assertFalse("Failed to delete: " + mDir_json, mDir_json.exists());
         compare(apkModule, apkModule_encoded);
     }
+    @Test
+    public void e_testRawCoderThreads() throws IOException {
+        File dir = new File(TestUtils.getTempDir(), "raw_threads");
+        FileUtil.deleteDirectory(dir);
+        Assert.assertTrue(dir.mkdirs());
+        File apk = new File(dir, "source.apk");
+        ApkModule source = new ApkModuleTest().createApkModule();
+        Random random = new Random(5);
+        Map<String, byte[]> assets = new TreeMap<>();
+        for(int i = 0; i < 24; i++) {
+            // larger than the positional read buffer, stored and deflated
+            byte[] bytes = new byte[(i % 4 == 0) ? 600000 + i : 3000 * i];
+            random.nextBytes(bytes);
+            String path = "assets/file_" + i + ".bin";
+            assets.put(path, bytes);
+            ByteInputSource inputSource = new ByteInputSource(bytes, path);
+            if((i & 1) != 0) {
+                inputSource.setMethod(Archive.STORED);
+            }
+            source.add(inputSource);
+        }
+        source.writeApk(apk);
+
+        File dir1 = decodeRaw(apk, new File(dir, "decoded_1"), 1);
+        File dir4 = decodeRaw(apk, new File(dir, "decoded_4"), 4);
+        Map<String, byte[]> files = listFiles(dir1);
+        Assert.assertTrue(files.size() > 24);
+        assertSameFiles(files, listFiles(dir4));
+
+        byte[] bytes1 = encodeRaw(dir1, 1);
+        byte[] bytes4 = encodeRaw(dir4, 4);
+        Assert.assertArrayEquals(bytes1, bytes4);
+        ApkModule encoded = ApkModule.readApkBytes(bytes4);
+        for(Map.Entry<String, byte[]> entry : assets.entrySet()) {
+            String path = entry.getKey();
+            Assert.assertArrayEquals(path, entry.getValue(),
+                    files.get(ApkUtil.ROOT_NAME + "/" + path));
+            Assert.assertArrayEquals(path, entry.getValue(),
+                    IOUtil.readFully(encoded.getInputSource(path).openStream()));
+        }
+        FileUtil.deleteDirectory(dir);
+    }
+    private static File decodeRaw(File apk, File dir, int threads) throws IOException {
+        ApkModule apkModule = ApkModule.loadApkFile(apk);
+        ApkModuleRawDecoder decoder = new ApkModuleRawDecoder(apkModule);
+        decoder.setThreads(threads);
+        decoder.decode(dir);
+        apkModule.close();
+        return dir;
+    }
+    private static byte[] encodeRaw(File dir, int threads) throws IOException {
+        ApkModuleRawEncoder encoder = new ApkModuleRawEncoder();
+        encoder.setThreads(threads);
+        encoder.scanDirectory(dir);
+        return encoder.getApkModule().writeApkBytes();
+    }
+    private static Map<String, byte[]> listFiles(File dir) throws IOException {
+        Map<String, byte[]> results = new TreeMap<>();
+        listFiles(dir, "", results);
+        return results;
+    }
+    private static void listFiles(File dir, String prefix, Map<String, byte[]> results) throws IOException {
+        File[] files = dir.listFiles();
+        Assert.assertNotNull(dir.getPath(), files);
+        for(File file : files) {
+            String path = prefix + file.getName();
+            if(file.isDirectory()) {
+                listFiles(file, path + "/", results);
+            } else {
+                results.put(path, IOUtil.readFully(file));
+            }
+        }
+    }
+    private static void assertSameFiles(Map<String, byte[]> expected, Map<String, byte[]> actual) {
+        Assert.assertEquals(expected.keySet(), actual.keySet());
+        for(Map.Entry<String, byte[]> entry : expected.entrySet()) {
+            Assert.assertArrayEquals(entry.getKey(), entry.getValue(), actual.get(entry.getKey()));
+        }
+    }
     private void compare(ApkModule module1, ApkModule module2) throws IOException {
         Assert.assertEquals(module1.getZipEntryMap().size(), module2.getZipEntryMap().size());
 
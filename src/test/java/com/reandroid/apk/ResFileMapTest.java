@@ -0,0 +1,107 @@
+package com.reandroid.apk;
+
+import com.reandroid.archive.ByteInputSource;
+import com.reandroid.archive.InputSource;
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.value.Entry;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class ResFileMapTest {
+
+    @Test
+    public void testIndexMatchesLinearLookup() throws IOException {
+        ApkModule apkModule = createModule();
+        assertIndex(apkModule);
+
+        addFile(apkModule, "drawable", "banner", "-land", "res/drawable-land/banner.png");
+        Assert.assertNotNull(apkModule.getResFile("res/drawable-land/banner.png"));
+        assertIndex(apkModule);
+
+        ResFile resFile = apkModule.getResFile("res/drawable/icon.png");
+        resFile.setFilePath("res/drawable/renamed.png");
+        Assert.assertNull(apkModule.getResFile("res/drawable/icon.png"));
+        assertIndex(apkModule);
+
+        Assert.assertTrue(apkModule.removeResFile("res/drawable-land/banner.png"));
+        Assert.assertNull(apkModule.getResFile("res/drawable-land/banner.png"));
+        assertIndex(apkModule);
+
+        Assert.assertNull(apkModule.getResFile("classes.dex"));
+        Assert.assertNull(apkModule.getResFile("res/drawable/missing.png"));
+    }
+    @Test
+    public void testResFilesAreNotShared() throws IOException {
+        ApkModule apkModule = createModule();
+        String path = "res/drawable/icon.png";
+        ResFile resFile1 = apkModule.getResFile(path);
+        Entry selected = resFile1.pickOne();
+        Assert.assertNotNull(selected);
+        ResFile resFile2 = apkModule.getResFile(path);
+        Assert.assertNotSame(resFile1, resFile2);
+        Assert.assertNotSame(apkModule.listResFiles().get(0), apkModule.listResFiles().get(0));
+
+        // config change is not tracked by the index, must be seen by a new instance
+        selected.getResConfig().setLanguage("fr");
+        Assert.assertEquals("fr", apkModule.getResFile(path).pickOne()
+                .getResConfig().getLanguage());
+
+        // deleting entries of an instance does not empty the index
+        resFile2.getEntryList().clear();
+        Assert.assertEquals(resFile1.size(), apkModule.getResFile(path).size());
+    }
+
+    private static void assertIndex(ApkModule apkModule) {
+        Map<String, List<Entry>> expected = new TreeMap<>();
+        for(InputSource inputSource : apkModule.getInputSources()) {
+            String path = inputSource.getAlias();
+            List<Entry> entryList = new ArrayList<>(apkModule.listReferencedEntries(path));
+            if(!entryList.isEmpty()) {
+                expected.put(path, entryList);
+            }
+        }
+        Map<String, List<Entry>> results = new TreeMap<>();
+        for(ResFile resFile : apkModule.listResFiles()) {
+            List<Entry> entryList = results.computeIfAbsent(resFile.getFilePath(),
+                    key -> new ArrayList<>());
+            for(Entry entry : resFile) {
+                entryList.add(entry);
+            }
+        }
+        Assert.assertEquals(expected.keySet(), results.keySet());
+        for(String path : expected.keySet()) {
+            Assert.assertEquals(path, expected.get(path), results.get(path));
+            ResFile resFile = apkModule.getResFile(path);
+            if(apkModule.getInputSource(path) == null) {
+                // renamed source, not looked up by its new alias
+                Assert.assertNull(path, resFile);
+                continue;
+            }
+            Assert.assertNotNull(path, resFile);
+            List<Entry> entryList = new ArrayList<>();
+            for(Entry entry : resFile) {
+                entryList.add(entry);
+            }
+            Assert.assertEquals(path, expected.get(path), entryList);
+        }
+    }
+    private static ApkModule createModule() throws IOException {
+        ApkModule apkModule = new ApkModuleTest().createApkModule();
+        addFile(apkModule, "drawable", "icon", "", "res/drawable/icon.png");
+        addFile(apkModule, "drawable", "icon", "-hdpi", "res/drawable-hdpi/icon.png");
+        return apkModule;
+    }
+    private static void addFile(ApkModule apkModule, String type, String name,
+                                String qualifiers, String path) {
+        PackageBlock packageBlock = apkModule.getTableBlock().pickOne();
+        Entry entry = packageBlock.getOrCreate(qualifiers, type, name);
+        entry.setValueAsString(path);
+        apkModule.add(new ByteInputSource(new byte[]{1, 2, 3}, path));
+    }
+}
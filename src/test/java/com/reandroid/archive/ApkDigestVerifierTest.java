@@ -0,0 +1,70 @@
+package com.reandroid.archive;
+
+import com.reandroid.TestUtils;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.utils.io.IOUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.Iterator;
+
+public class ApkDigestVerifierTest {
+
+    @Test
+    public void testVerifySignedApk() throws IOException {
+        File file = copyResource("signed.apk");
+        for(int threads : new int[]{1, 4}) {
+            ApkDigestVerifier verifier = new ApkDigestVerifier(file);
+            verifier.setThreads(threads);
+            ApkDigestVerifier.Result result = verifier.verify();
+            verifier.close();
+            Assert.assertTrue(result.toString(), result.isSigned());
+            Assert.assertTrue(result.toString(), result.isVerified());
+        }
+    }
+    @Test
+    public void testVerifyModifiedEntry() throws IOException {
+        File file = copyResource("modified.apk");
+        ArchiveFile archive = new ArchiveFile(file);
+        long offset = -1;
+        Iterator<ArchiveEntry> iterator = archive.getFiles();
+        while (iterator.hasNext()) {
+            ArchiveEntry archiveEntry = iterator.next();
+            if(TableBlock.FILE_NAME.equals(archiveEntry.getName())) {
+                offset = archiveEntry.getFileOffset();
+            }
+        }
+        archive.close();
+        Assert.assertTrue(offset > 0);
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        randomAccessFile.seek(offset);
+        int value = randomAccessFile.read();
+        randomAccessFile.seek(offset);
+        randomAccessFile.write(value ^ 0xff);
+        randomAccessFile.close();
+
+        ApkDigestVerifier verifier = new ApkDigestVerifier(file);
+        ApkDigestVerifier.Result result = verifier.verify();
+        verifier.close();
+        Assert.assertTrue(result.toString(), result.isSigned());
+        Assert.assertFalse(result.toString(), result.isVerified());
+    }
+
+    private static File copyResource(String name) throws IOException {
+        File dir = new File(TestUtils.getTempDir(), "digest");
+        Assert.assertTrue(dir.exists() || dir.mkdirs());
+        File file = new File(dir, name);
+        InputStream inputStream = ApkDigestVerifierTest.class
+                .getResourceAsStream("/type_id_offset.apk");
+        Assert.assertNotNull(inputStream);
+        FileOutputStream outputStream = new FileOutputStream(file);
+        outputStream.write(IOUtil.readFully(inputStream));
+        outputStream.close();
+        return file;
+    }
+}
@@ -0,0 +1,177 @@
+package com.reandroid.archive;
+
+import com.reandroid.TestUtils;
+import com.reandroid.apk.ApkModule;
+import com.reandroid.apk.ApkModuleTest;
+import com.reandroid.archive.block.CentralEntryHeader;
+import com.reandroid.archive.block.DataDescriptor;
+import com.reandroid.archive.block.LocalFileHeader;
+import com.reandroid.archive.writer.ApkIncrementalWriter;
+import com.reandroid.archive.writer.HeaderInterceptor;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.utils.io.IOUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+public class ApkIncrementalWriterTest {
+
+    @Test
+    public void testManifestChange() throws IOException {
+        File file = createSourceApk("manifest.apk");
+        ApkModule apkModule = ApkModule.loadApkFile(file);
+        apkModule.getAndroidManifest().setVersionCode(1234);
+        ApkIncrementalWriter writer = writeIncremental(apkModule, file);
+
+        // manifest is the first record, the rest must stay in place
+        Assert.assertEquals(countEntries(file) - 1, writer.getKeptCount());
+        Assert.assertEquals(1234, reload(file).getAndroidManifest().getVersionCode().intValue());
+    }
+    @Test
+    public void testTableChange() throws IOException {
+        File file = createSourceApk("table.apk");
+        ApkModule apkModule = ApkModule.loadApkFile(file);
+        TableBlock tableBlock = apkModule.getTableBlock();
+        tableBlock.pickOne().setName("com.example.changed");
+        ApkIncrementalWriter writer = writeIncremental(apkModule, file);
+
+        // loading the table also loads the manifest, both are encoded
+        Assert.assertEquals(countEntries(file) - 2, writer.getKeptCount());
+        Assert.assertEquals("com.example.changed",
+                reload(file).getTableBlock().pickOne().getName());
+    }
+    @Test
+    public void testForeignApk() throws IOException {
+        File source = createSourceApk("foreign_source.apk");
+        File file = new File(source.getParentFile(), "foreign.apk");
+        rewriteWithJavaZip(source, file);
+        ApkModule apkModule = ApkModule.loadApkFile(file);
+        apkModule.getAndroidManifest().setVersionCode(4321);
+        ApkIncrementalWriter writer = writeIncremental(apkModule, file);
+
+        // unaligned stored resources.arsc is moved
+        Assert.assertEquals(countEntries(file) - 2, writer.getKeptCount());
+        Assert.assertEquals(4321, reload(file).getAndroidManifest().getVersionCode().intValue());
+    }
+    @Test
+    public void testInterceptedOncePerEntry() throws IOException {
+        File file = createSourceApk("intercept.apk");
+        ApkModule apkModule = ApkModule.loadApkFile(file);
+        apkModule.getAndroidManifest().setVersionCode(5678);
+        apkModule.add(new ByteInputSource(new byte[300], "assets/added.bin"));
+        Map<String, Integer> lfhCounts = new HashMap<>();
+        Map<String, Integer> cehCounts = new HashMap<>();
+        ApkIncrementalWriter writer = apkModule.createApkIncrementalWriter(file);
+        writer.setHeaderInterceptor(new HeaderInterceptor() {
+            @Override
+            public void onWriteLfh(LocalFileHeader header) {
+                lfhCounts.merge(header.getFileName(), 1, Integer::sum);
+            }
+            @Override
+            public void onWriteDD(DataDescriptor dataDescriptor) {
+            }
+            @Override
+            public void onWriteCeh(CentralEntryHeader header) {
+                cehCounts.merge(header.getFileName(), 1, Integer::sum);
+            }
+        });
+        writer.write();
+        apkModule.close();
+
+        int count = countEntries(file);
+        Assert.assertEquals(count, cehCounts.size());
+        Assert.assertEquals(count - writer.getKeptCount(), lfhCounts.size());
+        Assert.assertTrue(lfhCounts.containsKey("assets/added.bin"));
+        for(Map.Entry<String, Integer> entry : lfhCounts.entrySet()){
+            Assert.assertEquals(entry.getKey(), 1, entry.getValue().intValue());
+        }
+        for(Map.Entry<String, Integer> entry : cehCounts.entrySet()){
+            Assert.assertEquals(entry.getKey(), 1, entry.getValue().intValue());
+        }
+        Assert.assertEquals(5678, reload(file).getAndroidManifest().getVersionCode().intValue());
+    }
+
+    private static ApkIncrementalWriter writeIncremental(ApkModule apkModule, File file) throws IOException {
+        File expected = new File(file.getParentFile(), "expected_" + file.getName());
+        apkModule.writeApk(expected);
+        long length = file.length();
+        ApkIncrementalWriter writer = apkModule.writeApkIncremental(file);
+        apkModule.close();
+        Assert.assertTrue("Kept bytes", writer.getKeptBytes() > 0);
+        Assert.assertTrue("Grown from " + length + " to " + file.length(),
+                file.length() < length + 4096 * 2);
+        assertSameEntries(readEntries(expected), readEntries(file));
+        return writer;
+    }
+    private static ApkModule reload(File file) throws IOException {
+        ApkModule apkModule = ApkModule.loadApkFile(file);
+        ApkModule loaded = ApkModule.readApkBytes(apkModule.writeApkBytes());
+        apkModule.close();
+        return loaded;
+    }
+    private static File createSourceApk(String name) throws IOException {
+        File dir = new File(TestUtils.getTempDir(), "incremental");
+        Assert.assertTrue(dir.exists() || dir.mkdirs());
+        File file = new File(dir, name);
+        file.delete();
+        ApkModule apkModule = new ApkModuleTest().createApkModule();
+        apkModule.writeApk(file);
+        return file;
+    }
+    private static void rewriteWithJavaZip(File source, File file) throws IOException {
+        Map<String, byte[]> entries = readEntries(source);
+        ZipOutputStream outputStream = new ZipOutputStream(new FileOutputStream(file));
+        for(Map.Entry<String, byte[]> entry : entries.entrySet()){
+            ZipEntry zipEntry = new ZipEntry(entry.getKey());
+            byte[] bytes = entry.getValue();
+            if(TableBlock.FILE_NAME.equals(entry.getKey())){
+                CRC32 crc32 = new CRC32();
+                crc32.update(bytes);
+                zipEntry.setMethod(ZipEntry.STORED);
+                zipEntry.setSize(bytes.length);
+                zipEntry.setCompressedSize(bytes.length);
+                zipEntry.setCrc(crc32.getValue());
+            }
+            outputStream.putNextEntry(zipEntry);
+            outputStream.write(bytes);
+            outputStream.closeEntry();
+        }
+        outputStream.close();
+    }
+    private static void assertSameEntries(Map<String, byte[]> expected, Map<String, byte[]> actual){
+        Assert.assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(actual.keySet()));
+        for(Map.Entry<String, byte[]> entry : expected.entrySet()){
+            Assert.assertArrayEquals(entry.getKey(), entry.getValue(), actual.get(entry.getKey()));
+        }
+    }
+    private static int countEntries(File file) throws IOException {
+        return readEntries(file).size();
+    }
+    // java.util.zip verifies crc and sizes of each entry while reading
+    private static Map<String, byte[]> readEntries(File file) throws IOException {
+        Map<String, byte[]> results = new LinkedHashMap<>();
+        ZipFile zipFile = new ZipFile(file);
+        try {
+            Enumeration<? extends ZipEntry> enumeration = zipFile.entries();
+            while (enumeration.hasMoreElements()){
+                ZipEntry zipEntry = enumeration.nextElement();
+                results.put(zipEntry.getName(), IOUtil.readFully(zipFile.getInputStream(zipEntry)));
+            }
+        } finally {
+            zipFile.close();
+        }
+        return results;
+    }
+}
@@ -0,0 +1,158 @@
+package com.reandroid.archive;
+
+import com.reandroid.archive.block.CentralEntryHeader;
+import com.reandroid.archive.block.DataDescriptor;
+import com.reandroid.archive.block.LocalFileHeader;
+import com.reandroid.archive.writer.ApkStreamWriter;
+import com.reandroid.archive.writer.DataDescriptorFactory;
+import com.reandroid.archive.writer.HeaderInterceptor;
+import com.reandroid.utils.io.IOUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+public class ApkStreamWriterTest {
+
+    @Test
+    public void testStreamingRoundTrip() throws IOException {
+        Map<String, byte[]> entries = createEntries();
+        List<String> interceptedNames = new ArrayList<>();
+        byte[] bytes = writeStreaming(entries, "resources.arsc", new HeaderInterceptor() {
+            @Override
+            public void onWriteLfh(LocalFileHeader header) {
+                // interceptor sees the header exactly as written
+                Assert.assertTrue(header.getFileName(), header.hasDataDescriptor());
+                Assert.assertEquals(header.getFileName(), 0, header.getCrc());
+                Assert.assertEquals(header.getFileName(), 0, header.getSize());
+                interceptedNames.add(header.getFileName());
+            }
+            @Override
+            public void onWriteDD(DataDescriptor dataDescriptor) {
+            }
+            @Override
+            public void onWriteCeh(CentralEntryHeader header) {
+            }
+        });
+        Assert.assertEquals(new ArrayList<>(entries.keySet()), interceptedNames);
+
+        ArchiveBytes archive = new ArchiveBytes(bytes);
+        Assert.assertEquals(entries.size(), archive.size());
+        Iterator<ArchiveEntry> iterator = archive.getFiles();
+        while (iterator.hasNext()) {
+            ArchiveEntry archiveEntry = iterator.next();
+            String name = archiveEntry.getName();
+            byte[] expected = entries.get(name);
+            Assert.assertNotNull(name, expected);
+            byte[] content = IOUtil.readFully(archive.openInputStream(archiveEntry));
+            Assert.assertArrayEquals(name, expected, content);
+
+            CentralEntryHeader ceh = archiveEntry.getCentralEntryHeader();
+            Assert.assertEquals(name, crcOf(expected), ceh.getCrc());
+            Assert.assertEquals(name, expected.length, ceh.getSize());
+
+            DataDescriptor dataDescriptor = archiveEntry.getLocalFileHeader().getDataDescriptor();
+            Assert.assertNotNull(name, dataDescriptor);
+            Assert.assertEquals(name, ceh.getCrc(), dataDescriptor.getCrc());
+            Assert.assertEquals(name, ceh.getSize(), dataDescriptor.getSize());
+            Assert.assertEquals(name, ceh.getCompressedSize(), dataDescriptor.getCompressedSize());
+        }
+        archive.close();
+    }
+    @Test
+    public void testStreamingDeflatedWithZipInputStream() throws IOException {
+        Map<String, byte[]> entries = createEntries();
+        byte[] bytes = writeStreaming(entries, null, null);
+        // ZipInputStream verifies crc and sizes against each data descriptor
+        ZipInputStream inputStream = new ZipInputStream(new ByteArrayInputStream(bytes));
+        Map<String, byte[]> results = new LinkedHashMap<>();
+        ZipEntry zipEntry;
+        while ((zipEntry = inputStream.getNextEntry()) != null) {
+            results.put(zipEntry.getName(), readEntry(inputStream));
+            Assert.assertEquals(zipEntry.getName(), crcOf(results.get(zipEntry.getName())),
+                    zipEntry.getCrc());
+        }
+        inputStream.close();
+        Assert.assertEquals(new ArrayList<>(entries.keySet()), new ArrayList<>(results.keySet()));
+        for(Map.Entry<String, byte[]> entry : entries.entrySet()) {
+            Assert.assertArrayEquals(entry.getKey(), entry.getValue(), results.get(entry.getKey()));
+        }
+    }
+    @Test(expected = IOException.class)
+    public void testStreamingRequiresDataDescriptor() throws IOException {
+        ApkStreamWriter writer = new ApkStreamWriter(new ByteArrayOutputStream(),
+                toSources(createEntries(), null));
+        writer.setStreaming(true);
+        writer.setDataDescriptorFactory(DataDescriptorFactory.NONE);
+        writer.write();
+    }
+
+    private static byte[] writeStreaming(Map<String, byte[]> entries, String stored,
+                                         HeaderInterceptor interceptor) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ApkStreamWriter writer = new ApkStreamWriter(outputStream, toSources(entries, stored));
+        writer.setStreaming(true);
+        if(interceptor != null) {
+            writer.setHeaderInterceptor(interceptor);
+        }
+        writer.write();
+        return outputStream.toByteArray();
+    }
+    private static InputSource[] toSources(Map<String, byte[]> entries, String stored) {
+        List<InputSource> results = new ArrayList<>();
+        for(Map.Entry<String, byte[]> entry : entries.entrySet()) {
+            ByteInputSource inputSource = new ByteInputSource(entry.getValue(), entry.getKey());
+            if(entry.getKey().equals(stored)) {
+                inputSource.setMethod(Archive.STORED);
+            }
+            results.add(inputSource);
+        }
+        return results.toArray(new InputSource[0]);
+    }
+    private static Map<String, byte[]> createEntries() {
+        Map<String, byte[]> results = new LinkedHashMap<>();
+        results.put("AndroidManifest.xml", repeat("manifest", 300));
+        results.put("classes.dex", repeat("dex", 5000));
+        results.put("empty.txt", new byte[0]);
+        results.put("resources.arsc", repeat("table", 2000));
+        results.put("res/raw/random.bin", randomBytes(70000));
+        return results;
+    }
+    private static byte[] readEntry(ZipInputStream inputStream) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = inputStream.read(buffer)) > 0) {
+            outputStream.write(buffer, 0, read);
+        }
+        return outputStream.toByteArray();
+    }
+    private static byte[] repeat(String text, int count) {
+        StringBuilder builder = new StringBuilder();
+        for(int i = 0; i < count; i++) {
+            builder.append(text).append(i);
+        }
+        return builder.toString().getBytes();
+    }
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(3).nextBytes(bytes);
+        return bytes;
+    }
+    private static long crcOf(byte[] bytes) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(bytes);
+        return crc32.getValue();
+    }
+}
@@ -0,0 +1,137 @@
+package com.reandroid.archive;
+
+import com.reandroid.TestUtils;
+import com.reandroid.utils.io.FileUtil;
+import com.reandroid.utils.io.IOUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class ArchiveTest {
+
+    @Test
+    public void testExtractAllConcurrently() throws IOException {
+        File dir = new File(TestUtils.getTempDir(), "extract_all");
+        FileUtil.deleteDirectory(dir);
+        Assert.assertTrue(dir.mkdirs());
+        File file = new File(dir, "source.zip");
+        Map<String, byte[]> entries = createEntries();
+        writeZip(file, entries);
+
+        ArchiveFile archiveFile = new ArchiveFile(file);
+        assertExtractAll(archiveFile, new File(dir, "file"), entries, null);
+        assertExtractAll(archiveFile, new File(dir, "file_filtered"), entries,
+                archiveEntry -> archiveEntry.getName().startsWith("assets/"));
+        archiveFile.close();
+
+        ArchiveBytes archiveBytes = new ArchiveBytes(IOUtil.readFully(file));
+        assertExtractAll(archiveBytes, new File(dir, "bytes"), entries, null);
+        archiveBytes.close();
+        FileUtil.deleteDirectory(dir);
+    }
+
+    private static void assertExtractAll(Archive<?> archive, File dir, Map<String, byte[]> entries,
+                                         Predicate<ArchiveEntry> filter) throws IOException {
+        File dir1 = new File(dir, "threads_1");
+        File dir4 = new File(dir, "threads_4");
+        int count1 = archive.extractAll(dir1, filter, null, 1);
+        int count4 = archive.extractAll(dir4, filter, null, 4);
+        Assert.assertEquals(count1, count4);
+
+        Map<String, File> files1 = listFiles(dir1);
+        Map<String, File> files4 = listFiles(dir4);
+        Assert.assertEquals(files1.keySet(), files4.keySet());
+        int expectedCount = 0;
+        for(Map.Entry<String, byte[]> entry : entries.entrySet()) {
+            String name = entry.getKey();
+            boolean included = filter == null || name.startsWith("assets/");
+            if(included) {
+                expectedCount ++;
+            }
+            if(name.endsWith("/")) {
+                continue;
+            }
+            Assert.assertEquals(name, included, files4.containsKey(name));
+            if(included) {
+                Assert.assertArrayEquals(name, entry.getValue(), IOUtil.readFully(files1.get(name)));
+                Assert.assertArrayEquals(name, entry.getValue(), IOUtil.readFully(files4.get(name)));
+                Assert.assertEquals(name, files1.get(name).lastModified(),
+                        files4.get(name).lastModified());
+            }
+        }
+        Assert.assertEquals(expectedCount, count4);
+    }
+    private static Map<String, File> listFiles(File dir) {
+        Map<String, File> results = new TreeMap<>();
+        listFiles(dir, "", results);
+        return results;
+    }
+    private static void listFiles(File dir, String prefix, Map<String, File> results) {
+        File[] files = dir.listFiles();
+        if(files == null) {
+            return;
+        }
+        for(File file : files) {
+            String path = prefix + file.getName();
+            if(file.isDirectory()) {
+                listFiles(file, path + "/", results);
+            } else {
+                results.put(path, file);
+            }
+        }
+    }
+    // stored and deflated entries, some larger than the positional read buffer
+    private static Map<String, byte[]> createEntries() {
+        Map<String, byte[]> results = new LinkedHashMap<>();
+        Random random = new Random(9);
+        results.put("assets/", new byte[0]);
+        for(int i = 0; i < 30; i++) {
+            int length = (i % 5 == 0) ? 400000 + i : 1000 * i;
+            byte[] bytes = new byte[length];
+            if((i & 1) == 0) {
+                random.nextBytes(bytes);
+            } else {
+                for(int j = 0; j < length; j++) {
+                    bytes[j] = (byte) ('a' + (j % 7));
+                }
+            }
+            String dir = (i % 3 == 0) ? "assets/" : "lib/x86/";
+            results.put(dir + "file_" + i + ".bin", bytes);
+        }
+        results.put("empty.txt", new byte[0]);
+        return results;
+    }
+    private static void writeZip(File file, Map<String, byte[]> entries) throws IOException {
+        ZipOutputStream outputStream = new ZipOutputStream(new FileOutputStream(file));
+        int index = 0;
+        for(Map.Entry<String, byte[]> entry : entries.entrySet()) {
+            ZipEntry zipEntry = new ZipEntry(entry.getKey());
+            byte[] bytes = entry.getValue();
+            zipEntry.setTime(1500000000000L + index * 60000L);
+            if((index & 1) == 0) {
+                CRC32 crc32 = new CRC32();
+                crc32.update(bytes);
+                zipEntry.setMethod(ZipEntry.STORED);
+                zipEntry.setSize(bytes.length);
+                zipEntry.setCompressedSize(bytes.length);
+                zipEntry.setCrc(crc32.getValue());
+            }
+            outputStream.putNextEntry(zipEntry);
+            outputStream.write(bytes);
+            outputStream.closeEntry();
+            index ++;
+        }
+        outputStream.close();
+    }
+}
@@ -0,0 +1,80 @@
+package com.reandroid.archive;
+
+import com.reandroid.archive.writer.ApkByteWriter;
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.value.Entry;
+import com.reandroid.arsc.value.ValueType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.zip.CRC32;
+
+public class BlockInputSourceTest {
+
+    @Test
+    public void testCrcAfterWrite() throws IOException {
+        TableBlock tableBlock = createTable();
+        BlockInputSource<TableBlock> inputSource = new BlockInputSource<>(TableBlock.FILE_NAME, tableBlock);
+        new ApkByteWriter(new InputSource[]{inputSource}).write();
+
+        byte[] bytes = tableBlock.getBytes();
+        Assert.assertEquals(bytes.length, inputSource.getLength());
+        Assert.assertEquals(crcOf(bytes), inputSource.getCrc());
+    }
+    @Test
+    public void testCrcAfterBlockChange() throws IOException {
+        TableBlock tableBlock = createTable();
+        BlockInputSource<TableBlock> inputSource = new BlockInputSource<>(TableBlock.FILE_NAME, tableBlock);
+        long crc = inputSource.getCrc();
+        Assert.assertEquals(crcOf(tableBlock.getBytes()), crc);
+
+        // same size change
+        Entry entry = inputSource.getBlock().pickOne().getEntry("integer", "name_0");
+        entry.setValueAsRaw(ValueType.DEC, 100);
+        byte[] bytes = tableBlock.getBytes();
+        Assert.assertNotEquals(crc, inputSource.getCrc());
+        Assert.assertEquals(crcOf(bytes), inputSource.getCrc());
+
+        // size change through a reference kept from before
+        tableBlock.pickOne().getOrCreate("", "integer", "name_new")
+                .setValueAsRaw(ValueType.DEC, 1);
+        tableBlock.refresh();
+        bytes = tableBlock.getBytes();
+        Assert.assertEquals(bytes.length, inputSource.getLength());
+        Assert.assertEquals(crcOf(bytes), inputSource.getCrc());
+    }
+
+    @Test
+    public void testCrcAfterSameSizeChangeOfHeldBlock() throws IOException {
+        TableBlock tableBlock = createTable();
+        // reference kept from before any crc is computed
+        Entry entry = tableBlock.pickOne().getEntry("integer", "name_1");
+        BlockInputSource<TableBlock> inputSource = new BlockInputSource<>(TableBlock.FILE_NAME, tableBlock);
+        new ApkByteWriter(new InputSource[]{inputSource}).write();
+        long crc = inputSource.getCrc();
+        long length = inputSource.getLength();
+
+        entry.setValueAsRaw(ValueType.DEC, 200);
+        byte[] bytes = tableBlock.getBytes();
+        Assert.assertEquals(length, bytes.length);
+        Assert.assertNotEquals(crc, inputSource.getCrc());
+        Assert.assertEquals(crcOf(bytes), inputSource.getCrc());
+    }
+
+    private static long crcOf(byte[] bytes) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(bytes);
+        return crc32.getValue();
+    }
+    private static TableBlock createTable() {
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, "com.example");
+        for(int i = 0; i < 4; i++) {
+            packageBlock.getOrCreate("", "integer", "name_" + i).setValueAsRaw(ValueType.DEC, i);
+        }
+        tableBlock.refreshFull();
+        return tableBlock;
+    }
+}
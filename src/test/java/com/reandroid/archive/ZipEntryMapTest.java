@@ -0,0 +1,134 @@
+package com.reandroid.archive;
+
+import com.reandroid.utils.collection.CollectionUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class ZipEntryMapTest {
+
+    @Test
+    public void testDirectoryQueryAfterRename() {
+        ZipEntryMap zipEntryMap = createMap("res/layout/a.xml", "res/layout/b.xml", "res/raw/c.bin");
+        Assert.assertTrue(zipEntryMap.containsDirectory("res/raw"));
+        Assert.assertEquals(2, list(zipEntryMap, "res/layout").size());
+
+        int modCount = zipEntryMap.getModCount();
+        zipEntryMap.getInputSource("res/raw/c.bin").setAlias("res/xml/c.bin");
+        Assert.assertNotEquals(modCount, zipEntryMap.getModCount());
+
+        Assert.assertFalse(zipEntryMap.containsDirectory("res/raw"));
+        Assert.assertTrue(zipEntryMap.containsDirectory("res/xml"));
+        Assert.assertEquals(1, list(zipEntryMap, "res/xml").size());
+        Assert.assertEquals(3, list(zipEntryMap, "res").size());
+    }
+    @Test
+    public void testRenameOfOtherMapSources() {
+        ZipEntryMap zipEntryMap1 = createMap("res/layout/a.xml");
+        ZipEntryMap zipEntryMap2 = createMap("res/layout/b.xml");
+        Assert.assertTrue(zipEntryMap1.containsDirectory("res/layout"));
+
+        int modCount = zipEntryMap1.getModCount();
+        zipEntryMap2.getInputSource("res/layout/b.xml").setAlias("res/raw/b.xml");
+        Assert.assertEquals(modCount, zipEntryMap1.getModCount());
+        Assert.assertTrue(zipEntryMap2.containsDirectory("res/raw"));
+
+        InputSource removed = zipEntryMap1.remove("res/layout/a.xml");
+        modCount = zipEntryMap1.getModCount();
+        removed.setAlias("res/raw/a.xml");
+        Assert.assertEquals(modCount, zipEntryMap1.getModCount());
+        Assert.assertFalse(zipEntryMap1.containsDirectory("res/raw"));
+    }
+    @Test
+    public void testRenameOfSharedSource() {
+        ZipEntryMap zipEntryMap1 = createMap("res/layout/a.xml", "res/raw/c.bin");
+        ZipEntryMap zipEntryMap2 = new ZipEntryMap();
+        InputSource inputSource = zipEntryMap1.getInputSource("res/raw/c.bin");
+        zipEntryMap2.add(inputSource);
+        Assert.assertTrue(zipEntryMap1.containsDirectory("res/raw"));
+        Assert.assertTrue(zipEntryMap2.containsDirectory("res/raw"));
+
+        int modCount1 = zipEntryMap1.getModCount();
+        int modCount2 = zipEntryMap2.getModCount();
+        inputSource.setAlias("res/xml/c.bin");
+        Assert.assertNotEquals(modCount1, zipEntryMap1.getModCount());
+        Assert.assertNotEquals(modCount2, zipEntryMap2.getModCount());
+        for(ZipEntryMap zipEntryMap : new ZipEntryMap[]{zipEntryMap1, zipEntryMap2}) {
+            Assert.assertFalse(zipEntryMap.containsDirectory("res/raw"));
+            Assert.assertEquals(1, list(zipEntryMap, "res/xml").size());
+        }
+
+        zipEntryMap2.remove(inputSource);
+        modCount2 = zipEntryMap2.getModCount();
+        inputSource.setAlias("res/raw/c.bin");
+        Assert.assertEquals(modCount2, zipEntryMap2.getModCount());
+        Assert.assertTrue(zipEntryMap1.containsDirectory("res/raw"));
+    }
+    @Test
+    public void testConcurrentRenameAndQuery() throws InterruptedException {
+        ZipEntryMap zipEntryMap = new ZipEntryMap();
+        for(int i = 0; i < 200; i++) {
+            zipEntryMap.add(new ByteInputSource(new byte[0], "res/raw/file_" + i));
+        }
+        zipEntryMap.add(new ByteInputSource(new byte[0], "res/xml/fixed"));
+        InputSource[] sources = zipEntryMap.toArray();
+        Thread writer = new Thread(() -> {
+            for(int i = 0; i < 20000; i++) {
+                InputSource inputSource = sources[i % 200];
+                String name = inputSource.getAlias();
+                name = name.substring(name.lastIndexOf('/') + 1);
+                inputSource.setAlias((i % 3 == 0 ? "res/anim/" : "res/raw/") + name);
+            }
+        });
+        writer.start();
+        // renamed sources never leave res/, fixed one never moves
+        while (writer.isAlive()) {
+            Assert.assertEquals(sources.length, list(zipEntryMap, "res").size());
+            Assert.assertTrue(zipEntryMap.containsDirectory("res/xml"));
+            Assert.assertEquals(1, list(zipEntryMap, "res/xml").size());
+        }
+        writer.join();
+    }
+    @Test
+    public void testAlternatingRenameAndQuery() {
+        String[] directories = new String[]{"res/anim", "res/layout", "res/raw", "res/xml"};
+        ZipEntryMap zipEntryMap = new ZipEntryMap();
+        for(int i = 0; i < 40; i++) {
+            zipEntryMap.add(new ByteInputSource(new byte[0],
+                    directories[i % directories.length] + "/file_" + i));
+        }
+        zipEntryMap.containsDirectory("res");
+        InputSource[] sources = zipEntryMap.toArray();
+        for(int i = 0; i < 200; i++) {
+            InputSource inputSource = sources[(i * 7) % sources.length];
+            String name = inputSource.getAlias();
+            name = name.substring(name.lastIndexOf('/') + 1);
+            inputSource.setAlias(directories[(i * 3) % directories.length] + "/" + name);
+            for(String directory : directories) {
+                Assert.assertEquals(directory, countLinear(sources, directory),
+                        list(zipEntryMap, directory).size());
+            }
+        }
+    }
+
+    private static int countLinear(InputSource[] sources, String directory) {
+        int count = 0;
+        for(InputSource inputSource : sources) {
+            if(inputSource.getAlias().startsWith(directory + "/")) {
+                count ++;
+            }
+        }
+        return count;
+    }
+    private static List<InputSource> list(ZipEntryMap zipEntryMap, String directory) {
+        return CollectionUtil.toList(zipEntryMap.withinDirectory(directory, true));
+    }
+    private static ZipEntryMap createMap(String ... paths) {
+        ZipEntryMap zipEntryMap = new ZipEntryMap();
+        for(String path : paths) {
+            zipEntryMap.add(new ByteInputSource(new byte[0], path));
+        }
+        return zipEntryMap;
+    }
+}
@@ -0,0 +1,144 @@
+package com.reandroid.arsc.chunk.xml;
+
+import com.reandroid.apk.AndroidFrameworks;
+import com.reandroid.apk.ApkModule;
+import com.reandroid.apk.ApkModuleTest;
+import com.reandroid.apk.ResFile;
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.io.BlockReader;
+import com.reandroid.arsc.model.ResourceLibrary;
+import com.reandroid.arsc.value.Entry;
+import com.reandroid.arsc.value.ValueType;
+import com.reandroid.utils.io.IOUtil;
+import com.reandroid.xml.XMLFactory;
+import org.junit.Assert;
+import org.junit.Test;
+import org.xmlpull.v1.XmlSerializer;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+public class ResXmlTranscoderTest {
+
+    @Test
+    public void testApkResFiles() throws IOException {
+        ApkModule apkModule = new ApkModuleTest().createApkModule();
+        int count = 0;
+        for(ResFile resFile : apkModule.listResFiles()) {
+            if(!resFile.isBinaryXml()) {
+                continue;
+            }
+            PackageBlock packageBlock = resFile.pickOne().getPackageBlock();
+            byte[] bytes = IOUtil.readFully(resFile.getInputSource().openStream());
+            assertSameOutput(packageBlock, bytes, true);
+            count ++;
+        }
+        Assert.assertNotEquals("res xml files", 0, count);
+    }
+    @Test
+    public void testNamespacesTextsAndComments() throws IOException {
+        PackageBlock packageBlock = createPackage();
+        ResXmlDocument document = new ResXmlDocument();
+        document.setPackageBlock(packageBlock);
+        ResXmlElement root = document.getDocumentElement();
+        root.setName("LinearLayout");
+        root.newNamespace(ResourceLibrary.URI_ANDROID, ResourceLibrary.PREFIX_ANDROID);
+        root.newNamespace(ResourceLibrary.URI_RES_AUTO, ResourceLibrary.PREFIX_APP);
+        root.newNamespace(URI_TOOLS, "tools");
+        root.newNamespace(URI_EXAMPLE, "ex");
+        root.setStartComment("root start");
+        root.setEndComment("root end");
+        root.getOrCreateAndroidAttribute("layout_width", 0x010100f4)
+                .setTypeAndData(ValueType.DEC, -1);
+        root.getOrCreateAttribute(URI_EXAMPLE, "ex", "flag", 0)
+                .setValueAsString("on");
+        root.getOrCreateAttribute(null, null, "plain", 0)
+                .setValueAsString("value");
+
+        ResXmlElement child = root.newElement("TextView");
+        child.setStartComment("child");
+        child.newNamespace(ResourceLibrary.URI_RES_AUTO, ResourceLibrary.PREFIX_APP);
+        child.newNamespace(URI_UNUSED, "unused");
+        child.getOrCreateAttribute(ResourceLibrary.URI_RES_AUTO, ResourceLibrary.PREFIX_APP,
+                "custom", CUSTOM_ATTR_ID).setTypeAndData(ValueType.DEC, 1);
+        child.newText().setText("first text");
+        ResXmlElement inner = child.newElement("inner");
+        inner.newNamespace(URI_EXAMPLE, "ex2");
+        inner.getOrCreateAttribute(URI_EXAMPLE, "ex2", "flag", 0)
+                .setValueAsString("off");
+        inner.newText().setText("inner & <text>");
+        child.newText().setText("second text");
+
+        root.newElement("View").getOrCreateAndroidAttribute("layout_height", 0x010100f5)
+                .setTypeAndData(ValueType.DEC, -2);
+
+        byte[] bytes = toBytes(document);
+        String text = assertSameOutput(packageBlock, bytes, true);
+        Assert.assertFalse(text, text.contains(URI_TOOLS));
+        Assert.assertFalse(text, text.contains(URI_UNUSED));
+        Assert.assertTrue(text, text.contains("xmlns:ex2"));
+        Assert.assertTrue(text, text.contains("second text"));
+        Assert.assertTrue(text, text.contains("root end"));
+    }
+    @Test
+    public void testNamespaceFixIsRejected() throws IOException {
+        PackageBlock packageBlock = createPackage();
+        ResXmlDocument document = new ResXmlDocument();
+        document.setPackageBlock(packageBlock);
+        ResXmlElement root = document.getDocumentElement();
+        root.setName("LinearLayout");
+        root.newNamespace(ResourceLibrary.URI_RES_AUTO, ResourceLibrary.PREFIX_APP);
+        // framework attribute under app namespace, fixNamespaces moves it to android
+        root.getOrCreateAttribute(ResourceLibrary.URI_RES_AUTO, ResourceLibrary.PREFIX_APP,
+                "layout_width", 0x010100f4).setTypeAndData(ValueType.DEC, -1);
+
+        assertSameOutput(packageBlock, toBytes(document), false);
+    }
+
+    private static String assertSameOutput(PackageBlock packageBlock, byte[] bytes,
+                                           boolean transcoded) throws IOException {
+        ResXmlDocument document = new ResXmlDocument();
+        document.readBytes(new BlockReader(bytes));
+        document.setPackageBlock(packageBlock);
+        StringWriter writer = new StringWriter();
+        XmlSerializer serializer = XMLFactory.newSerializer(writer);
+        document.serialize(serializer);
+        serializer.flush();
+        String expected = writer.toString();
+
+        ResXmlTranscoder transcoder = ResXmlTranscoder.read(packageBlock, new BlockReader(bytes));
+        if(!transcoded) {
+            Assert.assertNull(expected, transcoder);
+            return expected;
+        }
+        Assert.assertNotNull(expected, transcoder);
+        writer = new StringWriter();
+        serializer = XMLFactory.newSerializer(writer);
+        transcoder.serialize(serializer);
+        serializer.flush();
+        Assert.assertEquals(expected, writer.toString());
+        return expected;
+    }
+    private static byte[] toBytes(ResXmlDocument document) {
+        // keeps unused namespaces, refreshFull would remove them
+        document.getChunk().refreshFull();
+        document.refresh();
+        return document.getBytes();
+    }
+    private static PackageBlock createPackage() throws IOException {
+        TableBlock tableBlock = new TableBlock();
+        tableBlock.addFramework(AndroidFrameworks.getLatest().getTableBlock());
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, "com.example");
+        Entry entry = packageBlock.getOrCreate("", "attr", "custom");
+        entry.setValueAsBoolean(false);
+        tableBlock.refresh();
+        Assert.assertEquals(CUSTOM_ATTR_ID, entry.getResourceId());
+        return packageBlock;
+    }
+
+    private static final int CUSTOM_ATTR_ID = 0x7f010000;
+    private static final String URI_TOOLS = "http://schemas.android.com/tools";
+    private static final String URI_EXAMPLE = "http://example.com/ns";
+    private static final String URI_UNUSED = "http://example.com/unused";
+}
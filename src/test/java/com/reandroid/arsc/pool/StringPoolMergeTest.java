@@ -0,0 +1,122 @@
+package com.reandroid.arsc.pool;
+
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.item.TableString;
+import com.reandroid.arsc.value.Entry;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StringPoolMergeTest {
+
+    @Test
+    public void testGetMerged() {
+        TableStringPool destination = createPool("a", "b");
+        TableStringPool source = createPool("b", "c", "d");
+        destination.merge(source);
+        Assert.assertEquals(4, destination.size());
+        for(TableString item : source) {
+            TableString merged = destination.getMerged(item);
+            Assert.assertNotNull("Missing merged: " + item.get(), merged);
+            Assert.assertEquals(item.get(), merged.get());
+        }
+    }
+    @Test
+    public void testGetMergedAfterSourceEdit() {
+        TableStringPool destination = createPool("a", "b");
+        TableStringPool source = createPool("b", "c", "d");
+        destination.merge(source);
+
+        source.get(1).set("changed");
+        assertMergedEquals(destination, source);
+
+        source.sort();
+        assertMergedEquals(destination, source);
+
+        TableString removed = source.get(0);
+        source.removeUnusedStrings();
+        Assert.assertNull(destination.getMerged(removed));
+    }
+    @Test
+    public void testGetMergedAfterDestinationEdit() {
+        TableStringPool destination = createPool("a", "b");
+        TableStringPool source = createPool("b", "c", "d");
+        destination.merge(source);
+
+        TableString item = source.get(1);
+        destination.getMerged(item).set("edited");
+        Assert.assertNull(destination.getMerged(item));
+        assertMergedEquals(destination, source);
+    }
+    @Test
+    public void testPackageMergeAfterStringEdit() {
+        TableBlock tableBlock1 = createTable("a_", "Value 0", "Value 1");
+        // entries are merged by id, keep the first two ids same as destination
+        TableBlock tableBlock2 = createTable("a_", "Value 0", "Value 1");
+        addEntries(tableBlock2, "b_", "Value 1", "Value 2", "Value 3");
+        tableBlock1.getStringPool().merge(tableBlock2.getStringPool());
+
+        TableStringPool source = tableBlock2.getStringPool();
+        tableBlock1.getStringPool().getMerged(findString(source, "Value 1")).set("edited");
+        findString(source, "Value 3").set("Value 3 changed");
+
+        PackageBlock packageBlock = tableBlock1.pickOne();
+        packageBlock.merge(tableBlock2.pickOne());
+        Assert.assertNull(packageBlock.getSpecStringPool()
+                .getMerged(tableBlock2.pickOne().getSpecStringPool().get(0)));
+
+        Assert.assertEquals("Value 0", getValue(packageBlock, "a_0"));
+        Assert.assertEquals("Value 1", getValue(packageBlock, "b_0"));
+        Assert.assertEquals("Value 2", getValue(packageBlock, "b_1"));
+        Assert.assertEquals("Value 3 changed", getValue(packageBlock, "b_2"));
+
+        TableBlock tableBlock3 = createTable("a_", "Value 0", "Value 1");
+        addEntries(tableBlock3, "b_", "Value 1", "Value 2", "Value 3");
+        addEntries(tableBlock3, "c_", "Value 4");
+        tableBlock1.merge(tableBlock3);
+        Assert.assertNull(tableBlock1.getStringPool().getMerged(findString(source, "Value 2")));
+        Assert.assertEquals("Value 4", getValue(packageBlock, "c_0"));
+    }
+
+    private static void assertMergedEquals(TableStringPool destination, TableStringPool source) {
+        for(TableString item : source) {
+            TableString merged = destination.getMerged(item);
+            if(merged != null) {
+                Assert.assertEquals(item.get(), merged.get());
+            }
+        }
+    }
+    private static TableString findString(TableStringPool stringPool, String text) {
+        for(TableString item : stringPool) {
+            if(text.equals(item.get())) {
+                return item;
+            }
+        }
+        throw new AssertionError("Missing string: " + text);
+    }
+    private static String getValue(PackageBlock packageBlock, String name) {
+        Entry entry = packageBlock.getEntry("", "string", name);
+        Assert.assertNotNull("Missing entry: " + name, entry);
+        return entry.getValueAsString();
+    }
+    private static TableStringPool createPool(String ... strings) {
+        TableStringPool stringPool = new TableStringPool(true);
+        for(String str : strings) {
+            stringPool.getOrCreate(str);
+        }
+        return stringPool;
+    }
+    private static TableBlock createTable(String prefix, String ... values) {
+        TableBlock tableBlock = new TableBlock();
+        tableBlock.newPackage(0x7f, "com.example");
+        addEntries(tableBlock, prefix, values);
+        return tableBlock;
+    }
+    private static void addEntries(TableBlock tableBlock, String prefix, String ... values) {
+        PackageBlock packageBlock = tableBlock.pickOne();
+        for(int i = 0; i < values.length; i++) {
+            packageBlock.getOrCreate("", "string", prefix + i).setValueAsString(values[i]);
+        }
+        tableBlock.refreshFull();
+    }
+}
@@ -0,0 +1,105 @@
+package com.reandroid.arsc.refactor;
+
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.item.IntegerReference;
+import com.reandroid.arsc.item.NumberIntegerReference;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+public class ResourceBuilderTest {
+
+    @Test
+    public void testApplyIdChangesConcurrently() {
+        ResourceBuilder resourceBuilder = new ResourceBuilder(createSourceTable());
+        resourceBuilder.rebuild();
+        Map<Integer, Integer> idMap = resourceBuilder.getResourceIdMap();
+        Assert.assertFalse("Expecting id changes", idMap.isEmpty());
+
+        List<List<IntegerReference>> references1 = createReferences(idMap, 6);
+        List<List<IntegerReference>> references2 = createReferences(idMap, 6);
+        int[] counts1 = resourceBuilder.applyIdChanges(toIterators(references1), 1);
+        int[] counts2 = resourceBuilder.applyIdChanges(toIterators(references2), 4);
+
+        Assert.assertArrayEquals(counts1, counts2);
+        Assert.assertEquals(toValues(references1), toValues(references2));
+        List<List<Integer>> original = toValues(createReferences(idMap, 6));
+        List<List<Integer>> results = toValues(references2);
+        for(int i = 0; i < original.size(); i++) {
+            int changed = 0;
+            for(int j = 0; j < original.get(i).size(); j++) {
+                int value = original.get(i).get(j);
+                Integer expected = idMap.get(value);
+                if(expected != null) {
+                    changed ++;
+                } else {
+                    expected = value;
+                }
+                Assert.assertEquals(expected, results.get(i).get(j));
+            }
+            Assert.assertEquals(changed, counts2[i]);
+        }
+    }
+
+    // every other entry is left empty, thus ids are compacted on rebuild
+    private static TableBlock createSourceTable() {
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, "com.example");
+        String[] types = new String[]{"string", "drawable", "color"};
+        for(String type : types) {
+            for(int i = 0; i < 40; i++) {
+                if((i & 1) != 0) {
+                    packageBlock.getOrCreate("", type, type + "_" + i)
+                            .setValueAsString(type + " " + i);
+                } else {
+                    packageBlock.getOrCreate("", type, type + "_" + i);
+                }
+            }
+        }
+        tableBlock.refreshFull();
+        return tableBlock;
+    }
+    // mapped ids mixed with unmapped values, some repeated across sources
+    private static List<List<IntegerReference>> createReferences(Map<Integer, Integer> idMap, int count) {
+        List<Integer> keys = new ArrayList<>(idMap.keySet());
+        keys.sort(null);
+        List<List<IntegerReference>> results = new ArrayList<>();
+        for(int i = 0; i < count; i++) {
+            List<IntegerReference> referenceList = new ArrayList<>();
+            for(int j = 0; j < 500; j++) {
+                int value;
+                if(j % 3 == 0) {
+                    value = 0x7f000000 | (i * 500 + j);
+                } else {
+                    value = keys.get((i * 7 + j) % keys.size());
+                }
+                referenceList.add(new NumberIntegerReference(value));
+            }
+            results.add(referenceList);
+        }
+        return results;
+    }
+    private static List<Iterator<IntegerReference>> toIterators(List<List<IntegerReference>> references) {
+        List<Iterator<IntegerReference>> results = new ArrayList<>();
+        for(List<IntegerReference> referenceList : references) {
+            results.add(referenceList.iterator());
+        }
+        return results;
+    }
+    private static List<List<Integer>> toValues(List<List<IntegerReference>> references) {
+        List<List<Integer>> results = new ArrayList<>();
+        for(List<IntegerReference> referenceList : references) {
+            List<Integer> values = new ArrayList<>();
+            for(IntegerReference reference : referenceList) {
+                values.add(reference.get());
+            }
+            results.add(values);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,126 @@
+package com.reandroid.dex.model;
+
+import com.reandroid.dex.common.AccessFlag;
+import com.reandroid.dex.key.FieldKey;
+import com.reandroid.dex.key.TypeKey;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+public class DexMergePlanTest {
+
+    @Test
+    public void testDistributeClasses() throws IOException {
+        DexDirectory directory = createDirectory(40, 40);
+        Set<String> expected = describeClasses(directory);
+
+        Assert.assertEquals(40, directory.distributeClasses(20, 4));
+        Assert.assertEquals(4, directory.size());
+        for(DexFile dexFile : directory) {
+            Assert.assertEquals(20, dexFile.getDexClassesCount());
+        }
+        Assert.assertEquals(expected, describeClasses(directory));
+        Assert.assertEquals(expected, describeClasses(reload(directory)));
+    }
+    @Test
+    public void testDistributeClassesConcurrently() throws IOException {
+        DexDirectory directory1 = createDirectory(30, 30, 30);
+        DexDirectory directory2 = createDirectory(30, 30, 30);
+        directory1.distributeClasses(15, 1);
+        directory2.distributeClasses(15, 4);
+
+        Assert.assertEquals(directory1.size(), directory2.size());
+        int size = directory1.size();
+        for(int i = 0; i < size; i++) {
+            Assert.assertEquals(describeClasses(directory1.get(i)),
+                    describeClasses(directory2.get(i)));
+        }
+        Assert.assertEquals(describeClasses(directory1), describeClasses(reload(directory2)));
+    }
+    @Test
+    public void testMerge() throws IOException {
+        DexDirectory directory = createDirectory(10, 10, 10);
+        Set<String> expected = describeClasses(directory);
+
+        directory.merge(new DexMergeOptions(), 4);
+        Assert.assertEquals(30, directory.getFirst().getDexClassesCount());
+        Assert.assertEquals(expected, describeClasses(directory.getFirst()));
+        Assert.assertEquals(expected, describeClasses(reload(directory)));
+    }
+
+    private static DexDirectory createDirectory(int ... classCounts) {
+        DexDirectory directory = new DexDirectory();
+        for(int i = 0; i < classCounts.length; i++) {
+            DexFile dexFile = directory.createDefault();
+            addClasses(dexFile, "Lcom/example/dex" + i + "/Item", classCounts[i]);
+            dexFile.refreshFull();
+        }
+        return directory;
+    }
+    // classes of one dex share interface list and field types
+    private static void addClasses(DexFile dexFile, String prefix, int count) {
+        DexLayout dexLayout = dexFile.getOrCreateFirst();
+        for(int i = 0; i < count; i++) {
+            TypeKey typeKey = TypeKey.create(prefix + i + ";");
+            DexClass dexClass = dexLayout.getOrCreateClass(typeKey);
+            dexClass.addAccessFlag(AccessFlag.PUBLIC);
+            dexClass.setSuperClass(TypeKey.create("Ljava/lang/Object;"));
+            dexClass.addInterface(TypeKey.create("Ljava/lang/Runnable;"));
+            dexClass.addInterface(TypeKey.create("Ljava/io/Serializable;"));
+            dexClass.getOrCreateInstanceField(FieldKey.parse(typeKey + "->count:I"));
+            dexClass.getOrCreateInstanceField(FieldKey.parse(typeKey + "->name:Ljava/lang/String;"));
+            dexClass.getOrCreateStaticField(FieldKey.parse(typeKey + "->TAG:Ljava/lang/String;"));
+        }
+    }
+    private static List<DexFile> reload(DexDirectory directory) throws IOException {
+        List<DexFile> results = new ArrayList<>();
+        for(DexFile dexFile : directory) {
+            dexFile.refreshFull();
+            results.add(DexFile.read(dexFile.getBytes()));
+        }
+        return results;
+    }
+    private static Set<String> describeClasses(Iterable<DexFile> dexFiles) {
+        Set<String> results = new TreeSet<>();
+        List<String> duplicates = new ArrayList<>();
+        for(DexFile dexFile : dexFiles) {
+            for(String description : describeClasses(dexFile)) {
+                if(!results.add(description)) {
+                    duplicates.add(description);
+                }
+            }
+        }
+        Assert.assertEquals("Duplicate classes", new ArrayList<>(), duplicates);
+        return results;
+    }
+    private static Set<String> describeClasses(DexFile dexFile) {
+        Set<String> results = new TreeSet<>();
+        Iterator<DexClass> iterator = dexFile.getDexClasses();
+        while (iterator.hasNext()) {
+            DexClass dexClass = iterator.next();
+            StringBuilder builder = new StringBuilder();
+            builder.append(dexClass.getKey());
+            builder.append(" extends ");
+            builder.append(dexClass.getSuperClassKey());
+            Set<String> members = new TreeSet<>();
+            Iterator<TypeKey> interfaces = dexClass.getInterfaces();
+            while (interfaces.hasNext()) {
+                members.add("implements " + interfaces.next());
+            }
+            Iterator<DexField> fields = dexClass.getDeclaredFields();
+            while (fields.hasNext()) {
+                DexField dexField = fields.next();
+                members.add((dexField.isStatic() ? "static " : "") + dexField.getKey());
+            }
+            builder.append(members);
+            results.add(builder.toString());
+        }
+        return results;
+    }
+}
@@ -0,0 +1,116 @@
+package com.reandroid.dex.refactor;
+
+import com.reandroid.dex.common.AccessFlag;
+import com.reandroid.dex.key.FieldKey;
+import com.reandroid.dex.key.TypeKey;
+import com.reandroid.dex.model.DexClass;
+import com.reandroid.dex.model.DexDirectory;
+import com.reandroid.dex.model.DexField;
+import com.reandroid.dex.model.DexFile;
+import com.reandroid.dex.model.DexLayout;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+public class RenameTypesTest {
+
+    @Test
+    public void testRenameConcurrently() throws IOException {
+        DexDirectory directory1 = createDirectory(4, 25);
+        DexDirectory directory2 = createDirectory(4, 25);
+        int count1 = createRenameTypes(1).apply(directory1);
+        int count2 = createRenameTypes(4).apply(directory2);
+
+        Assert.assertTrue(count1 > 0);
+        Assert.assertEquals(count1, count2);
+        List<Set<String>> expected = describe(directory1);
+        Assert.assertEquals(expected, describe(directory2));
+        Assert.assertEquals(expected, describe(reload(directory2)));
+
+        String renamed = "Lcom/renamed/pkg0/Item0;";
+        Assert.assertNotNull(directory2.getDexClass(TypeKey.create(renamed)));
+        Assert.assertNull(directory2.getDexClass(TypeKey.create("Lcom/example/pkg0/Item0;")));
+        // referenced from every other dex
+        for(Set<String> classes : expected) {
+            Assert.assertTrue(classes.toString(), classes.toString().contains(renamed));
+        }
+    }
+
+    private static RenameTypes createRenameTypes(int threads) {
+        RenameTypes renameTypes = new RenameTypes();
+        renameTypes.setThreads(threads);
+        for(int i = 0; i < 4; i++) {
+            for(int j = 0; j < 25; j += 3) {
+                renameTypes.add(TypeKey.create("Lcom/example/pkg" + i + "/Item" + j + ";"),
+                        TypeKey.create("Lcom/renamed/pkg" + i + "/Item" + j + ";"));
+            }
+        }
+        return renameTypes;
+    }
+    // classes extend and reference classes of the first dex
+    private static DexDirectory createDirectory(int dexCount, int classCount) {
+        DexDirectory directory = new DexDirectory();
+        for(int i = 0; i < dexCount; i++) {
+            DexFile dexFile = directory.createDefault();
+            DexLayout dexLayout = dexFile.getOrCreateFirst();
+            for(int j = 0; j < classCount; j++) {
+                TypeKey typeKey = TypeKey.create("Lcom/example/pkg" + i + "/Item" + j + ";");
+                DexClass dexClass = dexLayout.getOrCreateClass(typeKey);
+                dexClass.addAccessFlag(AccessFlag.PUBLIC);
+                dexClass.setSuperClass(i == 0 ? TypeKey.create("Ljava/lang/Object;")
+                        : TypeKey.create("Lcom/example/pkg0/Item" + j + ";"));
+                dexClass.addInterface(TypeKey.create("Ljava/lang/Runnable;"));
+                dexClass.getOrCreateInstanceField(FieldKey.parse(typeKey
+                        + "->first:Lcom/example/pkg0/Item0;"));
+                dexClass.getOrCreateInstanceField(FieldKey.parse(typeKey
+                        + "->array:[Lcom/example/pkg" + i + "/Item" + ((j + 1) % classCount) + ";"));
+            }
+            dexFile.refreshFull();
+        }
+        return directory;
+    }
+    private static List<DexFile> reload(DexDirectory directory) throws IOException {
+        List<DexFile> results = new ArrayList<>();
+        for(DexFile dexFile : directory) {
+            dexFile.refreshFull();
+            results.add(DexFile.read(dexFile.getBytes()));
+        }
+        return results;
+    }
+    private static List<Set<String>> describe(Iterable<DexFile> dexFiles) {
+        List<Set<String>> results = new ArrayList<>();
+        for(DexFile dexFile : dexFiles) {
+            results.add(describeClasses(dexFile));
+        }
+        return results;
+    }
+    private static Set<String> describeClasses(DexFile dexFile) {
+        Set<String> results = new TreeSet<>();
+        Iterator<DexClass> iterator = dexFile.getDexClasses();
+        while (iterator.hasNext()) {
+            DexClass dexClass = iterator.next();
+            StringBuilder builder = new StringBuilder();
+            builder.append(dexClass.getKey());
+            builder.append(" extends ");
+            builder.append(dexClass.getSuperClassKey());
+            Set<String> members = new TreeSet<>();
+            Iterator<TypeKey> interfaces = dexClass.getInterfaces();
+            while (interfaces.hasNext()) {
+                members.add("implements " + interfaces.next());
+            }
+            Iterator<DexField> fields = dexClass.getDeclaredFields();
+            while (fields.hasNext()) {
+                members.add(fields.next().getKey().toString());
+            }
+            builder.append(members);
+            results.add(builder.toString());
+        }
+        return results;
+    }
+}
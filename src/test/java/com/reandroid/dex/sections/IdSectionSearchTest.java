@@ -0,0 +1,167 @@
+package com.reandroid.dex.sections;
+
+import com.reandroid.dex.SampleDexFileCreator;
+import com.reandroid.dex.id.IdItem;
+import com.reandroid.dex.id.StringId;
+import com.reandroid.dex.key.FieldKey;
+import com.reandroid.dex.key.Key;
+import com.reandroid.dex.key.MethodKey;
+import com.reandroid.dex.key.ProtoKey;
+import com.reandroid.dex.key.StringKey;
+import com.reandroid.dex.key.TypeKey;
+import com.reandroid.dex.model.DexClass;
+import com.reandroid.dex.model.DexFile;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+public class IdSectionSearchTest {
+
+    @Test
+    public void testFreshDex() throws IOException {
+        SectionList sectionList = readSectionList();
+        for(SectionType<?> sectionType : SEARCH_TYPES) {
+            Assert.assertTrue(sectionType.getName(), getIdSection(sectionList, sectionType).isSorted());
+        }
+        assertSearchMatchesPool(sectionList);
+    }
+    @Test
+    public void testSetString() throws IOException {
+        SectionList sectionList = readSectionList();
+        StringId stringId = findStringId(sectionList, "onCreate");
+        stringId.setString("aaOnCreate");
+
+        Assert.assertFalse(getIdSection(sectionList, SectionType.STRING_ID).isSorted());
+        // dependent section is unchanged but must not be searched by stale string order
+        Assert.assertFalse(getIdSection(sectionList, SectionType.METHOD_ID).isSorted());
+        assertSearchMatchesPool(sectionList);
+
+        MethodKey methodKey = MethodKey.parse("Lcom/example/MainActivity;->aaOnCreate(Landroid/os/Bundle;)V");
+        Assert.assertNotNull(sectionList.getSection(SectionType.METHOD_ID).get(methodKey));
+
+        sectionList.refresh();
+        assertSearchMatchesPool(sectionList);
+
+        sortAndRefresh(sectionList);
+        for(SectionType<?> sectionType : SEARCH_TYPES) {
+            Assert.assertTrue(sectionType.getName(), getIdSection(sectionList, sectionType).isSorted());
+        }
+        assertSearchMatchesPool(sectionList);
+        Assert.assertNotNull(sectionList.getSection(SectionType.METHOD_ID).get(methodKey));
+    }
+    @Test
+    public void testAddAndRemove() throws IOException {
+        SectionList sectionList = readSectionList();
+        IdSection<StringId> section = getIdSection(sectionList, SectionType.STRING_ID);
+        StringId stringId = section.createItem();
+        stringId.setString("added");
+
+        Assert.assertFalse(section.isSorted());
+        assertSearchMatchesPool(sectionList);
+        Assert.assertSame(stringId, section.get(StringKey.create("added")));
+
+        stringId.removeSelf();
+        assertSearchMatchesPool(sectionList);
+        Assert.assertNull(section.get(StringKey.create("added")));
+
+        sortAndRefresh(sectionList);
+        Assert.assertTrue(section.isSorted());
+        assertSearchMatchesPool(sectionList);
+    }
+    @Test
+    public void testSort() throws IOException {
+        SectionList sectionList = readSectionList();
+        IdSection<StringId> section = getIdSection(sectionList, SectionType.STRING_ID);
+        findStringId(sectionList, "count").setString("AAcount");
+        findStringId(sectionList, "TAG").setString("zzTAG");
+
+        section.sort();
+        Assert.assertFalse(section.isSorted());
+        assertSearchMatchesPool(sectionList);
+
+        sortAndRefresh(sectionList);
+        Assert.assertTrue(section.isSorted());
+        assertSearchMatchesPool(sectionList);
+        Assert.assertNotNull(sectionList.getSection(SectionType.FIELD_ID)
+                .get(FieldKey.parse("Lcom/example/MainActivity;->AAcount:I")));
+        Assert.assertNotNull(sectionList.getSection(SectionType.FIELD_ID)
+                .get(FieldKey.parse("Lcom/example/MainActivity;->zzTAG:Ljava/lang/String;")));
+    }
+
+    // string ids are ordered by string data offset, only a full refresh re-sorts them by text
+    private static void sortAndRefresh(SectionList sectionList) {
+        sectionList.getParentInstance(DexLayoutBlock.class).refreshFull();
+    }
+    private static void assertSearchMatchesPool(SectionList sectionList) {
+        for(SectionType<?> sectionType : SEARCH_TYPES) {
+            IdSection<?> section = getIdSection(sectionList, sectionType);
+            // lookups falling back to pool load it, binary search runs only without pool
+            section.clearPoolMap();
+            List<Key> keys = listKeys(section);
+            int size = keys.size();
+            Object[] results = new Object[size];
+            for(int i = 0; i < size; i++) {
+                results[i] = section.get(keys.get(i));
+            }
+            section.getPool();
+            for(int i = 0; i < size; i++) {
+                Key key = keys.get(i);
+                Assert.assertSame(key.toString(), section.get(key), results[i]);
+            }
+            section.clearPoolMap();
+        }
+    }
+    private static List<Key> listKeys(IdSection<?> section) {
+        List<Key> results = new ArrayList<>();
+        Iterator<? extends IdItem> iterator = section.iterator();
+        while (iterator.hasNext()) {
+            results.add(iterator.next().getKey());
+        }
+        results.add(StringKey.create("absent"));
+        results.add(StringKey.create(""));
+        results.add(TypeKey.create("Lcom/example/Absent;"));
+        results.add(ProtoKey.parse("(Lcom/example/Absent;)V"));
+        results.add(MethodKey.parse("Lcom/example/MainActivity;->absent()V"));
+        results.add(MethodKey.parse("Landroid/app/Activity;->onCreate(Lcom/example/Absent;)V"));
+        results.add(FieldKey.parse("Lcom/example/MainActivity;->absent:I"));
+        results.add(FieldKey.parse("Lcom/example/MainActivity;->count:J"));
+        return results;
+    }
+    private static StringId findStringId(SectionList sectionList, String text) {
+        IdSection<StringId> section = getIdSection(sectionList, SectionType.STRING_ID);
+        Iterator<StringId> iterator = section.iterator();
+        while (iterator.hasNext()) {
+            StringId stringId = iterator.next();
+            if(text.equals(stringId.getString())) {
+                return stringId;
+            }
+        }
+        throw new AssertionError("String not found: " + text);
+    }
+    @SuppressWarnings("unchecked")
+    private static<T extends IdItem> IdSection<T> getIdSection(SectionList sectionList, SectionType<?> sectionType) {
+        return (IdSection<T>) sectionList.getSection(sectionType);
+    }
+    private static SectionList readSectionList() throws IOException {
+        DexFile dexFile = SampleDexFileCreator.createApplicationClass(
+                "com.example.App", "com.example.MainActivity", 0x7f030000);
+        DexClass dexClass = dexFile.getOrCreateFirst()
+                .getOrCreateClass(TypeKey.parse("com.example.MainActivity"));
+        dexClass.getOrCreateInstanceField(FieldKey.parse("Lcom/example/MainActivity;->count:I"));
+        dexClass.getOrCreateStaticField(FieldKey.parse("Lcom/example/MainActivity;->TAG:Ljava/lang/String;"));
+        dexFile.refreshFull();
+        return DexFile.read(dexFile.getBytes()).getFirst().getDexLayoutBlock().getSectionList();
+    }
+
+    private static final SectionType<?>[] SEARCH_TYPES = new SectionType<?>[]{
+            SectionType.STRING_ID,
+            SectionType.TYPE_ID,
+            SectionType.PROTO_ID,
+            SectionType.FIELD_ID,
+            SectionType.METHOD_ID
+    };
+}
@@ -0,0 +1,39 @@
+package com.reandroid.dex.smali;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public class SmaliWriterTest {
+
+    @Test
+    public void testUnbufferedOutputStream() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        SmaliWriter writer = new SmaliWriter(outputStream);
+        Assert.assertTrue(writer.isBuffered());
+        String emoji = "😀";
+        writer.append("const-string v0, \"café ");
+        writer.append(emoji.charAt(0));
+
+        writer.setBuffered(false);
+        Assert.assertFalse(writer.isBuffered());
+        // buffered content is written out on switch
+        Assert.assertEquals("const-string v0, \"café ",
+                new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+
+        writer.append(emoji.charAt(1));
+        writer.append("\"");
+        writer.flush();
+        Assert.assertEquals("const-string v0, \"café " + emoji + "\"",
+                new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+
+        writer.setBuffered(true);
+        writer.append(" end");
+        writer.close();
+        Assert.assertEquals("const-string v0, \"café " + emoji + "\" end",
+                new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,136 @@
+package com.reandroid.utils.collection;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class IntIntMapTest {
+
+    @Test
+    public void testPutAndOverwrite() {
+        IntIntMap map = new IntIntMap();
+        map.put(10, 1);
+        map.put(20, 2);
+        map.put(10, 3);
+        Assert.assertEquals(2, map.size());
+        Assert.assertEquals(3, map.get(10, -1));
+        Assert.assertEquals(2, map.get(20, -1));
+        Assert.assertEquals(-1, map.get(30, -1));
+        Assert.assertFalse(map.containsKey(30));
+    }
+    @Test
+    public void testZeroAndNegativeKeys() {
+        IntIntMap map = new IntIntMap();
+        Assert.assertFalse(map.containsKey(0));
+        Assert.assertEquals(-1, map.get(0, -1));
+        map.put(0, 0);
+        map.put(-1, 11);
+        map.put(Integer.MIN_VALUE, 12);
+        map.put(0x7f010000, 13);
+        Assert.assertEquals(4, map.size());
+        Assert.assertTrue(map.containsKey(0));
+        Assert.assertEquals(0, map.get(0, -1));
+        Assert.assertEquals(11, map.get(-1, 0));
+        Assert.assertEquals(12, map.get(Integer.MIN_VALUE, 0));
+        assertKeys(map, 0, -1, Integer.MIN_VALUE, 0x7f010000);
+
+        Assert.assertTrue(map.remove(0));
+        Assert.assertFalse(map.remove(0));
+        Assert.assertFalse(map.containsKey(0));
+        Assert.assertEquals(3, map.size());
+        assertKeys(map, -1, Integer.MIN_VALUE, 0x7f010000);
+    }
+    @Test
+    public void testRemoveInWrappedCollisionChain() {
+        IntIntMap map = new IntIntMap();
+        int mask = 7;
+        // a, b, c home at the last slot, d at the first one: chain wraps around
+        int[] last = findKeys(mask, mask, 3);
+        int[] first = findKeys(mask, 0, 1);
+        int a = last[0], b = last[1], c = last[2], d = first[0];
+        map.put(a, 1);
+        map.put(b, 2);
+        map.put(d, 4);
+        map.put(c, 3);
+
+        Assert.assertTrue(map.remove(a));
+        Assert.assertEquals(3, map.size());
+        Assert.assertEquals(-1, map.get(a, -1));
+        Assert.assertEquals(2, map.get(b, -1));
+        Assert.assertEquals(3, map.get(c, -1));
+        Assert.assertEquals(4, map.get(d, -1));
+
+        Assert.assertTrue(map.remove(d));
+        Assert.assertEquals(2, map.get(b, -1));
+        Assert.assertEquals(3, map.get(c, -1));
+        Assert.assertFalse(map.remove(d));
+        assertKeys(map, b, c);
+    }
+    @Test
+    public void testGrowth() {
+        IntIntMap map = new IntIntMap();
+        for(int i = -500; i < 500; i++) {
+            map.put(i * 31, i);
+        }
+        Assert.assertEquals(1000, map.size());
+        for(int i = -500; i < 500; i++) {
+            Assert.assertEquals(i, map.get(i * 31, Integer.MAX_VALUE));
+        }
+        map.clear();
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertFalse(map.containsKey(31));
+        Assert.assertFalse(map.containsKey(0));
+    }
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(7);
+        IntIntMap map = new IntIntMap(4);
+        Map<Integer, Integer> expected = new HashMap<>();
+        for(int i = 0; i < 20000; i++) {
+            int key = random.nextInt(256) - 128;
+            if(random.nextInt(3) == 0) {
+                Assert.assertEquals(expected.remove(key) != null, map.remove(key));
+            } else {
+                map.put(key, i);
+                expected.put(key, i);
+            }
+            Assert.assertEquals(expected.size(), map.size());
+        }
+        for(int key = -128; key < 128; key++) {
+            Integer value = expected.get(key);
+            Assert.assertEquals(value != null, map.containsKey(key));
+            if(value != null) {
+                Assert.assertEquals(value.intValue(), map.get(key, -1));
+            }
+        }
+    }
+
+    private static void assertKeys(IntIntMap map, int ... keys) {
+        int[] results = map.keys();
+        Arrays.sort(results);
+        keys = keys.clone();
+        Arrays.sort(keys);
+        Assert.assertArrayEquals(keys, results);
+    }
+    static int[] findKeys(int mask, int slot, int count) {
+        List<Integer> results = new ArrayList<>();
+        int key = 1;
+        while (results.size() < count) {
+            if((IntIntMap.hash(key) & mask) == slot) {
+                results.add(key);
+            }
+            key ++;
+        }
+        int[] keys = new int[count];
+        for(int i = 0; i < count; i++) {
+            keys[i] = results.get(i);
+        }
+        return keys;
+    }
+}
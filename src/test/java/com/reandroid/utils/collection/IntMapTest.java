@@ -0,0 +1,126 @@
+package com.reandroid.utils.collection;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class IntMapTest {
+
+    @Test
+    public void testPutAndOverwrite() {
+        IntMap<String> map = new IntMap<>();
+        Assert.assertNull(map.put(10, "a"));
+        Assert.assertNull(map.put(20, "b"));
+        Assert.assertEquals("a", map.put(10, "c"));
+        Assert.assertEquals(2, map.size());
+        Assert.assertEquals("c", map.get(10));
+        Assert.assertNull(map.get(30));
+
+        Assert.assertEquals("b", map.put(20, null));
+        Assert.assertFalse(map.containsKey(20));
+        Assert.assertEquals(1, map.size());
+    }
+    @Test
+    public void testZeroAndNegativeKeys() {
+        IntMap<String> map = new IntMap<>();
+        map.put(0, "zero");
+        map.put(-1, "minus");
+        map.put(Integer.MIN_VALUE, "min");
+        Assert.assertEquals(3, map.size());
+        Assert.assertEquals("zero", map.get(0));
+        Assert.assertEquals("minus", map.get(-1));
+        Assert.assertEquals("min", map.get(Integer.MIN_VALUE));
+        Assert.assertEquals("zero", map.remove(0));
+        Assert.assertNull(map.get(0));
+        Assert.assertEquals("minus", map.get(-1));
+        assertValues(map, "minus", "min");
+    }
+    @Test
+    public void testRemoveInWrappedCollisionChain() {
+        IntMap<String> map = new IntMap<>();
+        int mask = 7;
+        int[] last = IntIntMapTest.findKeys(mask, mask, 3);
+        int[] first = IntIntMapTest.findKeys(mask, 0, 1);
+        int a = last[0], b = last[1], c = last[2], d = first[0];
+        map.put(a, "a");
+        map.put(b, "b");
+        map.put(d, "d");
+        map.put(c, "c");
+
+        Assert.assertEquals("a", map.remove(a));
+        Assert.assertNull(map.get(a));
+        Assert.assertEquals("b", map.get(b));
+        Assert.assertEquals("c", map.get(c));
+        Assert.assertEquals("d", map.get(d));
+        assertValues(map, "b", "c", "d");
+
+        Assert.assertEquals("d", map.remove(d));
+        Assert.assertEquals("b", map.get(b));
+        Assert.assertEquals("c", map.get(c));
+        assertValues(map, "b", "c");
+    }
+    @Test
+    public void testGrowthAndValues() {
+        IntMap<Integer> map = new IntMap<>();
+        for(int i = -500; i < 500; i++) {
+            map.put(i * 31, i);
+        }
+        Assert.assertEquals(1000, map.size());
+        for(int i = -500; i < 500; i++) {
+            Assert.assertEquals(Integer.valueOf(i), map.get(i * 31));
+        }
+        for(int i = -500; i < 500; i += 2) {
+            map.remove(i * 31);
+        }
+        Assert.assertEquals(500, map.size());
+        int count = 0;
+        for(Integer value : map.values()) {
+            Assert.assertTrue(value.toString(), (value & 1) != 0);
+            count ++;
+        }
+        Assert.assertEquals(500, count);
+        Assert.assertEquals(500, map.values().size());
+        map.clear();
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertFalse(map.values().iterator().hasNext());
+    }
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(11);
+        IntMap<Integer> map = new IntMap<>(4);
+        Map<Integer, Integer> expected = new HashMap<>();
+        for(int i = 0; i < 20000; i++) {
+            int key = random.nextInt(256) - 128;
+            if(random.nextInt(3) == 0) {
+                Assert.assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                Assert.assertEquals(expected.put(key, i), map.put(key, i));
+            }
+            Assert.assertEquals(expected.size(), map.size());
+        }
+        for(int key = -128; key < 128; key++) {
+            Assert.assertEquals(expected.get(key), map.get(key));
+        }
+        List<Integer> values = new ArrayList<>(map.values());
+        values.sort(null);
+        List<Integer> expectedValues = new ArrayList<>(expected.values());
+        expectedValues.sort(null);
+        Assert.assertEquals(expectedValues, values);
+    }
+
+    private static void assertValues(IntMap<String> map, String ... values) {
+        List<String> results = new ArrayList<>(map.values());
+        results.sort(null);
+        List<String> expected = new ArrayList<>();
+        for(String value : values) {
+            expected.add(value);
+        }
+        expected.sort(null);
+        Assert.assertEquals(expected, results);
+    }
+}